@@ -2,14 +2,17 @@ package advanced;
 
 import gr.james.influence.algorithms.generators.random.RandomGenerator;
 import gr.james.influence.algorithms.scoring.PageRank;
+import gr.james.influence.algorithms.scoring.PageRankSensitivity;
 import gr.james.influence.exceptions.IllegalVertexException;
 import gr.james.influence.graph.DirectedEdge;
 import gr.james.influence.graph.DirectedGraph;
 import gr.james.influence.graph.Graphs;
 import gr.james.influence.graph.VertexProvider;
 
+import java.util.List;
+
 /**
- * Demonstration of a simple brute force search method.
+ * Demonstration of a search method that estimates the effect of every candidate and refines only the most promising.
  * <p>
  * Determines the best edge to remove from a {@link DirectedGraph} so as to maximize the eigenvector centrality of a
  * specified vertex.
@@ -29,13 +32,18 @@ public final class MaximizeCentrality {
      * Determine the best edge to remove from a graph so as to maximize the eigenvector centrality of a specified
      * vertex.
      * <p>
-     * This method uses a brute force search for all edges in {@code g}.
+     * This method estimates the effect of every edge of {@code g} from a single solution using
+     * {@link PageRankSensitivity} and only recomputes the centrality for the
+     * {@link PageRankSensitivity#REFINEMENT_FACTOR} edges with the best estimates, instead of performing a brute force
+     * search that recomputes it for every edge. The result is therefore the best of these edges, which is usually but
+     * not necessarily the best edge of {@code g}.
      *
      * @param g   the graph to perform the search
      * @param v   the vertex to maximize its centrality
      * @param <V> the vertex type
      * @param <E> the edge type
-     * @return the edge of {@code g} that, when removed, maximizes the eigenvector centrality of {@code v}
+     * @return the edge of {@code g} that, when removed, maximizes the eigenvector centrality of {@code v} among the
+     * refined edges, or {@code null} if no such edge was found
      * @throws NullPointerException     if {@code g} or {@code v} is {@code null}
      * @throws IllegalVertexException   if {@code v} is not part of {@code g}
      * @throws IllegalArgumentException if {@code g} doesn't have any edges
@@ -51,38 +59,20 @@ public final class MaximizeCentrality {
             throw new IllegalVertexException();
         }
 
-        // Copy g because it may be unmodifiable
-        final DirectedGraph<V, E> h = DirectedGraph.create(g);
-
-        // This variable holds the best edge during the search
-        DirectedEdge<V, E> bestEdge = null;
-
-        // This variable holds the best value of eigenvector centrality during the search
-        double bestEigenvector = -1;
-
-        // Perform a search for every edge in g
-        for (DirectedEdge<V, E> edge : g.edges()) {
-            // Remove the edge
-            final DirectedEdge<V, E> removedEdge = h.removeEdge(edge.source(), edge.target());
-
-            // Surely, the removedEdge should never be null since it is guaranteed to exist in h
-            assert removedEdge != null;
-
-            // Calculate the eigenvector centrality of v using the PageRank class with damping factor of 1
-            final double eigenvector = PageRank.execute(h, 1.0).get(v);
-
-            // Assign a new edge if better
-            if (eigenvector > bestEigenvector) {
-                bestEigenvector = eigenvector;
-                bestEdge = removedEdge;
-                System.out.printf("Found new edge %s yielding eigenvector centrality of %.2f%n", removedEdge, eigenvector);
-            }
-
-            // Add the edge back into the graph
-            h.addEdge(edge.source(), edge.target(), edge.value(), edge.weight());
+        // Rank the removals using a damping factor of 1, which corresponds to eigenvector centrality
+        final PageRankSensitivity<V> sensitivity = new PageRankSensitivity<>(g, 1.0, v, 1e-10);
+        final List<PageRankSensitivity.Change<V>> ranking = sensitivity.rankRemovals(1);
+        if (ranking.isEmpty() || Double.isNaN(ranking.get(0).effect())) {
+            System.out.println("No edge was found because the iterations did not converge");
+            return null;
         }
+        final PageRankSensitivity.Change<V> best = ranking.get(0);
+        System.out.printf("Found edge %s -> %s yielding eigenvector centrality of %.2f%n",
+                best.source(), best.target(), sensitivity.score() + best.effect());
+        System.out.printf("This is the best of the %d edges with the best estimated effect, not of all %d edges%n",
+                PageRankSensitivity.REFINEMENT_FACTOR, Graphs.getEdgesCount(g));
 
         // Return the best edge
-        return bestEdge;
+        return g.findEdge(best.source(), best.target());
     }
 }
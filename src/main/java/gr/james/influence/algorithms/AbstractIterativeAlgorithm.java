@@ -1,31 +1,335 @@
 package gr.james.influence.algorithms;
 
 import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
 import gr.james.influence.util.Finals;
-import gr.james.influence.util.collections.EvictingLinkedHashSet;
 import gr.james.influence.util.collections.GraphState;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public abstract class AbstractIterativeAlgorithm<V, T> implements IterativeAlgorithm<V, T> {
+    /**
+     * @deprecated periodic states are detected with constant memory and there is no state history anymore
+     */
+    @Deprecated
     public static final int INITIAL_SIZE = 2;
+
+    /**
+     * @deprecated periodic states are detected with constant memory and there is no state history anymore
+     */
+    @Deprecated
     public static final int REPS_INCREASE = 500;
 
     private GraphState<V, T> lastState;
     private DirectedGraph<V, ?> g;
     private boolean hasNext;
-    private EvictingLinkedHashSet<GraphState<V, T>> stateHistory;
-    private int reps;
+    private long lastFingerprint;
+    private GraphState<V, T> tortoise;
+    private long tortoiseFingerprint;
+    private int power;
+    private int lambda;
+    private int iterations;
+    private long elapsedNanos;
+    private final List<IterationListener> listeners;
+    private final ConvergencePolicy policy;
+    private final Residual residual;
+    private Path checkpointFile;
+    private int checkpointInterval;
+    private long graphFingerprint;
+    private ExecutorService checkpointExecutor;
+    private Future<?> pendingCheckpoint;
 
-    protected AbstractIterativeAlgorithm(DirectedGraph<V, ?> g, GraphState<V, T> initial) {
+    protected AbstractIterativeAlgorithm(DirectedGraph<V, ?> g, GraphState<V, T> initial, ConvergencePolicy policy) {
         this.g = g;
         this.lastState = initial;
         this.hasNext = true;
-        this.stateHistory = new EvictingLinkedHashSet<>(INITIAL_SIZE);
-        this.reps = 0;
+        this.tortoise = null;
+        this.power = 1;
+        this.lambda = 0;
+        this.iterations = 0;
+        this.elapsedNanos = 0;
+        this.listeners = new ArrayList<>();
+        this.policy = Conditions.requireNonNull(policy);
+        this.residual = new Residual();
+    }
+
+    protected AbstractIterativeAlgorithm(DirectedGraph<V, ?> g, GraphState<V, T> initial) {
+        this(g, initial, ConvergencePolicy.exact());
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread or {@code -1} if the JVM does not support it.
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+            if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+                return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Registers a listener that is notified after each iteration.
+     * <p>
+     * The residual, changed vertices and allocation of each iteration are only measured while at least one listener
+     * is registered, because they require an additional pass over the states; the iteration count and elapsed time
+     * are always recorded.
+     *
+     * @param listener the listener
+     * @throws NullPointerException if {@code listener} is {@code null}
+     */
+    public void addListener(IterationListener listener) {
+        listeners.add(Conditions.requireNonNull(listener));
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener
+     * @return {@code true} if the listener was registered, otherwise {@code false}
+     */
+    public boolean removeListener(IterationListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Returns the number of iterations performed so far.
+     *
+     * @return the number of iterations performed so far
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the total wall clock time of the iterations performed so far in nanoseconds.
+     *
+     * @return the total wall clock time of the iterations performed so far in nanoseconds
+     */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the {@link ConvergencePolicy} of this algorithm.
+     *
+     * @return the {@link ConvergencePolicy} of this algorithm
+     */
+    public ConvergencePolicy convergencePolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the {@link Residual} of the current iteration, which {@link #step(DirectedGraph, GraphState)} should
+     * update with the old and new value of every component of the state.
+     * <p>
+     * The residual is reset before each step.
+     *
+     * @return the {@link Residual} of the current iteration
+     */
+    protected final Residual residual() {
+        return residual;
+    }
+
+    /**
+     * Returns the {@link StateCodec} that encodes the values of the states of this algorithm in checkpoints.
+     * <p>
+     * The default implementation returns {@code null}, which means that the algorithm does not support checkpoints.
+     *
+     * @return the {@link StateCodec} of the values or {@code null} if checkpoints are not supported
+     */
+    protected StateCodec<T> stateCodec() {
+        return null;
+    }
+
+    /**
+     * Returns a fingerprint of the parameters of this algorithm that determine its iterations, which is written in
+     * checkpoints so that {@link #resume(Path)} rejects a checkpoint of the same algorithm with different parameters.
+     * <p>
+     * The default implementation returns 0, which is suitable for algorithms whose iterations only depend on the graph
+     * and the state. Parameters that only determine the initial state or the termination, like the
+     * {@link ConvergencePolicy}, should not be included.
+     *
+     * @return a fingerprint of the parameters of this algorithm
+     */
+    protected long parameterFingerprint() {
+        return 0;
+    }
+
+    private StateCodec<T> requireStateCodec() {
+        final StateCodec<T> codec = stateCodec();
+        if (codec == null) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support checkpoints");
+        }
+        return codec;
+    }
+
+    /**
+     * Enables checkpoints every {@code interval} iterations to {@code file}.
+     * <p>
+     * The state is encoded in memory on the iterating thread, which takes time {@code O(V)}, and written to the file
+     * by a background thread. The file is replaced atomically, so that it always holds the latest complete
+     * checkpoint. If the previous checkpoint is still being written when the next one is due, the next one is
+     * skipped instead of stalling the iterations. The checkpoint can be loaded with {@link #resume(Path)}.
+     *
+     * @param file     the checkpoint file
+     * @param interval the number of iterations between checkpoints
+     * @throws NullPointerException          if {@code file} is {@code null}
+     * @throws IllegalArgumentException      if {@code interval} is less than 1
+     * @throws UnsupportedOperationException if this algorithm does not support checkpoints
+     */
+    public void checkpointTo(Path file, int interval) {
+        Conditions.requireNonNull(file);
+        Conditions.requireArgument(interval >= 1, "interval must be positive, got %d", interval);
+        requireStateCodec();
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+        this.graphFingerprint = Checkpoint.fingerprint(g);
+    }
+
+    /**
+     * Continues this algorithm from the checkpoint in {@code file}.
+     * <p>
+     * The state, the number of iterations and the elapsed time are restored from the checkpoint, which must have been
+     * written by an algorithm of the same class with the same {@link #parameterFingerprint() parameters} for a graph
+     * with the same vertices in the same iteration order and the same edges as the graph of this algorithm. This method
+     * must be invoked before the first iteration.
+     *
+     * @param file the checkpoint file
+     * @throws NullPointerException          if {@code file} is {@code null}
+     * @throws IllegalArgumentException      if the checkpoint was written by a different algorithm, with different
+     *                                       parameters or for a different graph
+     * @throws IllegalStateException         if this algorithm has already performed iterations
+     * @throws UnsupportedOperationException if this algorithm does not support checkpoints
+     * @throws IOException                   if the checkpoint cannot be read or is corrupt
+     */
+    public void resume(Path file) throws IOException {
+        Conditions.requireNonNull(file);
+        final StateCodec<T> codec = requireStateCodec();
+        if (iterations != 0) {
+            throw new IllegalStateException("Cannot resume after the first iteration");
+        }
+        final Checkpoint<V, T> checkpoint = Checkpoint.read(file, getClass().getName(), parameterFingerprint(), g,
+                codec);
+        this.lastState = checkpoint.state;
+        this.iterations = checkpoint.iterations;
+        this.elapsedNanos = checkpoint.elapsedNanos;
+    }
+
+    /**
+     * Waits for the checkpoint that is being written, if any, to complete and stops the thread that writes the
+     * checkpoints.
+     * <p>
+     * The thread is started again by the next checkpoint, if the iterations continue.
+     *
+     * @throws IOException if writing the checkpoint failed or the wait was interrupted
+     */
+    public void awaitCheckpoint() throws IOException {
+        try {
+            if (pendingCheckpoint != null) {
+                pendingCheckpoint.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            shutdownCheckpoints();
+        }
     }
 
-    protected abstract boolean converges(GraphState<V, T> previous, GraphState<V, T> next);
+    private void shutdownCheckpoints() {
+        if (checkpointExecutor != null) {
+            checkpointExecutor.shutdown();
+            checkpointExecutor = null;
+        }
+    }
+
+    private void checkpoint(GraphState<V, T> state) {
+        if (pendingCheckpoint != null && !pendingCheckpoint.isDone()) {
+            Finals.LOG.debug("Skipped checkpoint at iteration {} because the previous one is pending", iterations);
+            return;
+        }
+        final byte[] bytes;
+        try {
+            bytes = Checkpoint.encode(getClass().getName(), parameterFingerprint(), g, graphFingerprint, iterations,
+                    elapsedNanos, state, stateCodec());
+        } catch (IOException e) {
+            Finals.LOG.warn("Failed to encode checkpoint at iteration {}", iterations, e);
+            return;
+        }
+        if (checkpointExecutor == null) {
+            checkpointExecutor = Executors.newSingleThreadExecutor(r -> {
+                final Thread t = new Thread(r, "checkpoint-" + checkpointFile.getFileName());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        final Path file = checkpointFile;
+        final int iteration = iterations;
+        pendingCheckpoint = checkpointExecutor.submit(() -> {
+            try {
+                Checkpoint.write(file, bytes);
+            } catch (IOException e) {
+                Finals.LOG.warn("Failed to write checkpoint at iteration {} to {}", iteration, file, e);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks if the algorithm has converged after producing {@code next} from {@code previous}.
+     * <p>
+     * The default implementation tests the {@link #residual()} against the {@link ConvergencePolicy}. If the step
+     * has not updated the residual, it is first computed from the states, which is only possible if the values are
+     * {@link Number numbers}.
+     *
+     * @param previous the previous state
+     * @param next     the new state
+     * @return {@code true} if the algorithm has converged, otherwise {@code false}
+     */
+    protected boolean converges(GraphState<V, T> previous, GraphState<V, T> next) {
+        measure(previous, next);
+        return policy.converged(residual);
+    }
+
+    /**
+     * Computes the {@link #residual()} from the states if the step has not updated it.
+     */
+    private void measure(GraphState<V, T> previous, GraphState<V, T> next) {
+        if (residual.count() == 0) {
+            for (Map.Entry<V, T> e : next.entrySet()) {
+                final Object a = previous.get(e.getKey());
+                final Object b = e.getValue();
+                if (a instanceof Number && b instanceof Number) {
+                    residual.add(((Number) a).doubleValue(), ((Number) b).doubleValue());
+                } else {
+                    residual.add(0, Double.NaN);
+                }
+            }
+        }
+    }
 
     protected abstract GraphState<V, T> step(DirectedGraph<V, ?> g, GraphState<V, T> previous);
 
@@ -35,29 +339,105 @@ public abstract class AbstractIterativeAlgorithm<V, T> implements IterativeAlgor
             throw new NoSuchElementException();
         }
 
+        final long start = System.nanoTime();
+        final long allocated = listeners.isEmpty() ? -1 : allocatedBytes();
+        final GraphState<V, T> previousState = lastState;
+
+        if (tortoise == null) {
+            tortoise = lastState;
+            tortoiseFingerprint = lastFingerprint = lastState.fingerprint();
+        }
+
+        residual.reset();
         GraphState<V, T> nextState = step(g, lastState);
+        IterationMetrics.Status status = IterationMetrics.Status.RUNNING;
 
         if (converges(lastState, nextState)) {
             hasNext = false;
-            return nextState;
+            status = IterationMetrics.Status.CONVERGED;
+        } else {
+            final long fingerprint = nextState.fingerprint();
+            final int period = period(nextState, fingerprint);
+            if (period > 0) {
+                hasNext = false;
+                status = IterationMetrics.Status.PERIODIC;
+                if (period > 1) {
+                    Finals.LOG.debug(Finals.L_PERIODIC, g, period, iterations + 1);
+                }
+            } else {
+                lastState = nextState;
+                lastFingerprint = fingerprint;
+            }
         }
 
-        if (!stateHistory.add(nextState)) {
-            hasNext = false;
-            if (Finals.LOG.isDebugEnabled() && !nextState.equals(lastState)) {
-                Finals.LOG.debug(Finals.L_PERIODIC, g, stateHistory.getMaxSize(), System.lineSeparator(), stateHistory, nextState);
+        final long wallTime = System.nanoTime() - start;
+        iterations++;
+        elapsedNanos += wallTime;
+        if (hasNext) {
+            if (iterations >= policy.maxIterations()) {
+                hasNext = false;
+                status = IterationMetrics.Status.ITERATION_LIMIT;
+            } else if (elapsedNanos >= policy.maxWallTimeNanos()) {
+                hasNext = false;
+                status = IterationMetrics.Status.TIME_LIMIT;
+            }
+        }
+        if (checkpointFile != null) {
+            if (hasNext && iterations % checkpointInterval == 0) {
+                checkpoint(nextState);
+            }
+            if (!hasNext) {
+                shutdownCheckpoints();
             }
-            return nextState;
         }
+        if (!listeners.isEmpty()) {
+            notifyListeners(previousState, nextState, wallTime, allocated, status);
+        }
+        return nextState;
+    }
 
-        if (++reps == REPS_INCREASE) {
-            stateHistory.increaseMaxSize();
-            Finals.LOG.trace("Increased maxSize to {}", stateHistory.getMaxSize());
-            reps = 0;
+    /**
+     * Checks if {@code next} repeats an earlier state using Brent's cycle detection.
+     * <p>
+     * The state is compared with the previous state, which catches fixed points immediately, and with a reference
+     * state that is moved to the current state whenever the distance from it reaches the next power of 2. Any cycle
+     * is therefore detected within a number of iterations proportional to its length and the length of the prefix
+     * before it, while only two states are retained. The states are compared by fingerprint and only compared exactly
+     * when the fingerprints are equal.
+     *
+     * @return the length of the period or 0 if no repetition was detected
+     */
+    private int period(GraphState<V, T> next, long fingerprint) {
+        if (fingerprint == lastFingerprint && next.equals(lastState)) {
+            return 1;
+        }
+        if (fingerprint == tortoiseFingerprint && next.equals(tortoise)) {
+            return lambda + 1;
+        }
+        if (++lambda == power) {
+            tortoise = next;
+            tortoiseFingerprint = fingerprint;
+            power *= 2;
+            lambda = 0;
         }
+        return 0;
+    }
 
-        lastState = nextState;
-        return lastState;
+    private void notifyListeners(GraphState<V, T> previous, GraphState<V, T> next, long wallTime, long allocated,
+                                 IterationMetrics.Status status) {
+        final long allocatedAfter = allocated < 0 ? -1 : allocatedBytes();
+        int changed = 0;
+        for (Map.Entry<V, T> e : next.entrySet()) {
+            if (!Objects.equals(previous.get(e.getKey()), e.getValue())) {
+                changed++;
+            }
+        }
+        measure(previous, next);
+        final IterationMetrics metrics = new IterationMetrics(iterations, wallTime, residual.norm(policy.norm()),
+                changed, allocatedAfter < 0 ? -1 : allocatedAfter - allocated, power, status);
+        for (IterationListener listener : listeners) {
+            listener.iteration(metrics);
+        }
     }
 
     @Override
@@ -0,0 +1,154 @@
+package gr.james.influence.algorithms;
+
+import gr.james.influence.graph.DirectedEdge;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The binary checkpoint of an {@link AbstractIterativeAlgorithm}.
+ * <p>
+ * The file consists of a header with a magic number, a version, the class name and the parameter fingerprint of the
+ * algorithm, the fingerprint and the vertex count of the graph, the number of iterations and the elapsed time, followed
+ * by the values of the state in the iteration order of the graph, encoded by a {@link StateCodec}, and a CRC32 checksum
+ * of all the preceding bytes. A checkpoint is only accepted by an algorithm of the same class with the same
+ * {@link AbstractIterativeAlgorithm#parameterFingerprint() parameters}. The vertices themselves are not written;
+ * instead, the fingerprint of the graph covers the vertices in iteration order and the edges with their weights, so
+ * that a checkpoint is only accepted by a graph with the same vertex order and the same edges.
+ * <p>
+ * The fingerprint depends on the {@link Object#hashCode() hash codes} of the vertices, which must therefore be stable
+ * across processes for a checkpoint to be resumed in a different process.
+ */
+final class Checkpoint<V, T> {
+    private static final int MAGIC = 0x47534350;
+    private static final int VERSION = 2;
+
+    final int iterations;
+    final long elapsedNanos;
+    final GraphState<V, T> state;
+
+    private Checkpoint(int iterations, long elapsedNanos, GraphState<V, T> state) {
+        this.iterations = iterations;
+        this.elapsedNanos = elapsedNanos;
+        this.state = state;
+    }
+
+    /**
+     * Computes the fingerprint of a graph, which depends on the iteration order of the vertices but not on the
+     * iteration order of the edges.
+     */
+    static <V> long fingerprint(DirectedGraph<V, ?> g) {
+        long fingerprint = mix(g.vertexCount());
+        for (V v : g) {
+            fingerprint = mix(fingerprint + v.hashCode());
+        }
+        long edges = 0;
+        for (V v : g) {
+            for (DirectedEdge<V, ?> e : g.outEdges(v)) {
+                edges += mix(mix(mix(e.source().hashCode()) + e.target().hashCode()) +
+                        Double.doubleToLongBits(e.weight()));
+            }
+        }
+        return mix(fingerprint + edges);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Encodes a checkpoint of {@code state} in memory.
+     */
+    static <V, T> byte[] encode(String algorithm, long parameters, DirectedGraph<V, ?> g, long fingerprint,
+                                int iterations, long elapsedNanos, GraphState<V, T> state, StateCodec<T> codec)
+            throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(40 + 8 * g.vertexCount());
+        final CRC32 crc = new CRC32();
+        final DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bytes, crc));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(algorithm);
+        out.writeLong(parameters);
+        out.writeLong(fingerprint);
+        out.writeInt(g.vertexCount());
+        out.writeInt(iterations);
+        out.writeLong(elapsedNanos);
+        for (V v : g) {
+            codec.write(out, Conditions.requireNonNull(state.get(v), "state is missing vertex %s", v));
+        }
+        out.flush();
+        new DataOutputStream(bytes).writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes an encoded checkpoint to a temporary file and atomically replaces {@code file} with it, so that
+     * {@code file} always holds a complete checkpoint.
+     */
+    static void write(Path file, byte[] checkpoint) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            out.write(checkpoint);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the checkpoint in {@code file}, which must have been written by the algorithm {@code algorithm} with the
+     * parameter fingerprint {@code parameters} for a graph with the same fingerprint as {@code g}.
+     */
+    static <V, T> Checkpoint<V, T> read(Path file, String algorithm, long parameters, DirectedGraph<V, ?> g,
+                                        StateCodec<T> codec) throws IOException {
+        final byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 8) {
+            throw new IOException("Truncated checkpoint " + file);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        if (ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong() != crc.getValue()) {
+            throw new IOException("Corrupt checkpoint " + file);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a checkpoint file " + file);
+            }
+            final String writer = in.readUTF();
+            Conditions.requireArgument(writer.equals(algorithm), "checkpoint %s was written by %s, not %s", file,
+                    writer, algorithm);
+            Conditions.requireArgument(in.readLong() == parameters,
+                    "checkpoint %s was written by %s with different parameters", file, writer);
+            final long fingerprint = in.readLong();
+            final int vertexCount = in.readInt();
+            Conditions.requireArgument(vertexCount == g.vertexCount() && fingerprint == fingerprint(g),
+                    "checkpoint %s was written for a different graph", file);
+            final int iterations = in.readInt();
+            final long elapsedNanos = in.readLong();
+            final GraphState<V, T> state = GraphState.create();
+            for (V v : g) {
+                state.put(v, codec.read(in));
+            }
+            return new Checkpoint<>(iterations, elapsedNanos, state);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package gr.james.influence.algorithms;
+
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedEdge;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.DoubleGraphState;
+import gr.james.influence.util.collections.VertexIndex;
+
+import java.util.*;
+
+/**
+ * An immutable snapshot of a {@link DirectedGraph} in compressed sparse row (CSR) form.
+ * <p>
+ * Each vertex of the graph is assigned an index in {@code [0, V)} in the iteration order of the graph. The outbound
+ * edges of vertex {@code i} occupy the positions {@code [outOffsets()[i], outOffsets()[i + 1])} of the arrays
+ * {@link #outTargets()} and {@link #outWeights()}, and similarly for the inbound edges. This layout allows algorithms
+ * that perform many passes over the edges of a graph to operate on primitive arrays instead of the boxed collections
+ * returned by {@link DirectedGraph}.
+ * <p>
+ * The arrays returned by the accessors of this class are the internal arrays and must not be modified.
+ * <p>
+ * Instances of this class do not reflect changes made to the graph after construction. The method
+ * {@link #requireUnmodified()} may be used to check that the graph has not been mutated since.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ */
+public final class CompressedGraph<V> {
+    private final DirectedGraph<V, ?> g;
+    private final int modCount;
+    private final VertexIndex<V> index;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final double[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final double[] inWeights;
+    private final double[] outStrengths;
+    private final boolean unweighted;
+
+    private CompressedGraph(DirectedGraph<V, ?> g) {
+        this.g = Conditions.requireNonNull(g);
+        this.modCount = g.modCount();
+
+        final int n = g.vertexCount();
+        this.index = VertexIndex.of(g.vertexSet());
+
+        int m = 0;
+        this.outOffsets = new int[n + 1];
+        this.inOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            final V v = index.vertex(i);
+            m += g.outDegree(v);
+            outOffsets[i + 1] = m;
+            inOffsets[i + 1] = inOffsets[i] + g.inDegree(v);
+        }
+
+        this.outTargets = new int[m];
+        this.outWeights = new double[m];
+        this.inSources = new int[m];
+        this.inWeights = new double[m];
+        this.outStrengths = new double[n];
+        final int[] inCursor = Arrays.copyOf(inOffsets, n);
+        boolean unweighted = true;
+        double firstWeight = Double.NaN;
+        for (int i = 0; i < n; i++) {
+            int k = outOffsets[i];
+            double strength = 0;
+            for (DirectedEdge<V, ?> e : g.outEdges(index.vertex(i))) {
+                final int j = index.indexOf(e.target());
+                final double w = e.weight();
+                outTargets[k] = j;
+                outWeights[k] = w;
+                inSources[inCursor[j]] = i;
+                inWeights[inCursor[j]] = w;
+                inCursor[j]++;
+                strength += w;
+                k++;
+                if (Double.isNaN(firstWeight)) {
+                    firstWeight = w;
+                } else if (w != firstWeight) {
+                    unweighted = false;
+                }
+            }
+            outStrengths[i] = strength;
+        }
+        this.unweighted = unweighted;
+    }
+
+    /**
+     * Creates a new {@link CompressedGraph} snapshot of the given graph.
+     * <p>
+     * This method runs in time {@code O(V+E)}.
+     *
+     * @param g   the graph
+     * @param <V> the vertex type
+     * @return a new {@link CompressedGraph} snapshot of {@code g}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public static <V> CompressedGraph<V> of(@UnmodifiableGraph DirectedGraph<V, ?> g) {
+        return new CompressedGraph<>(g);
+    }
+
+    /**
+     * Returns the graph from which this snapshot was created.
+     *
+     * @return the graph from which this snapshot was created
+     */
+    public DirectedGraph<V, ?> getGraph() {
+        return g;
+    }
+
+    /**
+     * Checks that the graph has not been modified since this snapshot was created.
+     *
+     * @throws ConcurrentModificationException if the graph has been modified
+     */
+    public void requireUnmodified() {
+        Conditions.requireModCount(g, modCount);
+    }
+
+    /**
+     * Returns the number of vertices in this snapshot.
+     *
+     * @return the number of vertices in this snapshot
+     */
+    public int vertexCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of edges in this snapshot.
+     *
+     * @return the number of edges in this snapshot
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Returns the vertex with the given index.
+     *
+     * @param i the index
+     * @return the vertex with index {@code i}
+     * @throws IndexOutOfBoundsException if {@code i} is not in {@code [0, V)}
+     */
+    public V vertex(int i) {
+        return index.vertex(i);
+    }
+
+    /**
+     * Returns an unmodifiable {@link List} of the vertices of this snapshot in index order.
+     *
+     * @return an unmodifiable {@link List} of the vertices of this snapshot in index order
+     */
+    public List<V> vertices() {
+        return index.vertices();
+    }
+
+    /**
+     * Returns the {@link VertexIndex} of this snapshot.
+     * <p>
+     * The index is shared by all the {@link DoubleGraphState} instances returned by {@link #toGraphState(double[])}.
+     *
+     * @return the {@link VertexIndex} of this snapshot
+     */
+    public VertexIndex<V> index() {
+        return index;
+    }
+
+    /**
+     * Returns the index of a vertex.
+     *
+     * @param v the vertex
+     * @return the index of {@code v}
+     * @throws NullPointerException   if {@code v} is {@code null}
+     * @throws IllegalVertexException if {@code v} is not in this snapshot
+     */
+    public int indexOf(V v) {
+        final int i = index.indexOf(Conditions.requireNonNull(v));
+        if (i < 0) {
+            throw new IllegalVertexException();
+        }
+        return i;
+    }
+
+    /**
+     * Returns the offsets of the outbound edges of each vertex, an array of length {@code V+1}.
+     *
+     * @return the offsets of the outbound edges of each vertex
+     */
+    public int[] outOffsets() {
+        return outOffsets;
+    }
+
+    /**
+     * Returns the target indices of the outbound edges, an array of length {@code E}.
+     *
+     * @return the target indices of the outbound edges
+     */
+    public int[] outTargets() {
+        return outTargets;
+    }
+
+    /**
+     * Returns the weights of the outbound edges, an array of length {@code E}.
+     *
+     * @return the weights of the outbound edges
+     */
+    public double[] outWeights() {
+        return outWeights;
+    }
+
+    /**
+     * Returns the offsets of the inbound edges of each vertex, an array of length {@code V+1}.
+     *
+     * @return the offsets of the inbound edges of each vertex
+     */
+    public int[] inOffsets() {
+        return inOffsets;
+    }
+
+    /**
+     * Returns the source indices of the inbound edges, an array of length {@code E}.
+     *
+     * @return the source indices of the inbound edges
+     */
+    public int[] inSources() {
+        return inSources;
+    }
+
+    /**
+     * Returns the weights of the inbound edges, an array of length {@code E}.
+     *
+     * @return the weights of the inbound edges
+     */
+    public double[] inWeights() {
+        return inWeights;
+    }
+
+    /**
+     * Returns the sum of the outbound edge weights of each vertex, an array of length {@code V}.
+     *
+     * @return the out strength of each vertex
+     */
+    public double[] outStrengths() {
+        return outStrengths;
+    }
+
+    /**
+     * Returns {@code true} if all the edges of the graph have the same weight, otherwise {@code false}.
+     * <p>
+     * A graph without edges is considered unweighted.
+     *
+     * @return {@code true} if all the edges of the graph have the same weight, otherwise {@code false}
+     */
+    public boolean isUnweighted() {
+        return unweighted;
+    }
+
+    /**
+     * Converts a {@link GraphState} to a vector indexed by this snapshot.
+     *
+     * @param state the {@link GraphState}
+     * @return a new array of length {@code V} containing the values of {@code state}
+     * @throws NullPointerException if {@code state} is {@code null} or does not contain some vertex
+     */
+    public double[] toArray(Map<V, Double> state) {
+        if (state instanceof DoubleGraphState && ((DoubleGraphState<V>) state).isIndexedBy(index)) {
+            return ((DoubleGraphState<V>) state).toArray();
+        }
+        final double[] x = new double[index.size()];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = Conditions.requireNonNull(state.get(index.vertex(i)), "state is missing vertex %s", index.vertex(i));
+        }
+        return x;
+    }
+
+    /**
+     * Converts a vector indexed by this snapshot to a {@link DoubleGraphState} over {@link #index()}.
+     *
+     * @param x the vector
+     * @return a new {@link DoubleGraphState} mapping each vertex to its value in {@code x}
+     * @throws IllegalArgumentException if the length of {@code x} is not {@code V}
+     */
+    public DoubleGraphState<V> toGraphState(double[] x) {
+        return DoubleGraphState.of(index, x);
+    }
+}
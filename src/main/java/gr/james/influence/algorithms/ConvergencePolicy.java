@@ -0,0 +1,187 @@
+package gr.james.influence.algorithms;
+
+import gr.james.influence.util.Conditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determines when an {@link AbstractIterativeAlgorithm} stops iterating.
+ * <p>
+ * An algorithm converges when the {@link Norm norm} of the difference between two consecutive states is at most the
+ * absolute tolerance, or at most the relative tolerance multiplied by the norm of the new state. Independently of
+ * convergence, the algorithm stops after a maximum number of iterations or when its total running time exceeds a wall
+ * clock budget. Periodic states are always detected, regardless of the policy.
+ * <p>
+ * Instances of this class are immutable; the {@code with} methods return modified copies.
+ *
+ * @see Residual
+ */
+public final class ConvergencePolicy {
+    private static final ConvergencePolicy EXACT =
+            new ConvergencePolicy(Norm.LINF, -1, 0, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    private final Norm norm;
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+    private final int maxIterations;
+    private final long maxWallTimeNanos;
+
+    private ConvergencePolicy(Norm norm, double absoluteTolerance, double relativeTolerance, int maxIterations,
+                              long maxWallTimeNanos) {
+        this.norm = norm;
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+        this.maxIterations = maxIterations;
+        this.maxWallTimeNanos = maxWallTimeNanos;
+    }
+
+    /**
+     * Returns a policy that never converges by tolerance, so that the algorithm only stops on a periodic state.
+     *
+     * @return a policy that never converges by tolerance
+     */
+    public static ConvergencePolicy exact() {
+        return EXACT;
+    }
+
+    /**
+     * Returns a policy that converges when the residual under {@code norm} is at most {@code absoluteTolerance}.
+     * <p>
+     * A negative tolerance never converges, which is equivalent to {@link #exact()}.
+     *
+     * @param norm              the norm of the residual
+     * @param absoluteTolerance the absolute tolerance
+     * @return a policy that converges when the residual under {@code norm} is at most {@code absoluteTolerance}
+     * @throws NullPointerException     if {@code norm} is {@code null}
+     * @throws IllegalArgumentException if {@code absoluteTolerance} is {@code NaN}
+     */
+    public static ConvergencePolicy of(Norm norm, double absoluteTolerance) {
+        Conditions.requireNonNull(norm);
+        Conditions.requireArgument(!Double.isNaN(absoluteTolerance), "absoluteTolerance must not be NaN");
+        return new ConvergencePolicy(norm, absoluteTolerance, 0, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a copy of this policy that also converges when the residual is at most {@code relativeTolerance} times
+     * the norm of the new state.
+     *
+     * @param relativeTolerance the relative tolerance, 0 to disable
+     * @return a copy of this policy with the given relative tolerance
+     * @throws IllegalArgumentException if {@code relativeTolerance} is negative or {@code NaN}
+     */
+    public ConvergencePolicy withRelativeTolerance(double relativeTolerance) {
+        Conditions.requireArgument(relativeTolerance >= 0, "relativeTolerance must be non-negative, got %f",
+                relativeTolerance);
+        return new ConvergencePolicy(norm, absoluteTolerance, relativeTolerance, maxIterations, maxWallTimeNanos);
+    }
+
+    /**
+     * Returns a copy of this policy that stops after at most {@code maxIterations} iterations.
+     *
+     * @param maxIterations the maximum number of iterations
+     * @return a copy of this policy with the given maximum number of iterations
+     * @throws IllegalArgumentException if {@code maxIterations} is less than 1
+     */
+    public ConvergencePolicy withMaxIterations(int maxIterations) {
+        Conditions.requireArgument(maxIterations >= 1, "maxIterations must be positive, got %d", maxIterations);
+        return new ConvergencePolicy(norm, absoluteTolerance, relativeTolerance, maxIterations, maxWallTimeNanos);
+    }
+
+    /**
+     * Returns a copy of this policy that stops after the first iteration that exceeds the given wall clock budget.
+     *
+     * @param budget the budget
+     * @param unit   the unit of {@code budget}
+     * @return a copy of this policy with the given wall clock budget
+     * @throws NullPointerException     if {@code unit} is {@code null}
+     * @throws IllegalArgumentException if {@code budget} is not positive
+     */
+    public ConvergencePolicy withWallClockBudget(long budget, TimeUnit unit) {
+        Conditions.requireArgument(budget > 0, "budget must be positive, got %d", budget);
+        return new ConvergencePolicy(norm, absoluteTolerance, relativeTolerance, maxIterations, unit.toNanos(budget));
+    }
+
+    /**
+     * Returns the norm of the residual.
+     *
+     * @return the norm of the residual
+     */
+    public Norm norm() {
+        return norm;
+    }
+
+    /**
+     * Returns the absolute tolerance.
+     *
+     * @return the absolute tolerance
+     */
+    public double absoluteTolerance() {
+        return absoluteTolerance;
+    }
+
+    /**
+     * Returns the relative tolerance, 0 if disabled.
+     *
+     * @return the relative tolerance
+     */
+    public double relativeTolerance() {
+        return relativeTolerance;
+    }
+
+    /**
+     * Returns the maximum number of iterations.
+     *
+     * @return the maximum number of iterations
+     */
+    public int maxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Returns the wall clock budget in nanoseconds.
+     *
+     * @return the wall clock budget in nanoseconds
+     */
+    public long maxWallTimeNanos() {
+        return maxWallTimeNanos;
+    }
+
+    /**
+     * Checks if the given residual satisfies the tolerances of this policy.
+     *
+     * @param residual the residual of an iteration
+     * @return {@code true} if {@code residual} satisfies the tolerances of this policy, otherwise {@code false}
+     * @throws NullPointerException if {@code residual} is {@code null}
+     */
+    public boolean converged(Residual residual) {
+        final double r = residual.norm(norm);
+        return r <= absoluteTolerance || (relativeTolerance > 0 && r <= relativeTolerance * residual.scale(norm));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConvergencePolicy{norm=%s, absoluteTolerance=%s, relativeTolerance=%s, " +
+                "maxIterations=%d, maxWallTimeNanos=%d}", norm, absoluteTolerance, relativeTolerance, maxIterations,
+                maxWallTimeNanos);
+    }
+
+    /**
+     * The vector norms of the residual.
+     */
+    public enum Norm {
+        /**
+         * The sum of the absolute differences.
+         */
+        L1,
+
+        /**
+         * The square root of the sum of the squared differences.
+         */
+        L2,
+
+        /**
+         * The maximum absolute difference.
+         */
+        LINF
+    }
+}
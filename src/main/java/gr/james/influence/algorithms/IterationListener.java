@@ -0,0 +1,20 @@
+package gr.james.influence.algorithms;
+
+/**
+ * A listener that is notified after each iteration of an {@link AbstractIterativeAlgorithm}.
+ * <p>
+ * Listeners are invoked synchronously on the thread that calls {@link AbstractIterativeAlgorithm#next()}, after the
+ * iteration has completed, and should therefore return quickly.
+ *
+ * @see AbstractIterativeAlgorithm#addListener(IterationListener)
+ * @see IterationMetricsCollector
+ */
+@FunctionalInterface
+public interface IterationListener {
+    /**
+     * Invoked after an iteration has completed.
+     *
+     * @param metrics the metrics of the iteration
+     */
+    void iteration(IterationMetrics metrics);
+}
@@ -0,0 +1,137 @@
+package gr.james.influence.algorithms;
+
+/**
+ * The metrics of a single iteration of an {@link AbstractIterativeAlgorithm}.
+ * <p>
+ * The residual and the number of changed vertices compare the state produced by the iteration with the state that was
+ * its input. The residual is the {@link AbstractIterativeAlgorithm#residual() residual} of the iteration in the
+ * {@link ConvergencePolicy#norm() norm} of the convergence policy, which is {@link Double#NaN} if the values are not
+ * {@link Number numbers}.
+ *
+ * @see IterationListener
+ */
+public final class IterationMetrics {
+    private final int iteration;
+    private final long wallTimeNanos;
+    private final double residual;
+    private final int changedVertices;
+    private final long allocatedBytes;
+    private final int historySize;
+    private final Status status;
+
+    IterationMetrics(int iteration, long wallTimeNanos, double residual, int changedVertices, long allocatedBytes,
+                     int historySize, Status status) {
+        this.iteration = iteration;
+        this.wallTimeNanos = wallTimeNanos;
+        this.residual = residual;
+        this.changedVertices = changedVertices;
+        this.allocatedBytes = allocatedBytes;
+        this.historySize = historySize;
+        this.status = status;
+    }
+
+    /**
+     * Returns the number of this iteration, starting from 1.
+     *
+     * @return the number of this iteration
+     */
+    public int iteration() {
+        return iteration;
+    }
+
+    /**
+     * Returns the wall clock time of this iteration in nanoseconds, including the convergence check.
+     *
+     * @return the wall clock time of this iteration in nanoseconds
+     */
+    public long wallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Returns the norm of the differences between the values of the input and the output state of this iteration, in
+     * the norm of the {@link ConvergencePolicy}.
+     *
+     * @return the residual of this iteration or {@link Double#NaN} if the values are not numbers
+     */
+    public double residual() {
+        return residual;
+    }
+
+    /**
+     * Returns the number of vertices whose value differs between the input and the output state of this iteration.
+     *
+     * @return the number of changed vertices
+     */
+    public int changedVertices() {
+        return changedVertices;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the calling thread during this iteration.
+     *
+     * @return the number of bytes allocated during this iteration or {@code -1} if the JVM does not support measuring
+     * thread allocation
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the window of the cycle detection after this iteration, the distance at which the reference state of
+     * Brent's algorithm is next moved. Only two states are retained regardless of the window.
+     *
+     * @return the window of the cycle detection
+     */
+    public int historySize() {
+        return historySize;
+    }
+
+    /**
+     * Returns the status of the algorithm after this iteration.
+     *
+     * @return the status of the algorithm after this iteration
+     */
+    public Status status() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IterationMetrics{iteration=%d, wallTimeNanos=%d, residual=%s, changedVertices=%d, " +
+                        "allocatedBytes=%d, historySize=%d, status=%s}", iteration, wallTimeNanos, residual,
+                changedVertices, allocatedBytes, historySize, status);
+    }
+
+    /**
+     * The status of an {@link AbstractIterativeAlgorithm} after an iteration.
+     */
+    public enum Status {
+        /**
+         * The algorithm has more iterations.
+         */
+        RUNNING,
+
+        /**
+         * The algorithm has converged and this was the last iteration.
+         */
+        CONVERGED,
+
+        /**
+         * The algorithm has reached a previously seen state and this was the last iteration.
+         */
+        PERIODIC,
+
+        /**
+         * The algorithm has reached the maximum number of iterations of its {@link ConvergencePolicy} and this was the
+         * last iteration.
+         */
+        ITERATION_LIMIT,
+
+        /**
+         * The algorithm has exceeded the wall clock budget of its {@link ConvergencePolicy} and this was the last
+         * iteration.
+         */
+        TIME_LIMIT
+    }
+}
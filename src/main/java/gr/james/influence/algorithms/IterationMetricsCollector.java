@@ -0,0 +1,125 @@
+package gr.james.influence.algorithms;
+
+import com.google.gson.stream.JsonWriter;
+import gr.james.influence.util.Conditions;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An {@link IterationListener} that records the {@link IterationMetrics} of every iteration.
+ * <p>
+ * The recorded metrics can be exported in CSV or JSON form with {@link #writeCsv(Writer)} and
+ * {@link #writeJson(Writer)}. The method {@link #convergenceRate(int)} estimates the rate at which the residual
+ * decreases, which can be used to detect runs that converge slowly.
+ * <p>
+ * This class uses state of size {@code O(I)}, where {@code I} is the number of iterations.
+ */
+public class IterationMetricsCollector implements IterationListener {
+    private static final String[] COLUMNS = {"iteration", "wallTimeNanos", "residual", "changedVertices",
+            "allocatedBytes", "historySize", "status"};
+
+    private final List<IterationMetrics> metrics = new ArrayList<>();
+
+    @Override
+    public void iteration(IterationMetrics metrics) {
+        this.metrics.add(Conditions.requireNonNull(metrics));
+    }
+
+    /**
+     * Returns the metrics of all the recorded iterations in order.
+     *
+     * @return an unmodifiable {@link List} of the metrics of all the recorded iterations
+     */
+    public List<IterationMetrics> metrics() {
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /**
+     * Returns the total wall clock time of the recorded iterations in nanoseconds.
+     *
+     * @return the total wall clock time of the recorded iterations in nanoseconds
+     */
+    public long totalWallTimeNanos() {
+        long total = 0;
+        for (IterationMetrics m : metrics) {
+            total += m.wallTimeNanos();
+        }
+        return total;
+    }
+
+    /**
+     * Estimates the rate of convergence over the last {@code window} iterations.
+     * <p>
+     * The rate is the geometric mean of the ratios of the residuals of consecutive iterations. A value close to 1
+     * indicates that the residual is decreasing slowly, while a value close to 0 indicates fast convergence.
+     *
+     * @param window the number of iterations to consider
+     * @return the rate of convergence over the last {@code window} iterations or {@link Double#NaN} if fewer than
+     * {@code window + 1} iterations have been recorded or the residuals are not positive numbers
+     * @throws IllegalArgumentException if {@code window} is less than 1
+     */
+    public double convergenceRate(int window) {
+        Conditions.requireArgument(window >= 1, "window must be positive, got %d", window);
+        if (metrics.size() < window + 1) {
+            return Double.NaN;
+        }
+        final double first = metrics.get(metrics.size() - window - 1).residual();
+        final double last = metrics.get(metrics.size() - 1).residual();
+        if (!(first > 0) || !(last > 0)) {
+            return Double.NaN;
+        }
+        return Math.pow(last / first, 1.0 / window);
+    }
+
+    /**
+     * Writes the recorded metrics in CSV form, one line per iteration, preceded by a header line.
+     *
+     * @param target the {@link Writer} to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCsv(Writer target) throws IOException {
+        target.write(String.join(",", COLUMNS));
+        target.write(System.lineSeparator());
+        for (IterationMetrics m : metrics) {
+            target.write(String.format(Locale.ROOT, "%d,%d,%s,%d,%d,%d,%s%n", m.iteration(), m.wallTimeNanos(),
+                    m.residual(), m.changedVertices(), m.allocatedBytes(), m.historySize(), m.status()));
+        }
+        target.flush();
+    }
+
+    /**
+     * Writes the recorded metrics in JSON form, as an array of objects with one object per iteration.
+     * <p>
+     * Residuals that are not finite are written as {@code null}.
+     *
+     * @param target the {@link Writer} to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeJson(Writer target) throws IOException {
+        final JsonWriter w = new JsonWriter(target);
+        w.beginArray();
+        for (IterationMetrics m : metrics) {
+            w.beginObject();
+            w.name(COLUMNS[0]).value(m.iteration());
+            w.name(COLUMNS[1]).value(m.wallTimeNanos());
+            w.name(COLUMNS[2]);
+            if (Double.isFinite(m.residual())) {
+                w.value(m.residual());
+            } else {
+                w.nullValue();
+            }
+            w.name(COLUMNS[3]).value(m.changedVertices());
+            w.name(COLUMNS[4]).value(m.allocatedBytes());
+            w.name(COLUMNS[5]).value(m.historySize());
+            w.name(COLUMNS[6]).value(m.status().name());
+            w.endObject();
+        }
+        w.endArray();
+        w.flush();
+    }
+}
@@ -0,0 +1,89 @@
+package gr.james.influence.algorithms;
+
+/**
+ * Accumulates the difference between two consecutive states of an {@link AbstractIterativeAlgorithm} under all the
+ * {@link ConvergencePolicy.Norm norms}, along with the norms of the new state that are used for relative tolerances.
+ * <p>
+ * Implementations of {@link AbstractIterativeAlgorithm#step(gr.james.influence.graph.DirectedGraph,
+ * gr.james.influence.util.collections.GraphState) step} call {@link #add(double, double)} with the old and the new
+ * value of every component while computing the new state, which avoids a second pass over the states.
+ */
+public final class Residual {
+    private double l1;
+    private double l2;
+    private double linf;
+    private double scaleL1;
+    private double scaleL2;
+    private double scaleLinf;
+    private int count;
+
+    Residual() {
+    }
+
+    /**
+     * Adds the difference of a single component.
+     *
+     * @param previous the old value
+     * @param next     the new value
+     */
+    public void add(double previous, double next) {
+        final double d = Math.abs(next - previous);
+        final double a = Math.abs(next);
+        l1 += d;
+        l2 += d * d;
+        linf = d > linf || d != d ? d : linf;
+        scaleL1 += a;
+        scaleL2 += a * a;
+        scaleLinf = Math.max(scaleLinf, a);
+        count++;
+    }
+
+    /**
+     * Returns the number of components added since the last reset.
+     *
+     * @return the number of components added since the last reset
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the norm of the differences.
+     *
+     * @param norm the norm
+     * @return the norm of the differences
+     */
+    public double norm(ConvergencePolicy.Norm norm) {
+        switch (norm) {
+            case L1:
+                return l1;
+            case L2:
+                return Math.sqrt(l2);
+            default:
+                return linf;
+        }
+    }
+
+    /**
+     * Returns the norm of the new values.
+     *
+     * @param norm the norm
+     * @return the norm of the new values
+     */
+    public double scale(ConvergencePolicy.Norm norm) {
+        switch (norm) {
+            case L1:
+                return scaleL1;
+            case L2:
+                return Math.sqrt(scaleL2);
+            default:
+                return scaleLinf;
+        }
+    }
+
+    void reset() {
+        l1 = l2 = linf = 0;
+        scaleL1 = scaleL2 = scaleLinf = 0;
+        count = 0;
+    }
+}
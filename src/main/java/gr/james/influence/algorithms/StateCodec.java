@@ -0,0 +1,51 @@
+package gr.james.influence.algorithms;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes the values of a {@link gr.james.influence.util.collections.GraphState} in binary form, for the checkpoints
+ * of an {@link AbstractIterativeAlgorithm}.
+ *
+ * @param <T> the value type
+ * @see AbstractIterativeAlgorithm#checkpointTo(java.nio.file.Path, int)
+ */
+public interface StateCodec<T> {
+    /**
+     * The codec of {@link Double} values, 8 bytes per value.
+     *
+     * @return the codec of {@link Double} values
+     */
+    static StateCodec<Double> doubles() {
+        return new StateCodec<Double>() {
+            @Override
+            public void write(DataOutput out, Double value) throws IOException {
+                out.writeDouble(value);
+            }
+
+            @Override
+            public Double read(DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        };
+    }
+
+    /**
+     * Writes a value.
+     *
+     * @param out   the output
+     * @param value the value
+     * @throws IOException if an I/O error occurs
+     */
+    void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Reads a value that was written by {@link #write(DataOutput, Object)}.
+     *
+     * @param in the input
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    T read(DataInput in) throws IOException;
+}
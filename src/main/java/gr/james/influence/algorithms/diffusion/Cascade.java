@@ -0,0 +1,186 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.CompressedGraph;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A reusable single-threaded worker that simulates one diffusion at a time on a {@link CompressedGraph}.
+ * <p>
+ * The active vertices are held in a bitset and, in activation order, in an array that doubles as the frontier queue of
+ * the diffusion. The random choices of the model are made lazily, so that each edge and each threshold is drawn at
+ * most once per diffusion and {@link #reset()} only clears the entries that the last diffusion touched. Activating
+ * further vertices continues the current diffusion, which, because the model is progressive, is equivalent to a
+ * diffusion started from all the vertices activated so far.
+ * <p>
+ * The worker also supports a single {@link #mark() mark}, to which the diffusion can be {@link #rollback() rolled
+ * back}, so that several extensions of the same diffusion can be simulated without repeating its common part.
+ * <p>
+ * This class uses state of size {@code O(V)} plus, for {@link DiffusionModel#LINEAR_THRESHOLD}, the undo log of the
+ * diffusion since the mark.
+ */
+final class Cascade {
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final boolean threshold;
+
+    private final long[] active;
+    private final int[] queue;
+    private int size;
+    private int mark;
+
+    private final double[] accumulated;
+    private final double[] thresholds;
+    private final int[] touched;
+    private int touchedCount;
+    private int[] undoVertices;
+    private double[] undoValues;
+    private int undoCount;
+
+    Cascade(CompressedGraph<?> graph, DiffusionModel model) {
+        final int n = graph.vertexCount();
+        this.offsets = graph.outOffsets();
+        this.targets = graph.outTargets();
+        this.weights = graph.outWeights();
+        this.threshold = model == DiffusionModel.LINEAR_THRESHOLD;
+        this.active = new long[(n + 63) >>> 6];
+        this.queue = new int[n];
+        this.mark = -1;
+        if (threshold) {
+            this.accumulated = new double[n];
+            this.thresholds = new double[n];
+            Arrays.fill(thresholds, Double.NaN);
+            this.touched = new int[n];
+            this.undoVertices = new int[Math.max(16, n)];
+            this.undoValues = new double[undoVertices.length];
+        } else {
+            this.accumulated = null;
+            this.thresholds = null;
+            this.touched = null;
+        }
+    }
+
+    /**
+     * Returns the number of active vertices.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the {@code i}-th active vertex in activation order.
+     */
+    int activated(int i) {
+        return queue[i];
+    }
+
+    boolean isActive(int v) {
+        return (active[v >>> 6] & (1L << v)) != 0;
+    }
+
+    /**
+     * Deactivates all vertices, in time proportional to the number of vertices that the last diffusion touched.
+     */
+    void reset() {
+        for (int i = 0; i < size; i++) {
+            final int v = queue[i];
+            active[v >>> 6] &= ~(1L << v);
+        }
+        size = 0;
+        mark = -1;
+        if (threshold) {
+            for (int i = 0; i < touchedCount; i++) {
+                final int v = touched[i];
+                accumulated[v] = 0;
+                thresholds[v] = Double.NaN;
+            }
+            touchedCount = 0;
+            undoCount = 0;
+        }
+    }
+
+    /**
+     * Activates {@code v}, if inactive, and runs the diffusion to completion.
+     *
+     * @return the number of active vertices
+     */
+    int activate(int v, SplittableRandom random) {
+        if (isActive(v)) {
+            return size;
+        }
+        int head = size;
+        push(v);
+        while (head < size) {
+            final int u = queue[head++];
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                final int x = targets[k];
+                if (isActive(x)) {
+                    continue;
+                }
+                if (threshold) {
+                    if (Double.isNaN(thresholds[x])) {
+                        thresholds[x] = random.nextDouble();
+                        touched[touchedCount++] = x;
+                    }
+                    if (mark >= 0) {
+                        log(x);
+                    }
+                    accumulated[x] += weights[k];
+                    if (accumulated[x] >= thresholds[x]) {
+                        push(x);
+                    }
+                } else if (random.nextDouble() < weights[k]) {
+                    push(x);
+                }
+            }
+        }
+        return size;
+    }
+
+    private void push(int v) {
+        active[v >>> 6] |= 1L << v;
+        queue[size++] = v;
+    }
+
+    private void log(int v) {
+        if (undoCount == undoVertices.length) {
+            undoVertices = Arrays.copyOf(undoVertices, 2 * undoCount);
+            undoValues = Arrays.copyOf(undoValues, 2 * undoCount);
+        }
+        undoVertices[undoCount] = v;
+        undoValues[undoCount] = accumulated[v];
+        undoCount++;
+    }
+
+    /**
+     * Marks the current state of the diffusion.
+     *
+     * @return the number of active vertices
+     */
+    int mark() {
+        mark = size;
+        undoCount = 0;
+        return size;
+    }
+
+    /**
+     * Restores the state of the diffusion at the last {@link #mark()}. Thresholds drawn since the mark are kept, which
+     * does not affect the distribution of the diffusion.
+     */
+    void rollback() {
+        assert mark >= 0;
+        for (int i = mark; i < size; i++) {
+            final int v = queue[i];
+            active[v >>> 6] &= ~(1L << v);
+        }
+        size = mark;
+        if (threshold) {
+            for (int i = undoCount - 1; i >= 0; i--) {
+                accumulated[undoVertices[i]] = undoValues[i];
+            }
+            undoCount = 0;
+        }
+    }
+}
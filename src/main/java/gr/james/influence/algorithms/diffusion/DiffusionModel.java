@@ -0,0 +1,65 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.util.Conditions;
+
+/**
+ * A progressive diffusion model, in which a vertex, once active, remains active.
+ * <p>
+ * In both models the parameters of the diffusion are the weights of the edges of the graph, as returned by
+ * {@link gr.james.influence.graph.DirectedEdge#weight()}.
+ *
+ * @see "Kempe, David, Jon Kleinberg, and Éva Tardos. Maximizing the spread of influence through a social network.
+ * Proceedings of the ninth ACM SIGKDD international conference on Knowledge discovery and data mining. ACM, 2003."
+ */
+public enum DiffusionModel {
+    /**
+     * The Independent Cascade model.
+     * <p>
+     * When a vertex {@code u} becomes active, it has a single chance to activate each inactive outbound neighbor
+     * {@code v}, which succeeds with probability equal to the weight of the edge {@code (u,v)}, independently of all
+     * other attempts. Every edge weight must be in {@code [0,1]}.
+     */
+    INDEPENDENT_CASCADE {
+        @Override
+        void validate(CompressedGraph<?> graph, boolean reversed) {
+            for (double w : graph.outWeights()) {
+                Conditions.requireArgument(w >= 0 && w <= 1,
+                        "Independent Cascade edge weights must be in [0,1], got %f", w);
+            }
+        }
+    },
+
+    /**
+     * The Linear Threshold model.
+     * <p>
+     * Each vertex {@code v} draws a threshold uniformly at random from {@code [0,1]} and becomes active when the sum of
+     * the weights of the edges from its active inbound neighbors reaches that threshold. Every edge weight must be
+     * non-negative and the inbound edge weights of each vertex must sum to at most 1.
+     */
+    LINEAR_THRESHOLD {
+        @Override
+        void validate(CompressedGraph<?> graph, boolean reversed) {
+            final int[] offsets = reversed ? graph.outOffsets() : graph.inOffsets();
+            final double[] weights = reversed ? graph.outWeights() : graph.inWeights();
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                double strength = 0;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    Conditions.requireArgument(weights[k] >= 0,
+                            "Linear Threshold edge weights must be non-negative, got %f", weights[k]);
+                    strength += weights[k];
+                }
+                Conditions.requireArgument(strength <= 1 + 1e-9,
+                        "Linear Threshold inbound weights of %s sum to %f", graph.vertex(v), strength);
+            }
+        }
+    };
+
+    /**
+     * Checks that the edge weights of {@code graph}, or of the edge reversed graph of {@code graph} if
+     * {@code reversed} is {@code true}, are valid parameters of this model.
+     *
+     * @throws IllegalArgumentException if the edge weights are not valid parameters of this model
+     */
+    abstract void validate(CompressedGraph<?> graph, boolean reversed);
+}
@@ -0,0 +1,217 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.algorithms.scoring.VertexScoring;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo simulation of a {@link DiffusionModel} from a fixed set of seeds.
+ * <p>
+ * This class runs a number of independent diffusions from the same seeds and reports the distribution of the spread,
+ * the number of vertices that are active at the end of each diffusion, and the activation probability of each vertex,
+ * the fraction of the diffusions in which the vertex became active. The scores of this {@link VertexScoring} are the
+ * activation probabilities.
+ * <p>
+ * The diffusions run on a {@link CompressedGraph} snapshot of the graph. The trials are split into blocks that run in
+ * parallel and each block reuses a single worker whose active set is a bitset and whose frontier queue is an array
+ * that also records the activation order, so that clearing them after each diffusion takes time proportional to the
+ * spread and no memory is allocated per diffusion. Each block uses its own {@link SplittableRandom} stream derived from
+ * a single seed, so that the results are reproducible for a given seed and parallelism.
+ * <p>
+ * This class uses state of size {@code O(V+E+T)}, where {@code T} is the number of trials, plus {@code O(V)} per
+ * block.
+ *
+ * @param <V> the vertex type
+ */
+public class DiffusionSimulation<V> implements VertexScoring<V, Double> {
+    private final CompressedGraph<V> graph;
+    private final double[] probabilities;
+    private final int[] spreads;
+    private final int[] sortedSpreads;
+
+    /**
+     * Construct an instance of {@link DiffusionSimulation} and run the simulation.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param model       the {@link DiffusionModel}
+     * @param seeds       the initially active vertices
+     * @param trials      the number of diffusions
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split the trials into
+     * @throws NullPointerException     if {@code g}, {@code model} or {@code seeds} is {@code null}
+     * @throws IllegalVertexException   if any of the {@code seeds} is not in {@code g}
+     * @throws IllegalArgumentException if {@code trials} or {@code parallelism} is less than 1 or if the edge weights
+     *                                  of {@code g} are not valid parameters of {@code model}
+     */
+    public DiffusionSimulation(@UnmodifiableGraph DirectedGraph<V, ?> g, DiffusionModel model, Collection<V> seeds,
+                               int trials, long seed, int parallelism) {
+        Conditions.requireAllNonNull(model, seeds);
+        Conditions.requireArgument(trials >= 1, "trials must be positive, got %d", trials);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        this.graph = CompressedGraph.of(g);
+        model.validate(graph, false);
+        final int[] seedIndices = new int[seeds.size()];
+        int i = 0;
+        for (V v : seeds) {
+            seedIndices[i++] = graph.indexOf(v);
+        }
+
+        final int n = graph.vertexCount();
+        final int blocks = Math.min(parallelism, trials);
+        final SplittableRandom root = new SplittableRandom(seed);
+        final SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            randoms[b] = root.split();
+        }
+
+        this.spreads = new int[trials];
+        final int[][] counts = IntStream.range(0, blocks).parallel()
+                .mapToObj(b -> {
+                    final Cascade cascade = new Cascade(graph, model);
+                    final SplittableRandom random = randoms[b];
+                    final int[] c = new int[n];
+                    for (int t = (int) ((long) b * trials / blocks); t < (long) (b + 1) * trials / blocks; t++) {
+                        cascade.reset();
+                        for (int s : seedIndices) {
+                            cascade.activate(s, random);
+                        }
+                        spreads[t] = cascade.size();
+                        for (int j = 0; j < cascade.size(); j++) {
+                            c[cascade.activated(j)]++;
+                        }
+                    }
+                    return c;
+                })
+                .toArray(int[][]::new);
+
+        this.probabilities = new double[n];
+        for (int[] c : counts) {
+            for (int v = 0; v < n; v++) {
+                probabilities[v] += c[v];
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            probabilities[v] /= trials;
+        }
+        this.sortedSpreads = spreads.clone();
+        Arrays.sort(sortedSpreads);
+    }
+
+    /**
+     * Construct an instance of {@link DiffusionSimulation} and run the simulation using a seed drawn from the global
+     * {@link java.util.Random} instance and parallelism equal to the number of available processors.
+     *
+     * @param g      the input {@link DirectedGraph}
+     * @param model  the {@link DiffusionModel}
+     * @param seeds  the initially active vertices
+     * @param trials the number of diffusions
+     * @throws NullPointerException     if {@code g}, {@code model} or {@code seeds} is {@code null}
+     * @throws IllegalVertexException   if any of the {@code seeds} is not in {@code g}
+     * @throws IllegalArgumentException if {@code trials} is less than 1 or if the edge weights of {@code g} are not
+     *                                  valid parameters of {@code model}
+     */
+    public DiffusionSimulation(@UnmodifiableGraph DirectedGraph<V, ?> g, DiffusionModel model, Collection<V> seeds,
+                               int trials) {
+        this(g, model, seeds, trials, RandomHelper.getRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Convenience function to estimate the activation probabilities of all vertices in a graph.
+     *
+     * @param g      the input {@link DirectedGraph}
+     * @param model  the {@link DiffusionModel}
+     * @param seeds  the initially active vertices
+     * @param trials the number of diffusions
+     * @param <V>    the vertex type
+     * @return the activation probabilities of the vertices in {@code g}
+     * @throws NullPointerException     if {@code g}, {@code model} or {@code seeds} is {@code null}
+     * @throws IllegalVertexException   if any of the {@code seeds} is not in {@code g}
+     * @throws IllegalArgumentException if {@code trials} is less than 1 or if the edge weights of {@code g} are not
+     *                                  valid parameters of {@code model}
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, DiffusionModel model, Collection<V> seeds,
+                                                    int trials) {
+        return new DiffusionSimulation<>(g, model, seeds, trials).scores();
+    }
+
+    /**
+     * Get the activation probability of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the activation probability of
+     * @return the activation probability of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        return probabilities[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the activation probabilities of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the activation probabilities of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(probabilities);
+    }
+
+    /**
+     * Returns the spread of each diffusion, in the order of the trials.
+     *
+     * @return a new array with the spread of each diffusion
+     */
+    public int[] spreads() {
+        return spreads.clone();
+    }
+
+    /**
+     * Returns the mean spread of the diffusions, which is an estimate of the expected spread of the seeds.
+     *
+     * @return the mean spread of the diffusions
+     */
+    public double meanSpread() {
+        long sum = 0;
+        for (int s : spreads) {
+            sum += s;
+        }
+        return (double) sum / spreads.length;
+    }
+
+    /**
+     * Returns the {@code q}-quantile of the spreads of the diffusions, using the nearest rank method.
+     *
+     * @param q the quantile, in {@code [0,1]}
+     * @return the smallest spread such that at least a fraction {@code q} of the diffusions did not exceed it
+     * @throws IllegalArgumentException if {@code q} is not in {@code [0,1]}
+     */
+    public int spreadQuantile(double q) {
+        Conditions.requireArgument(q >= 0 && q <= 1, "q must be in [0,1], got %f", q);
+        return sortedSpreads[Math.max(0, (int) Math.ceil(q * sortedSpreads.length) - 1)];
+    }
+
+    /**
+     * Returns the number of diffusions.
+     *
+     * @return the number of diffusions
+     */
+    public int trials() {
+        return spreads.length;
+    }
+}
@@ -0,0 +1,357 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Greedy influence maximization with lazy evaluation of the marginal gains.
+ * <p>
+ * The greedy algorithm selects {@code k} seed vertices one at a time, each time adding the vertex with the largest
+ * marginal gain in expected spread under a {@link DiffusionModel}, which achieves a {@code (1 - 1/e)} approximation of
+ * the optimal expected spread up to the error of the spread estimates. The expected spread is estimated by Monte Carlo
+ * simulation of a fixed number of trials. Because the expected spread is submodular, the marginal gain of a vertex can
+ * only decrease as seeds are added; the {@link Evaluation#CELF CELF} optimization keeps the vertices in a priority
+ * queue by their last computed gain and only recomputes the gain of the vertex on top of the queue, which is selected
+ * when its gain is up to date. The {@link Evaluation#CELF_PLUS_PLUS CELF++} optimization additionally computes, along
+ * with the gain of a vertex, its gain with respect to the current seeds plus the best vertex of the current round, so
+ * that the gain does not have to be recomputed if that vertex becomes the next seed.
+ * <p>
+ * Trial {@code t} of every estimate uses its own {@link SplittableRandom} stream, derived from a single seed, so that
+ * the estimates of different vertices are computed with common random numbers and the selected seeds are reproducible
+ * for a given seed regardless of parallelism. Each trial simulates the diffusion from the current seeds once and then
+ * extends it with each candidate vertex in turn, rolling back in between. When the vertex on top of the queue keeps
+ * changing within a round, which happens when many vertices have similar gains, the stale vertices on top of the queue
+ * are reevaluated in batches of doubling size, so that they share the diffusion from the current seeds. The first
+ * round estimates the spread of every vertex in parallel, without the CELF++ lookahead, while later rounds split the
+ * trials of each batch into blocks that run in parallel.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per block.
+ *
+ * @param <V> the vertex type
+ * @see "Leskovec, Jure, et al. Cost-effective outbreak detection in networks. Proceedings of the 13th ACM SIGKDD
+ * international conference on Knowledge discovery and data mining. ACM, 2007."
+ * @see "Goyal, Amit, Wei Lu, and Laks VS Lakshmanan. CELF++: optimizing the greedy algorithm for influence maximization
+ * in social networks. Proceedings of the 20th international conference companion on World wide web. ACM, 2011."
+ */
+public class GreedyInfluenceMaximization<V> {
+    public static final int DEFAULT_TRIALS = 1000;
+    private static final int MAX_BATCH = 64;
+
+    private final List<V> seeds;
+    private final double spread;
+    private final int evaluations;
+
+    /**
+     * The lazy evaluation strategy of {@link GreedyInfluenceMaximization}.
+     */
+    public enum Evaluation {
+        /**
+         * Recompute the stale marginal gain of the vertex on top of the queue.
+         */
+        CELF,
+        /**
+         * Recompute the stale marginal gain of the vertex on top of the queue along with its gain with respect to the
+         * best vertex of the current round.
+         */
+        CELF_PLUS_PLUS
+    }
+
+    /**
+     * Construct an instance of {@link GreedyInfluenceMaximization} and run the algorithm.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param model       the {@link DiffusionModel}
+     * @param k           the number of seeds
+     * @param trials      the number of Monte Carlo trials of each spread estimate
+     * @param evaluation  the lazy {@link Evaluation} strategy
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split the work into
+     * @throws NullPointerException     if {@code g}, {@code model} or {@code evaluation} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is not in {@code [0,V]}, if {@code trials} or {@code parallelism}
+     *                                  is less than 1 or if the edge weights of {@code g} are not valid parameters of
+     *                                  {@code model}
+     */
+    public GreedyInfluenceMaximization(@UnmodifiableGraph DirectedGraph<V, ?> g, DiffusionModel model, int k,
+                                       int trials, Evaluation evaluation, long seed, int parallelism) {
+        Conditions.requireAllNonNull(model, evaluation);
+        Conditions.requireArgument(trials >= 1, "trials must be positive, got %d", trials);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        final CompressedGraph<V> graph = CompressedGraph.of(g);
+        final int n = graph.vertexCount();
+        Conditions.requireArgument(k >= 0 && k <= n, "k must be in [0,%d], got %d", n, k);
+        model.validate(graph, false);
+
+        final Estimator estimator = new Estimator(graph, model, trials, seed, parallelism);
+        final boolean lookahead = evaluation == Evaluation.CELF_PLUS_PLUS;
+
+        final double[] gains = new double[n];
+        final double[] lookaheadGains = new double[n];
+        final int[] previousBest = new int[n];
+        final int[] round = new int[n];
+        final int[] selected = new int[k];
+        int selectedCount = 0;
+        int evaluations = n;
+
+        if (k > 0) {
+            estimator.initial(gains);
+        }
+        final PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, n), (a, b) -> {
+            final int c = Double.compare(gains[b], gains[a]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int v = 0; v < n && k > 0; v++) {
+            previousBest[v] = -1;
+            queue.add(v);
+        }
+
+        int lastSeed = -1;
+        int currentBest = -1;
+        int batchSize = 1;
+        final int[] batch = new int[MAX_BATCH];
+        final double[] batchGains = new double[MAX_BATCH];
+        final double[] batchLookaheadGains = new double[MAX_BATCH];
+        while (selectedCount < k) {
+            final int u = queue.peek();
+            if (round[u] == selectedCount) {
+                queue.poll();
+                selected[selectedCount++] = u;
+                lastSeed = u;
+                currentBest = -1;
+                batchSize = 1;
+                continue;
+            }
+            if (lookahead && previousBest[u] >= 0 && previousBest[u] == lastSeed && round[u] == selectedCount - 1) {
+                queue.poll();
+                gains[u] = lookaheadGains[u];
+                round[u] = selectedCount;
+                if (currentBest < 0 || gains[u] > gains[currentBest]) {
+                    currentBest = u;
+                }
+                queue.add(u);
+                continue;
+            }
+            int count = 0;
+            while (count < batchSize && !queue.isEmpty() && round[queue.peek()] != selectedCount) {
+                batch[count++] = queue.poll();
+            }
+            final int prev = lookahead ? currentBest : -1;
+            estimator.gains(selected, selectedCount, batch, count, prev, batchGains, batchLookaheadGains);
+            evaluations += count;
+            for (int i = 0; i < count; i++) {
+                final int v = batch[i];
+                gains[v] = batchGains[i];
+                lookaheadGains[v] = batchLookaheadGains[i];
+                previousBest[v] = prev;
+                round[v] = selectedCount;
+                if (currentBest < 0 || gains[v] > gains[currentBest]) {
+                    currentBest = v;
+                }
+                queue.add(v);
+            }
+            batchSize = Math.min(2 * batchSize, MAX_BATCH);
+        }
+
+        final List<V> seeds = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            seeds.add(graph.vertex(selected[i]));
+        }
+        this.seeds = Collections.unmodifiableList(seeds);
+        this.spread = estimator.spread(selected);
+        this.evaluations = evaluations;
+    }
+
+    /**
+     * Construct an instance of {@link GreedyInfluenceMaximization} with {@link #DEFAULT_TRIALS} and
+     * {@link Evaluation#CELF_PLUS_PLUS} and run the algorithm using a seed drawn from the global
+     * {@link java.util.Random} instance and parallelism equal to the number of available processors.
+     *
+     * @param g     the input {@link DirectedGraph}
+     * @param model the {@link DiffusionModel}
+     * @param k     the number of seeds
+     * @throws NullPointerException     if {@code g} or {@code model} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is not in {@code [0,V]} or if the edge weights of {@code g} are
+     *                                  not valid parameters of {@code model}
+     */
+    public GreedyInfluenceMaximization(@UnmodifiableGraph DirectedGraph<V, ?> g, DiffusionModel model, int k) {
+        this(g, model, k, DEFAULT_TRIALS, Evaluation.CELF_PLUS_PLUS, RandomHelper.getRandom().nextLong(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Convenience function to select {@code k} seeds that maximize the expected spread.
+     *
+     * @param g     the input {@link DirectedGraph}
+     * @param model the {@link DiffusionModel}
+     * @param k     the number of seeds
+     * @param <V>   the vertex type
+     * @return the seeds in the order of selection
+     * @throws NullPointerException     if {@code g} or {@code model} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is not in {@code [0,V]} or if the edge weights of {@code g} are
+     *                                  not valid parameters of {@code model}
+     */
+    public static <V> List<V> execute(DirectedGraph<V, ?> g, DiffusionModel model, int k) {
+        return new GreedyInfluenceMaximization<>(g, model, k).seeds();
+    }
+
+    /**
+     * Returns the selected seeds in the order of selection.
+     *
+     * @return an unmodifiable {@link List} of the selected seeds in the order of selection
+     */
+    public List<V> seeds() {
+        return seeds;
+    }
+
+    /**
+     * Returns the estimated expected spread of the selected seeds.
+     * <p>
+     * The spread is estimated with trials that are independent of those used during the selection, because the sum of
+     * the marginal gains of the selected seeds overestimates the spread: each seed was selected for having the largest
+     * estimate among many noisy estimates.
+     *
+     * @return the estimated expected spread of the selected seeds
+     */
+    public double spread() {
+        return spread;
+    }
+
+    /**
+     * Returns the number of marginal gain estimates that the algorithm performed, including the first round.
+     *
+     * @return the number of marginal gain estimates that the algorithm performed
+     */
+    public int evaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Monte Carlo estimator of marginal gains with common random numbers.
+     */
+    private static final class Estimator {
+        private final int n;
+        private final int trials;
+        private final long[] trialSeeds;
+        private final SplittableRandom root;
+        private final Cascade[] workers;
+
+        Estimator(CompressedGraph<?> graph, DiffusionModel model, int trials, long seed, int parallelism) {
+            this.n = graph.vertexCount();
+            this.trials = trials;
+            this.trialSeeds = new long[trials];
+            this.root = new SplittableRandom(seed);
+            for (int t = 0; t < trials; t++) {
+                trialSeeds[t] = root.nextLong();
+            }
+            this.workers = new Cascade[Math.min(parallelism, Math.max(1, Math.max(n, trials)))];
+            for (int b = 0; b < workers.length; b++) {
+                workers[b] = new Cascade(graph, model);
+            }
+        }
+
+        /**
+         * Computes the expected spread of every vertex, in parallel over the vertices.
+         */
+        void initial(double[] gains) {
+            final int blocks = workers.length;
+            IntStream.range(0, blocks).parallel().forEach(b -> {
+                final int[] candidate = new int[1];
+                final long[] sums = new long[2];
+                for (int v = b; v < n; v += blocks) {
+                    candidate[0] = v;
+                    sums[0] = 0;
+                    simulate(workers[b], null, 0, candidate, 1, -1, 0, trials, sums);
+                    gains[v] = (double) sums[0] / trials;
+                }
+            });
+        }
+
+        /**
+         * Computes the marginal gains of {@code candidates} with respect to the seeds and, if {@code prev} is not
+         * negative, with respect to the seeds plus {@code prev}, in parallel over the trials.
+         */
+        void gains(int[] seeds, int count, int[] candidates, int candidateCount, int prev, double[] gains,
+                   double[] lookaheadGains) {
+            final int blocks = Math.min(workers.length, trials);
+            final long[] sums = IntStream.range(0, blocks).parallel()
+                    .mapToObj(b -> {
+                        final long[] s = new long[2 * candidateCount];
+                        simulate(workers[b], seeds, count, candidates, candidateCount, prev,
+                                (int) ((long) b * trials / blocks), (int) ((long) (b + 1) * trials / blocks), s);
+                        return s;
+                    })
+                    .reduce((a, b) -> {
+                        for (int i = 0; i < a.length; i++) {
+                            a[i] += b[i];
+                        }
+                        return a;
+                    })
+                    .get();
+            for (int i = 0; i < candidateCount; i++) {
+                gains[i] = (double) sums[2 * i] / trials;
+                lookaheadGains[i] = (double) sums[2 * i + 1] / trials;
+            }
+        }
+
+        /**
+         * Computes the expected spread of {@code seeds} with fresh random streams, in parallel over the trials.
+         */
+        double spread(int[] seeds) {
+            for (int t = 0; t < trials; t++) {
+                trialSeeds[t] = root.nextLong();
+            }
+            final int blocks = Math.min(workers.length, trials);
+            final long sum = IntStream.range(0, blocks).parallel()
+                    .mapToLong(b -> {
+                        final Cascade cascade = workers[b];
+                        long s = 0;
+                        for (int t = (int) ((long) b * trials / blocks); t < (long) (b + 1) * trials / blocks; t++) {
+                            final SplittableRandom random = new SplittableRandom(trialSeeds[t]);
+                            cascade.reset();
+                            for (int v : seeds) {
+                                cascade.activate(v, random);
+                            }
+                            s += cascade.size();
+                        }
+                        return s;
+                    })
+                    .sum();
+            return (double) sum / trials;
+        }
+
+        /**
+         * Simulates the trials {@code [from, to)}; each trial diffuses from the seeds once and then extends the
+         * diffusion with each candidate in turn, rolling back in between.
+         */
+        private void simulate(Cascade cascade, int[] seeds, int count, int[] candidates, int candidateCount, int prev,
+                              int from, int to, long[] sums) {
+            for (int t = from; t < to; t++) {
+                final SplittableRandom random = new SplittableRandom(trialSeeds[t]);
+                cascade.reset();
+                for (int i = 0; i < count; i++) {
+                    cascade.activate(seeds[i], random);
+                }
+                final int base = cascade.mark();
+                for (int i = 0; i < candidateCount; i++) {
+                    sums[2 * i] += cascade.activate(candidates[i], random) - base;
+                    cascade.rollback();
+                    if (prev >= 0) {
+                        final int extended = cascade.activate(prev, random);
+                        sums[2 * i + 1] += cascade.activate(candidates[i], random) - extended;
+                        cascade.rollback();
+                    }
+                }
+            }
+        }
+    }
+}
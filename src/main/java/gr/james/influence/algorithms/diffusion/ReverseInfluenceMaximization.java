@@ -0,0 +1,651 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Influence maximization using reverse reachable sets, with the sample size of the IMM algorithm.
+ * <p>
+ * A reverse reachable (RR) set is the set of vertices that would activate a vertex {@code v}, drawn uniformly, in a
+ * random realization of the {@link DiffusionModel}: under {@link DiffusionModel#INDEPENDENT_CASCADE} it is the set of
+ * vertices that reach {@code v} over edges kept with probability equal to their weight and under
+ * {@link DiffusionModel#LINEAR_THRESHOLD} it is a random walk from {@code v} over inbound edges chosen with probability
+ * equal to their weight. The expected spread of a seed set is {@code V} times the probability that it intersects a
+ * random RR set, so that influence maximization reduces to maximum coverage over a collection of RR sets, which is
+ * solved greedily. The number of RR sets is chosen by the IMM algorithm, which estimates a lower bound of the optimal
+ * spread by statistical tests on collections of doubling size, so that the seeds achieve a
+ * {@code (1 - 1/e - epsilon)} approximation of the optimal expected spread with probability at least
+ * {@code 1 - 1/V^ell}. As suggested by Chen, the final collection is sampled anew instead of extending the collection
+ * of the lower bound estimation, which would bias the guarantee.
+ * <p>
+ * The RR sets are sampled by searches over the edge reversed graph {@link DirectedGraph#asReverse()}, in blocks that
+ * run in parallel, each with its own {@link SplittableRandom} stream derived from a single seed, so that the result is
+ * reproducible for a given seed and parallelism. They are stored back to back in a single {@code int[]} with an
+ * {@code int[]} of offsets, and the maximum coverage is solved with an inverted index in the same form and a lazy heap
+ * of the coverage counts, which only decrease.
+ * <p>
+ * The collection of RR sets and the arrays of the selection, the inverted index, the coverage counts and the heap, are
+ * the dominant memory cost. They are charged against the memory budget by their allocated capacity, including the
+ * moments when the collection grows and both the old and the new arrays are live, and the peak is reported by
+ * {@link #memoryBytes()}. The number of RR sets sampled at once is also limited by the remaining budget. If sampling
+ * the required number of RR sets would exceed the memory budget, sampling stops early, the seeds are selected from the
+ * RR sets sampled so far and {@link #truncated()} returns {@code true}; in that case the approximation guarantee does
+ * not hold.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per block plus the RR sets.
+ *
+ * @param <V> the vertex type
+ * @see GreedyInfluenceMaximization
+ * @see "Tang, Youze, Yanchen Shi, and Xiaokui Xiao. Influence maximization in near-linear time: A martingale approach.
+ * Proceedings of the 2015 ACM SIGMOD international conference on management of data. ACM, 2015."
+ * @see "Chen, Wei. An issue in the martingale analysis of the influence maximization algorithm IMM. International
+ * Conference on Computational Social Networks. Springer, 2018."
+ */
+public class ReverseInfluenceMaximization<V> {
+    public static final double DEFAULT_ELL = 1;
+
+    private static final int SAMPLE_BATCH = 1 << 14;
+    private static final int MAX_SETS = Integer.MAX_VALUE - 8;
+
+    private final List<V> seeds;
+    private final double spread;
+    private final int sets;
+    private final long memoryBytes;
+    private final boolean truncated;
+
+    /**
+     * Construct an instance of {@link ReverseInfluenceMaximization} and run the algorithm.
+     *
+     * @param g            the input {@link DirectedGraph}
+     * @param model        the {@link DiffusionModel}
+     * @param k            the number of seeds
+     * @param epsilon      the approximation error, in {@code (0,1)}
+     * @param ell          the exponent of the failure probability {@code 1/V^ell}
+     * @param memoryBudget the maximum number of bytes of the RR sets and the selection
+     * @param seed         the seed of the random streams
+     * @param parallelism  the number of blocks to split the sampling into
+     * @throws NullPointerException     if {@code g} or {@code model} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is not in {@code [0,V]}, if {@code epsilon} is not in
+     *                                  {@code (0,1)}, if {@code ell} or {@code memoryBudget} is not positive, if
+     *                                  {@code parallelism} is less than 1 or if the edge weights of {@code g} are not
+     *                                  valid parameters of {@code model}
+     */
+    public ReverseInfluenceMaximization(@UnmodifiableGraph DirectedGraph<V, ?> g, DiffusionModel model, int k,
+                                        double epsilon, double ell, long memoryBudget, long seed, int parallelism) {
+        Conditions.requireNonNull(model);
+        Conditions.requireArgument(epsilon > 0 && epsilon < 1, "epsilon must be in (0,1), got %f", epsilon);
+        Conditions.requireArgument(ell > 0, "ell must be positive, got %f", ell);
+        Conditions.requireArgument(memoryBudget > 0, "memoryBudget must be positive, got %d", memoryBudget);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        final CompressedGraph<V> reverse = CompressedGraph.of(g.asReverse());
+        final int n = reverse.vertexCount();
+        Conditions.requireArgument(k >= 0 && k <= n, "k must be in [0,%d], got %d", n, k);
+        model.validate(reverse, true);
+
+        final Sampler sampler = new Sampler(reverse, model, memoryBudget, seed, parallelism);
+        final int[] selected = new int[k];
+        double spread = 0;
+        if (k > 0) {
+            final double log2 = Math.log(2);
+            final double logN = Math.log(Math.max(n, 2));
+            final double l = ell * (1 + log2 / logN);
+            final double logBinomial = logBinomial(n, k);
+
+            // Estimation of a lower bound of the optimal spread
+            final double epsilonPrime = Math.sqrt(2) * epsilon;
+            final double lambdaPrime = (2 + 2 * epsilonPrime / 3) *
+                    (logBinomial + l * logN + Math.log(logN / log2)) * n / (epsilonPrime * epsilonPrime);
+            double lowerBound = 1;
+            for (int i = 1; i < logN / log2; i++) {
+                final double x = n / Math.pow(2, i);
+                if (!sampler.sample(Math.ceil(lambdaPrime / x))) {
+                    break;
+                }
+                final double fraction = sampler.select(selected);
+                if (n * fraction >= (1 + epsilonPrime) * x) {
+                    lowerBound = n * fraction / (1 + epsilonPrime);
+                    break;
+                }
+            }
+
+            // Node selection on a fresh collection
+            final double e = 1 - 1 / Math.E;
+            final double alpha = Math.sqrt(l * logN + log2);
+            final double beta = Math.sqrt(e * (logBinomial + l * logN + log2));
+            final double lambdaStar = 2 * n * Math.pow(e * alpha + beta, 2) / (epsilon * epsilon);
+            sampler.clear();
+            sampler.sample(Math.ceil(lambdaStar / lowerBound));
+            spread = n * sampler.select(selected);
+        }
+
+        final List<V> seeds = new ArrayList<>(k);
+        for (int v : selected) {
+            seeds.add(reverse.vertex(v));
+        }
+        this.seeds = Collections.unmodifiableList(seeds);
+        this.spread = spread;
+        this.sets = sampler.setCount;
+        this.memoryBytes = sampler.peakBytes;
+        this.truncated = sampler.truncated;
+    }
+
+    /**
+     * Construct an instance of {@link ReverseInfluenceMaximization} with {@link #DEFAULT_ELL} and a memory budget of
+     * half the maximum heap size and run the algorithm using a seed drawn from the global {@link java.util.Random}
+     * instance and parallelism equal to the number of available processors.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param model   the {@link DiffusionModel}
+     * @param k       the number of seeds
+     * @param epsilon the approximation error, in {@code (0,1)}
+     * @throws NullPointerException     if {@code g} or {@code model} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is not in {@code [0,V]}, if {@code epsilon} is not in
+     *                                  {@code (0,1)} or if the edge weights of {@code g} are not valid parameters of
+     *                                  {@code model}
+     */
+    public ReverseInfluenceMaximization(@UnmodifiableGraph DirectedGraph<V, ?> g, DiffusionModel model, int k,
+                                        double epsilon) {
+        this(g, model, k, epsilon, DEFAULT_ELL, Runtime.getRuntime().maxMemory() / 2,
+                RandomHelper.getRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Convenience function to select {@code k} seeds that maximize the expected spread.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param model   the {@link DiffusionModel}
+     * @param k       the number of seeds
+     * @param epsilon the approximation error, in {@code (0,1)}
+     * @param <V>     the vertex type
+     * @return the seeds in the order of selection
+     * @throws NullPointerException     if {@code g} or {@code model} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is not in {@code [0,V]}, if {@code epsilon} is not in
+     *                                  {@code (0,1)} or if the edge weights of {@code g} are not valid parameters of
+     *                                  {@code model}
+     */
+    public static <V> List<V> execute(DirectedGraph<V, ?> g, DiffusionModel model, int k, double epsilon) {
+        return new ReverseInfluenceMaximization<>(g, model, k, epsilon).seeds();
+    }
+
+    private static double logBinomial(int n, int k) {
+        double log = 0;
+        for (int i = 0; i < k; i++) {
+            log += Math.log(n - i) - Math.log(i + 1);
+        }
+        return log;
+    }
+
+    /**
+     * Returns the selected seeds in the order of selection.
+     *
+     * @return an unmodifiable {@link List} of the selected seeds in the order of selection
+     */
+    public List<V> seeds() {
+        return seeds;
+    }
+
+    /**
+     * Returns the estimated expected spread of the selected seeds, which is {@code V} times the fraction of the final
+     * RR sets that they cover.
+     *
+     * @return the estimated expected spread of the selected seeds
+     */
+    public double spread() {
+        return spread;
+    }
+
+    /**
+     * Returns the number of RR sets from which the seeds were selected.
+     *
+     * @return the number of RR sets from which the seeds were selected
+     */
+    public int sets() {
+        return sets;
+    }
+
+    /**
+     * Returns the peak number of bytes allocated for the RR sets, the sampled batches and the selection.
+     *
+     * @return the peak number of bytes allocated for the RR sets, the sampled batches and the selection
+     */
+    public long memoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Returns whether sampling stopped early because of the memory budget, in which case the approximation guarantee
+     * does not hold.
+     *
+     * @return {@code true} if sampling stopped early because of the memory budget, otherwise {@code false}
+     */
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * A collection of RR sets in compressed form and the parallel sampler that fills it.
+     */
+    private static final class Sampler {
+        private final int n;
+        private final long memoryBudget;
+        private final SplittableRandom[] randoms;
+        private final Worker[] workers;
+
+        private int[] elements = new int[1024];
+        private int elementCount;
+        private int[] offsets = new int[1024];
+        private int setCount;
+        private boolean truncated;
+        private long peakBytes;
+
+        Sampler(CompressedGraph<?> reverse, DiffusionModel model, long memoryBudget, long seed, int parallelism) {
+            this.n = reverse.vertexCount();
+            this.memoryBudget = memoryBudget;
+            this.peakBytes = allocatedBytes();
+            final int blocks = Math.min(parallelism, SAMPLE_BATCH);
+            final SplittableRandom root = new SplittableRandom(seed);
+            this.randoms = new SplittableRandom[blocks];
+            this.workers = new Worker[blocks];
+            for (int b = 0; b < blocks; b++) {
+                randoms[b] = root.split();
+                workers[b] = new Worker(reverse, model);
+            }
+        }
+
+        /**
+         * Returns the bytes that {@link #select(int[])} allocates for a collection with {@code elements} elements and
+         * {@code sets} sets: the counts, the offsets and cursors of the inverted index, the inverted index itself, the
+         * heap and the covered sets.
+         */
+        private long selectBytes(long elements, long sets) {
+            return 4L * n + 4L * (n + 1) + 4L * n + 4 * elements + 8L * n + 8 * ((sets + 63) >>> 6);
+        }
+
+        /**
+         * Returns the new capacity of an array of capacity {@code length} that must hold {@code needed} values, which
+         * is either {@code length}, twice {@code length} or exactly {@code needed}, whichever is the smallest that
+         * suffices and satisfies {@code fits}, or {@code -1} if none does.
+         */
+        private static long capacity(long length, long needed, LongPredicate fits) {
+            if (length >= needed) {
+                return length;
+            }
+            final long doubled = Math.min(MAX_SETS, Math.max(needed, 2 * length));
+            if (fits.test(doubled)) {
+                return doubled;
+            }
+            return fits.test(needed) ? needed : -1;
+        }
+
+        /**
+         * Ensures that the collection can hold {@code needElements} elements and {@code needSets} sets within the
+         * memory budget, accounting for the arrays of {@code transientBytes} that are live during the growth and for
+         * the arrays of the selection that follows.
+         *
+         * @return {@code false} if the memory budget does not allow it
+         */
+        private boolean reserve(long needElements, long needSets, long transientBytes) {
+            final long offsetsNeeded = needSets + 1;
+            final long selection = selectBytes(needElements, needSets);
+            final long elementsCapacity = capacity(elements.length, needElements, c ->
+                    4 * (elements.length + (c == elements.length ? 0 : c)) + 4L * offsets.length + transientBytes <=
+                            memoryBudget &&
+                            4 * c + 4 * Math.max(offsetsNeeded, offsets.length) + selection <= memoryBudget);
+            if (elementsCapacity < 0) {
+                return false;
+            }
+            final long offsetsCapacity = capacity(offsets.length, offsetsNeeded, c ->
+                    4 * elementsCapacity + 4 * (offsets.length + (c == offsets.length ? 0 : c)) + transientBytes <=
+                            memoryBudget &&
+                            4 * elementsCapacity + 4 * c + selection <= memoryBudget);
+            if (offsetsCapacity < 0) {
+                return false;
+            }
+            if (elementsCapacity != elements.length) {
+                record(4 * (elements.length + elementsCapacity) + 4L * offsets.length + transientBytes);
+                elements = Arrays.copyOf(elements, (int) elementsCapacity);
+            }
+            if (offsetsCapacity != offsets.length) {
+                record(4L * elements.length + 4 * (offsets.length + offsetsCapacity) + transientBytes);
+                offsets = Arrays.copyOf(offsets, (int) offsetsCapacity);
+            }
+            return true;
+        }
+
+        /**
+         * Returns the bytes allocated for the collection.
+         */
+        private long allocatedBytes() {
+            return 4L * elements.length + 4L * offsets.length;
+        }
+
+        private void record(long bytes) {
+            peakBytes = Math.max(peakBytes, bytes);
+        }
+
+        /**
+         * Samples RR sets until the collection holds {@code total} sets.
+         *
+         * @return {@code false} if sampling stopped early because of the memory budget
+         */
+        boolean sample(double total) {
+            final int target = (int) Math.min(total, MAX_SETS);
+            while (setCount < target && !truncated) {
+                // The batches may use a quarter of the remaining budget, which leaves room for the collection to grow
+                // by their contents and for the selection
+                final long free = memoryBudget - allocatedBytes() - selectBytes(elementCount, setCount);
+                final int count = Math.min(target - setCount, SAMPLE_BATCH);
+                final int blocks = Math.min(workers.length, count);
+                final long limit = Math.max(0, free / 4 / blocks);
+                final Worker.Batch[] batches = IntStream.range(0, blocks).parallel()
+                        .mapToObj(b -> workers[b].sample(
+                                (int) ((long) (b + 1) * count / blocks) - (int) ((long) b * count / blocks),
+                                limit, randoms[b]))
+                        .toArray(Worker.Batch[]::new);
+                final int before = setCount;
+                long batchBytes = 0;
+                for (Worker.Batch batch : batches) {
+                    batchBytes += batch.bytes();
+                }
+                record(allocatedBytes() + batchBytes);
+                for (Worker.Batch batch : batches) {
+                    if (fits(batch.elementCount, batch.setCount, batchBytes)) {
+                        append(batch, batch.setCount, batch.elementCount);
+                        batchBytes -= batch.bytes();
+                        continue;
+                    }
+                    // Keep the longest prefix of the batch that fits
+                    int sets = 0;
+                    long elements = 0;
+                    while (sets < batch.setCount && fits(elements + batch.lengths[sets], sets + 1, batchBytes)) {
+                        elements += batch.lengths[sets++];
+                    }
+                    if (sets > 0) {
+                        fits(elements, sets, batchBytes);
+                        append(batch, sets, (int) elements);
+                    }
+                    truncated = true;
+                    break;
+                }
+                if (setCount == before) {
+                    truncated = true;
+                }
+            }
+            return !truncated;
+        }
+
+        /**
+         * Reserves the capacity for another {@code sets} sets with {@code elements} elements, if the budget allows it.
+         */
+        private boolean fits(long elements, long sets, long transientBytes) {
+            final long needElements = elementCount + elements;
+            return needElements <= MAX_SETS && reserve(needElements, setCount + sets, transientBytes);
+        }
+
+        private void append(Worker.Batch batch, int sets, int count) {
+            System.arraycopy(batch.elements, 0, elements, elementCount, count);
+            for (int i = 0; i < sets; i++) {
+                offsets[setCount + 1] = offsets[setCount] + batch.lengths[i];
+                setCount++;
+            }
+            elementCount += count;
+        }
+
+        /**
+         * Discards all RR sets.
+         */
+        void clear() {
+            elementCount = 0;
+            setCount = 0;
+            truncated = false;
+        }
+
+        /**
+         * Greedily selects the vertices that cover the most RR sets.
+         *
+         * @return the fraction of RR sets covered by the selected vertices
+         */
+        double select(int[] selected) {
+            if (setCount == 0) {
+                for (int i = 0; i < selected.length; i++) {
+                    selected[i] = i;
+                }
+                return 0;
+            }
+
+            // Inverted index
+            final int[] counts = new int[n];
+            for (int i = 0; i < elementCount; i++) {
+                counts[elements[i]]++;
+            }
+            final int[] indexOffsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                indexOffsets[v + 1] = indexOffsets[v] + counts[v];
+            }
+            final int[] index = new int[elementCount];
+            final int[] cursor = Arrays.copyOf(indexOffsets, n);
+            for (int s = 0; s < setCount; s++) {
+                for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                    index[cursor[elements[i]]++] = s;
+                }
+            }
+
+            final LongHeap heap = new LongHeap(n);
+            for (int v = 0; v < n; v++) {
+                heap.push(entry(counts[v], v));
+            }
+            final long[] covered = new long[(setCount + 63) >>> 6];
+            record(allocatedBytes() + selectBytes(elementCount, setCount));
+            long coveredCount = 0;
+            for (int i = 0; i < selected.length; i++) {
+                int v;
+                while (true) {
+                    final long e = heap.pop();
+                    v = ~(int) e;
+                    if ((int) (e >>> 32) == counts[v]) {
+                        break;
+                    }
+                    heap.push(entry(counts[v], v));
+                }
+                selected[i] = v;
+                coveredCount += counts[v];
+                for (int j = indexOffsets[v]; j < indexOffsets[v + 1]; j++) {
+                    final int s = index[j];
+                    if ((covered[s >>> 6] & (1L << s)) == 0) {
+                        covered[s >>> 6] |= 1L << s;
+                        for (int t = offsets[s]; t < offsets[s + 1]; t++) {
+                            counts[elements[t]]--;
+                        }
+                    }
+                }
+            }
+            return (double) coveredCount / setCount;
+        }
+
+        /**
+         * Encodes a heap entry so that entries are ordered by count and then by reverse vertex index.
+         */
+        private static long entry(int count, int v) {
+            return ((long) count << 32) | (~v & 0xffffffffL);
+        }
+    }
+
+    /**
+     * A single-threaded sampler of RR sets over the edge reversed graph.
+     */
+    private static final class Worker {
+        private final int n;
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final boolean threshold;
+        private final int[] visited;
+        private int epoch;
+
+        Worker(CompressedGraph<?> reverse, DiffusionModel model) {
+            this.n = reverse.vertexCount();
+            this.offsets = reverse.outOffsets();
+            this.targets = reverse.outTargets();
+            this.weights = reverse.outWeights();
+            this.threshold = model == DiffusionModel.LINEAR_THRESHOLD;
+            this.visited = new int[n];
+        }
+
+        /**
+         * Samples up to {@code count} RR sets into a batch whose buffers do not exceed {@code limit} bytes; sampling
+         * stops early, discarding the incomplete set, when the next set does not fit.
+         */
+        Batch sample(int count, long limit, SplittableRandom random) {
+            final Batch batch = new Batch((int) Math.min(count, limit / 8), limit);
+            for (int i = 0; i < batch.lengths.length; i++) {
+                if (++epoch == 0) {
+                    Arrays.fill(visited, 0);
+                    epoch = 1;
+                }
+                final int start = batch.elementCount;
+                final int root = random.nextInt(n);
+                visited[root] = epoch;
+                if (!batch.add(root)) {
+                    break;
+                }
+                if (threshold) {
+                    int v = root;
+                    while (true) {
+                        double x = random.nextDouble();
+                        int u = -1;
+                        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                            x -= weights[k];
+                            if (x < 0) {
+                                u = targets[k];
+                                break;
+                            }
+                        }
+                        if (u < 0 || visited[u] == epoch) {
+                            break;
+                        }
+                        visited[u] = epoch;
+                        if (!batch.add(u)) {
+                            break;
+                        }
+                        v = u;
+                    }
+                } else {
+                    for (int head = start; head < batch.elementCount && !batch.full; head++) {
+                        final int v = batch.elements[head];
+                        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                            final int u = targets[k];
+                            if (visited[u] != epoch && random.nextDouble() < weights[k]) {
+                                visited[u] = epoch;
+                                if (!batch.add(u)) {
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }
+                if (batch.full) {
+                    batch.elementCount = start;
+                    break;
+                }
+                batch.lengths[batch.setCount++] = batch.elementCount - start;
+            }
+            return batch;
+        }
+
+        static final class Batch {
+            int[] elements;
+            int elementCount;
+            final int[] lengths;
+            int setCount;
+            boolean full;
+            private final long limit;
+
+            Batch(int sets, long limit) {
+                this.lengths = new int[sets];
+                this.limit = limit;
+                this.elements = new int[(int) Math.max(0, Math.min(64, (limit - 4L * sets) / 4))];
+            }
+
+            long bytes() {
+                return 4L * elements.length + 4L * lengths.length;
+            }
+
+            /**
+             * Appends {@code v}, or marks the batch as full if the buffer cannot grow within the limit.
+             */
+            boolean add(int v) {
+                if (elementCount == elements.length) {
+                    // The old and the new buffer are live during the copy
+                    final long capacity = Math.min(Math.max(2L * elementCount, 16),
+                            (limit - 4L * lengths.length) / 4 - elementCount);
+                    if (capacity <= elementCount || capacity > MAX_SETS) {
+                        full = true;
+                        return false;
+                    }
+                    elements = Arrays.copyOf(elements, (int) capacity);
+                }
+                elements[elementCount++] = v;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * A binary max-heap of primitive {@code long} values.
+     */
+    private static final class LongHeap {
+        private final long[] heap;
+        private int size;
+
+        LongHeap(int capacity) {
+            this.heap = new long[capacity];
+        }
+
+        void push(long x) {
+            int i = size++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (heap[parent] >= x) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = x;
+        }
+
+        long pop() {
+            final long top = heap[0];
+            final long x = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] > heap[child]) {
+                    child++;
+                }
+                if (heap[child] <= x) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = x;
+            return top;
+        }
+    }
+}
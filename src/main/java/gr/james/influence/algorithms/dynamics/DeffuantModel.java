@@ -0,0 +1,88 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Deffuant bounded confidence model of opinion dynamics.
+ * <p>
+ * In an asynchronous update, an agent {@code v} and a random outbound neighbor {@code u} interact if their opinions
+ * differ by less than the confidence bound {@code epsilon}, in which case both opinions move towards each other by a
+ * fraction {@code mu} of their difference. In a synchronous sweep, every agent interacts with a random outbound
+ * neighbor based on the opinions of the previous sweep, but only the opinion of the agent itself moves, since the
+ * neighbor may at the same time interact with a different agent.
+ *
+ * @param <V> the vertex type
+ * @see "Deffuant, Guillaume, et al. Mixing beliefs among interacting agents. Advances in Complex Systems 3.01n04
+ * (2000): 87-98."
+ */
+public class DeffuantModel<V> extends OpinionDynamics<V> {
+    private final double epsilon;
+    private final double mu;
+
+    /**
+     * Construct a Deffuant model simulation.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param initial     the initial opinions
+     * @param epsilon     the confidence bound
+     * @param mu          the convergence parameter, in {@code (0,0.5]}
+     * @param schedule    the update {@link Schedule}
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split synchronous sweeps into
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} is negative, if {@code mu} is not in {@code (0,0.5]}, if
+     *                                  {@code parallelism} is less than 1 or if {@code g} has negative edge weights
+     */
+    public DeffuantModel(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon,
+                         double mu, Schedule schedule, long seed, int parallelism) {
+        super(g, initial, schedule, seed, parallelism);
+        Conditions.requireArgument(epsilon >= 0, "epsilon must be non-negative, got %f", epsilon);
+        Conditions.requireArgument(mu > 0 && mu <= 0.5, "mu must be in (0,0.5], got %f", mu);
+        this.epsilon = epsilon;
+        this.mu = mu;
+    }
+
+    /**
+     * Construct a Deffuant model simulation using a seed drawn from the global {@link java.util.Random} instance and
+     * parallelism equal to the number of available processors.
+     *
+     * @param g        the input {@link DirectedGraph}
+     * @param initial  the initial opinions
+     * @param epsilon  the confidence bound
+     * @param mu       the convergence parameter, in {@code (0,0.5]}
+     * @param schedule the update {@link Schedule}
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} is negative, if {@code mu} is not in {@code (0,0.5]} or if
+     *                                  {@code g} has negative edge weights
+     */
+    public DeffuantModel(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon,
+                         double mu, Schedule schedule) {
+        this(g, initial, epsilon, mu, schedule, RandomHelper.getRandom().nextLong(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    double next(int v, double[] opinions, SplittableRandom random) {
+        final int u = neighbor(v, random);
+        if (u >= 0 && Math.abs(opinions[u] - opinions[v]) < epsilon) {
+            return opinions[v] + mu * (opinions[u] - opinions[v]);
+        }
+        return opinions[v];
+    }
+
+    @Override
+    void update(int v, double[] opinions, SplittableRandom random) {
+        final int u = neighbor(v, random);
+        if (u >= 0 && Math.abs(opinions[u] - opinions[v]) < epsilon) {
+            final double d = opinions[u] - opinions[v];
+            opinions[v] += mu * d;
+            opinions[u] -= mu * d;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The Hegselmann-Krause bounded confidence model of opinion dynamics.
+ * <p>
+ * In each update, an agent adopts the average opinion of itself and those of its neighbors whose opinions differ from
+ * its own by at most the confidence bound {@code epsilon}. On a graph, the neighbors of an agent are its outbound
+ * neighbors and each update runs in time {@code O(d)}, where {@code d} is the out degree of the agent.
+ * <p>
+ * Without a graph, every agent is a neighbor of every other agent, which is the original formulation of the model. In
+ * that case the opinions are kept in a sorted index, so that the agents within the confidence bound of an agent form a
+ * contiguous range that is found by binary search and averaged by prefix sums. A synchronous sweep sorts the opinions
+ * once and then updates every agent in time {@code O(lg V)}. An asynchronous update also moves the updated opinion to
+ * its new position in the index, with a Fenwick tree of the sorted opinions providing the prefix sums, in time
+ * {@code O((1 + s) lg V)}, where {@code s} is the number of opinions that the update crosses; the index is rebuilt at
+ * the start of every sweep.
+ *
+ * @param <V> the vertex type
+ * @see "Hegselmann, Rainer, and Ulrich Krause. Opinion dynamics and bounded confidence models, analysis, and
+ * simulation. Journal of artificial societies and social simulation 5.3 (2002)."
+ */
+public class HegselmannKrause<V> extends OpinionDynamics<V> {
+    private final double epsilon;
+    private final boolean complete;
+    private final boolean asynchronous;
+
+    private double[] sorted;
+    private double[] prefix;
+    private double[] tree;
+
+    /**
+     * Construct a Hegselmann-Krause model simulation on a graph.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param initial     the initial opinions
+     * @param epsilon     the confidence bound
+     * @param schedule    the update {@link Schedule}
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split synchronous sweeps into
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} is negative, if {@code parallelism} is less than 1 or if
+     *                                  {@code g} has negative edge weights
+     */
+    public HegselmannKrause(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon,
+                            Schedule schedule, long seed, int parallelism) {
+        super(g, initial, schedule, seed, parallelism);
+        Conditions.requireArgument(epsilon >= 0, "epsilon must be non-negative, got %f", epsilon);
+        this.epsilon = epsilon;
+        this.complete = false;
+        this.asynchronous = schedule == Schedule.ASYNCHRONOUS;
+    }
+
+    /**
+     * Construct a Hegselmann-Krause model simulation in which every agent is a neighbor of every other agent.
+     *
+     * @param initial     the initial opinions, whose keys are the agents
+     * @param epsilon     the confidence bound
+     * @param schedule    the update {@link Schedule}
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split synchronous sweeps into
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} has {@code null} values
+     * @throws IllegalArgumentException if {@code epsilon} is negative or if {@code parallelism} is less than 1
+     */
+    public HegselmannKrause(GraphState<V, Double> initial, double epsilon, Schedule schedule, long seed,
+                            int parallelism) {
+        super(initial, schedule, seed, parallelism);
+        Conditions.requireArgument(epsilon >= 0, "epsilon must be non-negative, got %f", epsilon);
+        for (double x : opinions) {
+            Conditions.requireArgument(!Double.isNaN(x), "initial opinions must not be NaN");
+        }
+        this.epsilon = epsilon;
+        this.complete = true;
+        this.asynchronous = schedule == Schedule.ASYNCHRONOUS;
+        this.sorted = new double[n];
+        if (asynchronous) {
+            this.tree = new double[n + 1];
+        } else {
+            this.prefix = new double[n + 1];
+        }
+    }
+
+    /**
+     * Construct a Hegselmann-Krause model simulation on a graph using a seed drawn from the global
+     * {@link java.util.Random} instance and parallelism equal to the number of available processors.
+     *
+     * @param g        the input {@link DirectedGraph}
+     * @param initial  the initial opinions
+     * @param epsilon  the confidence bound
+     * @param schedule the update {@link Schedule}
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} is negative or if {@code g} has negative edge weights
+     */
+    public HegselmannKrause(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon,
+                            Schedule schedule) {
+        this(g, initial, epsilon, schedule, RandomHelper.getRandom().nextLong(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a Hegselmann-Krause model simulation in which every agent is a neighbor of every other agent using a
+     * seed drawn from the global {@link java.util.Random} instance and parallelism equal to the number of available
+     * processors.
+     *
+     * @param initial  the initial opinions, whose keys are the agents
+     * @param epsilon  the confidence bound
+     * @param schedule the update {@link Schedule}
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} has {@code null} values
+     * @throws IllegalArgumentException if {@code epsilon} is negative
+     */
+    public HegselmannKrause(GraphState<V, Double> initial, double epsilon, Schedule schedule) {
+        this(initial, epsilon, schedule, RandomHelper.getRandom().nextLong(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    void beforeSweep(double[] opinions) {
+        if (!complete) {
+            return;
+        }
+        System.arraycopy(opinions, 0, sorted, 0, n);
+        Arrays.sort(sorted);
+        if (asynchronous) {
+            // Linear time construction of the Fenwick tree
+            Arrays.fill(tree, 0);
+            for (int i = 1; i <= n; i++) {
+                tree[i] += sorted[i - 1];
+                final int parent = i + (i & -i);
+                if (parent <= n) {
+                    tree[parent] += tree[i];
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                prefix[i + 1] = prefix[i] + sorted[i];
+            }
+        }
+    }
+
+    @Override
+    double next(int v, double[] opinions, SplittableRandom random) {
+        final double x = opinions[v];
+        if (complete) {
+            final int lo = lowerBound(x - epsilon);
+            final int hi = upperBound(x + epsilon);
+            return asynchronous ? (sum(hi) - sum(lo)) / (hi - lo) : (prefix[hi] - prefix[lo]) / (hi - lo);
+        }
+        double sum = x;
+        int count = 1;
+        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+            final int u = targets[k];
+            if (u != v && Math.abs(opinions[u] - x) <= epsilon) {
+                sum += opinions[u];
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    @Override
+    void update(int v, double[] opinions, SplittableRandom random) {
+        final double x = opinions[v];
+        final double z = next(v, opinions, random);
+        opinions[v] = z;
+        if (!complete) {
+            return;
+        }
+        // Move the opinion from its position in the index to its new position, shifting the opinions in between
+        int p = lowerBound(x);
+        if (z > x) {
+            while (p + 1 < n && sorted[p + 1] < z) {
+                set(p, sorted[p + 1]);
+                p++;
+            }
+        } else {
+            while (p > 0 && sorted[p - 1] > z) {
+                set(p, sorted[p - 1]);
+                p--;
+            }
+        }
+        set(p, z);
+    }
+
+    /**
+     * Returns the first position in the index with an opinion of at least {@code x}.
+     */
+    private int lowerBound(double x) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the first position in the index with an opinion greater than {@code x}.
+     */
+    private int upperBound(double x) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the sum of the opinions in the positions {@code [0, i)} of the index.
+     */
+    private double sum(int i) {
+        double s = 0;
+        for (; i > 0; i -= i & -i) {
+            s += tree[i];
+        }
+        return s;
+    }
+
+    private void set(int p, double x) {
+        final double delta = x - sorted[p];
+        sorted[p] = x;
+        for (int i = p + 1; i <= n; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The majority rule model of opinion dynamics.
+ * <p>
+ * In each update, an agent adopts the opinion with the largest total edge weight among its outbound neighbors. The
+ * opinions are treated as labels, so any set of distinct values may be used. On a tie, the agent keeps its opinion if
+ * it is among the tied opinions and otherwise adopts the smallest of them. Agents without outbound neighbors keep their
+ * opinion.
+ * <p>
+ * Each update runs in time {@code O(d lg d)}, where {@code d} is the out degree of the agent, using scratch arrays of
+ * size equal to the maximum out degree per thread.
+ *
+ * @param <V> the vertex type
+ */
+public class MajorityRule<V> extends OpinionDynamics<V> {
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Construct a majority rule simulation.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param initial     the initial opinions
+     * @param schedule    the update {@link Schedule}
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split synchronous sweeps into
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1 or if {@code g} has negative edge weights
+     */
+    public MajorityRule(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, Schedule schedule,
+                        long seed, int parallelism) {
+        super(g, initial, schedule, seed, parallelism);
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, offsets[v + 1] - offsets[v]);
+        }
+        final int capacity = maxDegree;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(capacity));
+    }
+
+    /**
+     * Construct a majority rule simulation using a seed drawn from the global {@link java.util.Random} instance and
+     * parallelism equal to the number of available processors.
+     *
+     * @param g        the input {@link DirectedGraph}
+     * @param initial  the initial opinions
+     * @param schedule the update {@link Schedule}
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code g} has negative edge weights
+     */
+    public MajorityRule(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, Schedule schedule) {
+        this(g, initial, schedule, RandomHelper.getRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    double next(int v, double[] opinions, SplittableRandom random) {
+        final int from = offsets[v];
+        final int to = offsets[v + 1];
+        if (from == to) {
+            return opinions[v];
+        }
+        final Scratch s = scratch.get();
+        final double[] labels = s.labels;
+        final double[] totals = s.totals;
+
+        // The distinct opinions of the neighbors in ascending order
+        for (int k = from; k < to; k++) {
+            labels[k - from] = opinions[targets[k]];
+        }
+        Arrays.sort(labels, 0, to - from);
+        int m = 1;
+        for (int i = 1; i < to - from; i++) {
+            if (Double.compare(labels[i], labels[m - 1]) != 0) {
+                labels[m++] = labels[i];
+            }
+        }
+
+        Arrays.fill(totals, 0, m, 0);
+        for (int k = from; k < to; k++) {
+            totals[Arrays.binarySearch(labels, 0, m, opinions[targets[k]])] += weights[k];
+        }
+        int best = 0;
+        for (int i = 1; i < m; i++) {
+            if (totals[i] > totals[best]) {
+                best = i;
+            }
+        }
+        final int own = Arrays.binarySearch(labels, 0, m, opinions[v]);
+        return own >= 0 && totals[own] == totals[best] ? opinions[v] : labels[best];
+    }
+
+    private static final class Scratch {
+        final double[] labels;
+        final double[] totals;
+
+        Scratch(int capacity) {
+            this.labels = new double[capacity];
+            this.totals = new double[capacity];
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.DoubleGraphState;
+import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Base class of the stochastic opinion dynamics simulations.
+ * <p>
+ * The opinions of the agents are held in a primitive array indexed by a {@link VertexIndex}. An agent is influenced by
+ * its outbound neighbors, like in {@link gr.james.influence.algorithms.scoring.DeGroot}, and where a model calls for a
+ * random neighbor, the neighbor is chosen with probability proportional to the weight of the edge. The simulation
+ * advances in sweeps according to a {@link Schedule}: a synchronous sweep updates all agents from the opinions of the
+ * previous sweep, in blocks of agents that run in parallel, and an asynchronous sweep performs {@code V} sequential
+ * updates of agents chosen uniformly at random. Each block uses its own {@link SplittableRandom} stream derived from a
+ * single seed, so that a simulation is reproducible for a given seed and parallelism.
+ * <p>
+ * The intermediate states can be streamed to an {@link OpinionSink} every given number of sweeps with
+ * {@link #sampleTo(OpinionSink, int)}.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ */
+public abstract class OpinionDynamics<V> {
+    final VertexIndex<V> index;
+    final int n;
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    private final double[] cumulative;
+
+    double[] opinions;
+    private double[] next;
+    private final Schedule schedule;
+    private final SplittableRandom[] randoms;
+    private long sweeps;
+
+    private OpinionSink<V> sink;
+    private int interval;
+
+    /**
+     * Construct an {@link OpinionDynamics} simulation on a graph.
+     */
+    OpinionDynamics(DirectedGraph<V, ?> g, GraphState<V, Double> initial, Schedule schedule, long seed,
+                    int parallelism) {
+        this(CompressedGraph.of(g), initial, schedule, seed, parallelism);
+    }
+
+    private OpinionDynamics(CompressedGraph<V> graph, GraphState<V, Double> initial, Schedule schedule, long seed,
+                            int parallelism) {
+        this(graph.index(), graph, graph.toArray(Conditions.requireNonNull(initial)), schedule, seed, parallelism);
+    }
+
+    /**
+     * Construct an {@link OpinionDynamics} simulation in which every agent in {@code initial} may interact with every
+     * other agent.
+     */
+    OpinionDynamics(GraphState<V, Double> initial, Schedule schedule, long seed, int parallelism) {
+        this(VertexIndex.of(initial.keySet()), initial, schedule, seed, parallelism);
+    }
+
+    private OpinionDynamics(VertexIndex<V> index, GraphState<V, Double> initial, Schedule schedule, long seed,
+                            int parallelism) {
+        this(index, null, DoubleGraphState.copyOf(index, initial, Double.NaN).toArray(), schedule, seed,
+                parallelism);
+    }
+
+    private OpinionDynamics(VertexIndex<V> index, CompressedGraph<V> graph, double[] opinions, Schedule schedule,
+                            long seed, int parallelism) {
+        Conditions.requireNonNull(schedule);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+        this.index = index;
+        this.n = index.size();
+        this.opinions = opinions;
+        this.next = new double[n];
+        this.schedule = schedule;
+
+        final SplittableRandom root = new SplittableRandom(seed);
+        this.randoms = new SplittableRandom[Math.max(1, Math.min(parallelism, n))];
+        for (int b = 0; b < randoms.length; b++) {
+            randoms[b] = root.split();
+        }
+
+        if (graph == null) {
+            this.offsets = null;
+            this.targets = null;
+            this.weights = null;
+            this.cumulative = null;
+        } else {
+            this.offsets = graph.outOffsets();
+            this.targets = graph.outTargets();
+            this.weights = graph.outWeights();
+            if (graph.isUnweighted()) {
+                this.cumulative = null;
+            } else {
+                this.cumulative = new double[weights.length];
+                for (int v = 0; v < n; v++) {
+                    double sum = 0;
+                    for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                        Conditions.requireArgument(weights[k] >= 0, "edge weights must be non-negative, got %f",
+                                weights[k]);
+                        sum += weights[k];
+                        cumulative[k] = sum;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the opinion of agent {@code v} at the end of a synchronous sweep.
+     *
+     * @param v        the agent
+     * @param opinions the opinions at the end of the previous sweep, which must not be modified
+     * @param random   the random stream of the block of {@code v}
+     * @return the new opinion of {@code v}
+     */
+    abstract double next(int v, double[] opinions, SplittableRandom random);
+
+    /**
+     * Updates the opinion of agent {@code v} in place during an asynchronous sweep. The default implementation assigns
+     * {@link #next(int, double[], SplittableRandom)}.
+     *
+     * @param v        the agent
+     * @param opinions the current opinions
+     * @param random   the random stream
+     */
+    void update(int v, double[] opinions, SplittableRandom random) {
+        opinions[v] = next(v, opinions, random);
+    }
+
+    /**
+     * Invoked before every sweep, with the opinions at the end of the previous sweep.
+     *
+     * @param opinions the opinions at the end of the previous sweep
+     */
+    void beforeSweep(double[] opinions) {
+    }
+
+    /**
+     * Returns a random outbound neighbor of agent {@code v}, chosen with probability proportional to the weight of the
+     * edge, or {@code -1} if {@code v} has no outbound neighbors.
+     */
+    final int neighbor(int v, SplittableRandom random) {
+        final int from = offsets[v];
+        final int to = offsets[v + 1];
+        if (from == to) {
+            return -1;
+        }
+        if (cumulative == null) {
+            return targets[from + random.nextInt(to - from)];
+        }
+        final double x = random.nextDouble() * cumulative[to - 1];
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] > x) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return targets[lo];
+    }
+
+    /**
+     * Stream the opinions to {@code sink} at the end of every {@code interval} sweeps.
+     * <p>
+     * A sink replaces the previous one; a {@code null} sink disables sampling.
+     *
+     * @param sink     the {@link OpinionSink} or {@code null}
+     * @param interval the number of sweeps between samples
+     * @throws IllegalArgumentException if {@code interval} is not positive
+     */
+    public final void sampleTo(OpinionSink<V> sink, int interval) {
+        Conditions.requireArgument(interval > 0, "interval must be positive, got %d", interval);
+        this.sink = sink;
+        this.interval = interval;
+    }
+
+    /**
+     * Performs a number of sweeps.
+     *
+     * @param count the number of sweeps
+     * @throws IllegalArgumentException if {@code count} is negative
+     */
+    public final void run(int count) {
+        Conditions.requireArgument(count >= 0, "count must be non-negative, got %d", count);
+        for (int i = 0; i < count; i++) {
+            beforeSweep(opinions);
+            if (schedule == Schedule.SYNCHRONOUS) {
+                final double[] x = opinions;
+                final double[] y = next;
+                final int blocks = randoms.length;
+                IntStream.range(0, blocks).parallel().forEach(b -> {
+                    final SplittableRandom random = randoms[b];
+                    for (int v = (int) ((long) b * n / blocks); v < (long) (b + 1) * n / blocks; v++) {
+                        y[v] = next(v, x, random);
+                    }
+                });
+                this.opinions = y;
+                this.next = x;
+            } else {
+                final SplittableRandom random = randoms[0];
+                for (int k = 0; k < n; k++) {
+                    update(random.nextInt(n), opinions, random);
+                }
+            }
+            sweeps++;
+            if (sink != null && sweeps % interval == 0) {
+                sink.sample(sweeps, index, opinions);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sweeps performed so far.
+     *
+     * @return the number of sweeps performed so far
+     */
+    public final long sweeps() {
+        return sweeps;
+    }
+
+    /**
+     * Returns the current opinion of agent {@code v}.
+     *
+     * @param v the agent
+     * @return the current opinion of {@code v}
+     * @throws NullPointerException   if {@code v} is {@code null}
+     * @throws IllegalVertexException if {@code v} is not an agent of this simulation
+     */
+    public final double opinion(V v) {
+        final int i = index.indexOf(Conditions.requireNonNull(v));
+        if (i < 0) {
+            throw new IllegalVertexException();
+        }
+        return opinions[i];
+    }
+
+    /**
+     * Returns a copy of the current opinions.
+     *
+     * @return a new {@link DoubleGraphState} with the current opinions
+     */
+    public final DoubleGraphState<V> opinions() {
+        return DoubleGraphState.of(index, opinions);
+    }
+}
@@ -0,0 +1,26 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.util.collections.VertexIndex;
+
+/**
+ * A consumer of the intermediate states of an {@link OpinionDynamics} simulation.
+ * <p>
+ * The opinions are passed as the live primitive array of the simulation, indexed by the given {@link VertexIndex}, so
+ * that sampling does not copy the state. The array must not be modified and is only valid for the duration of the
+ * call; a sink that retains the state must copy it, for example with
+ * {@link gr.james.influence.util.collections.DoubleGraphState#of(VertexIndex, double[])}.
+ *
+ * @param <V> the vertex type
+ * @see OpinionDynamics#sampleTo(OpinionSink, int)
+ */
+@FunctionalInterface
+public interface OpinionSink<V> {
+    /**
+     * Consumes the opinions at the end of a sweep.
+     *
+     * @param sweep    the number of sweeps performed so far
+     * @param index    the {@link VertexIndex} of the opinions
+     * @param opinions the opinions, which must not be modified or retained
+     */
+    void sample(long sweep, VertexIndex<V> index, double[] opinions);
+}
@@ -0,0 +1,18 @@
+package gr.james.influence.algorithms.dynamics;
+
+/**
+ * The update schedule of an {@link OpinionDynamics} simulation.
+ */
+public enum Schedule {
+    /**
+     * In each sweep, all agents update simultaneously based on the opinions at the end of the previous sweep. The
+     * updates of a sweep are independent and are computed in parallel.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * Each sweep consists of {@code V} updates, each of a single agent chosen uniformly at random, based on the current
+     * opinions. The updates are inherently sequential.
+     */
+    ASYNCHRONOUS
+}
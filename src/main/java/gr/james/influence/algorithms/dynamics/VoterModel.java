@@ -0,0 +1,56 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.SplittableRandom;
+
+/**
+ * The voter model of opinion dynamics.
+ * <p>
+ * In each update, an agent copies the opinion of a random outbound neighbor. The opinions are treated as labels, so
+ * any set of distinct values may be used. Agents without outbound neighbors keep their opinion.
+ *
+ * @param <V> the vertex type
+ * @see "Holley, Richard A., and Thomas M. Liggett. Ergodic theorems for weakly interacting infinite systems and the
+ * voter model. The annals of probability (1975): 643-663."
+ */
+public class VoterModel<V> extends OpinionDynamics<V> {
+    /**
+     * Construct a voter model simulation.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param initial     the initial opinions
+     * @param schedule    the update {@link Schedule}
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split synchronous sweeps into
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1 or if {@code g} has negative edge weights
+     */
+    public VoterModel(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, Schedule schedule,
+                      long seed, int parallelism) {
+        super(g, initial, schedule, seed, parallelism);
+    }
+
+    /**
+     * Construct a voter model simulation using a seed drawn from the global {@link java.util.Random} instance and
+     * parallelism equal to the number of available processors.
+     *
+     * @param g        the input {@link DirectedGraph}
+     * @param initial  the initial opinions
+     * @param schedule the update {@link Schedule}
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code g} has negative edge weights
+     */
+    public VoterModel(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, Schedule schedule) {
+        this(g, initial, schedule, RandomHelper.getRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    double next(int v, double[] opinions, SplittableRandom random) {
+        final int u = neighbor(v, random);
+        return u < 0 ? opinions[v] : opinions[u];
+    }
+}
@@ -0,0 +1,59 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Base class of the {@link VertexScoring} implementations that hold their scores in a {@code double[]} indexed by a
+ * {@link CompressedGraph}.
+ * <p>
+ * This class implements {@link #topK(int)} and {@link #ranked()} directly on the underlying array, without creating
+ * the {@link gr.james.influence.util.collections.GraphState} of {@link #scores()}.
+ *
+ * @param <V> the vertex type
+ */
+public abstract class AbstractArrayScoring<V> implements VertexScoring<V, Double> {
+    AbstractArrayScoring() {
+    }
+
+    /**
+     * Returns the graph that indexes the scores.
+     *
+     * @return the graph that indexes the scores
+     */
+    abstract CompressedGraph<V> graph();
+
+    /**
+     * Returns the underlying array of the scores, which must not be modified.
+     *
+     * @return the underlying array of the scores
+     */
+    abstract double[] values();
+
+    /**
+     * Get the {@code k} vertices with the highest scores in descending order.
+     * <p>
+     * Ties are broken by the iteration order of the graph. This method selects the vertices directly from the
+     * underlying array in time {@code O(V lg k)} and {@code O(k)} additional memory.
+     *
+     * @param k the number of vertices
+     * @return a {@link List} of the {@code min(k, V)} vertices with the highest scores
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @Override
+    public List<V> topK(int k) {
+        return Ranking.topK(graph(), values(), k);
+    }
+
+    /**
+     * Returns a lazy {@link Iterator} over all the vertices in descending order of score.
+     *
+     * @return a lazy {@link Iterator} over all the vertices in descending order of score
+     */
+    @Override
+    public Iterator<V> ranked() {
+        return Ranking.ranked(this::topK, graph().vertexCount());
+    }
+}
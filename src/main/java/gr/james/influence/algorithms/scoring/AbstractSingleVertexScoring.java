@@ -6,6 +6,12 @@ import gr.james.influence.graph.DirectedGraph;
 import gr.james.influence.util.Conditions;
 import gr.james.influence.util.collections.GraphState;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * This class provides a skeletal implementation of the {@link VertexScoring} interface to minimize the effort required
  * to implement it.
@@ -16,6 +22,12 @@ import gr.james.influence.util.collections.GraphState;
  * scores for a fraction of the population.
  * <p>
  * Instances of this class expect that the graph will not be mutated after the constructor is invoked.
+ * <p>
+ * Instances of this class are thread-safe, provided that {@link #scoreProtected(Object)} is safe to invoke
+ * concurrently for different vertices, which is the case if it only reads the graph. The scores are cached in a
+ * concurrent map of futures, so that concurrent invocations of {@link #score(Object)} for the same vertex compute the
+ * score only once and the rest of the threads wait for it. The {@link #scores()} method computes the missing scores in
+ * parallel.
  *
  * @param <V> the vertex type
  * @param <T> the score type
@@ -23,7 +35,8 @@ import gr.james.influence.util.collections.GraphState;
  */
 abstract class AbstractSingleVertexScoring<V, T> implements VertexScoring<V, T> {
     private final DirectedGraph<V, ?> g;
-    private final GraphState<V, T> scores;
+    private final ConcurrentMap<V, CompletableFuture<T>> cache;
+    private volatile GraphState<V, T> scores;
 
     /**
      * Construct an instance of {@link AbstractSingleVertexScoring} using the specified input {@link DirectedGraph} g.
@@ -35,24 +48,38 @@ abstract class AbstractSingleVertexScoring<V, T> implements VertexScoring<V, T>
      */
     public AbstractSingleVertexScoring(@UnmodifiableGraph DirectedGraph<V, ?> g) {
         this.g = Conditions.requireNonNull(g);
-        this.scores = GraphState.create();
+        this.cache = new ConcurrentHashMap<>();
+        this.scores = null;
     }
 
     /**
      * Calculate the score of a single vertex.
      * <p>
-     * This method is invoked at most once for each vertex in the graph. The input is guaranteed to be a non-null vertex
-     * of the graph.
+     * This method is invoked at most once for each vertex in the graph, unless it throws an exception, and may be
+     * invoked concurrently for different vertices. The input is guaranteed to be a non-null vertex of the graph.
      *
      * @param v the vertex to get the score of
      * @return the score of vertex {@code v}
      */
     abstract T scoreProtected(V v);
 
+    /**
+     * Creates the {@link GraphState} that {@link #scores(ForkJoinPool)} fills with the scores of the vertices of
+     * {@code g}.
+     * <p>
+     * The default implementation returns an empty {@link GraphState}.
+     *
+     * @param g the input {@link DirectedGraph}
+     * @return a new {@link GraphState} to hold the scores of all vertices in {@code g}
+     */
+    GraphState<V, T> newScores(DirectedGraph<V, ?> g) {
+        return GraphState.create();
+    }
+
     /**
      * {@inheritDoc}
      * <p>
-     * This method is buffered.
+     * This method is buffered and thread-safe.
      *
      * @throws NullPointerException   {@inheritDoc}
      * @throws IllegalVertexException {@inheritDoc}
@@ -60,22 +87,72 @@ abstract class AbstractSingleVertexScoring<V, T> implements VertexScoring<V, T>
     @Override
     public T score(V v) {
         Conditions.requireVertexInGraph(g, v);
-        return scores.computeIfAbsent(v, this::scoreProtected);
+        CompletableFuture<T> future = cache.get(v);
+        if (future == null) {
+            final CompletableFuture<T> created = new CompletableFuture<>();
+            future = cache.putIfAbsent(v, created);
+            if (future == null) {
+                try {
+                    created.complete(scoreProtected(v));
+                } catch (RuntimeException | Error e) {
+                    // Allow a later invocation to retry
+                    cache.remove(v, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+                return created.join();
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
     }
 
     /**
      * {@inheritDoc}
      * <p>
-     * This method is buffered.
+     * This method is buffered and computes the missing scores in parallel in the
+     * {@link ForkJoinPool#commonPool() common pool}.
      */
     @Override
     public GraphState<V, T> scores() {
-        if (scores.size() < g.vertexCount()) {
+        return scores(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get the scores of all vertices, computing the missing scores in parallel in the given {@link ForkJoinPool}.
+     * <p>
+     * The {@link GraphState} returned by this method will have as many entries as there are vertices in the graph. The
+     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}.
+     * <p>
+     * This method is buffered and thread-safe.
+     *
+     * @param pool the {@link ForkJoinPool} to compute the scores in
+     * @return a {@link GraphState} object holding the scores of all vertices in the graph
+     * @throws NullPointerException if {@code pool} is {@code null}
+     */
+    public GraphState<V, T> scores(ForkJoinPool pool) {
+        Conditions.requireNonNull(pool);
+        GraphState<V, T> result = this.scores;
+        if (result == null) {
+            if (cache.size() < g.vertexCount()) {
+                pool.submit(() -> g.vertexSet().parallelStream().forEach(this::score)).join();
+            }
+            result = newScores(g);
             for (V v : g) {
-                scores.putIfAbsent(v, score(v));
+                result.put(v, score(v));
             }
+            assert result.keySet().equals(g.vertexSet());
+            this.scores = result;
         }
-        assert scores.keySet().equals(g.vertexSet());
-        return this.scores;
+        return result;
     }
 }
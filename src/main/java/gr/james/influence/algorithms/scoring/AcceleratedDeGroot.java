@@ -0,0 +1,432 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Accelerated solver for the limiting opinion vector of the {@link DeGroot} model.
+ * <p>
+ * The {@link DeGroot} class performs plain averaging iterations {@code x <- P x}, where {@code P} is the row normalized
+ * weight matrix, until successive states differ by at most {@code epsilon}. On graphs with a small spectral gap this
+ * may require a very large number of iterations. This class computes the same limit using one of the following
+ * {@link Mode modes}, operating on primitive arrays:
+ * <ul>
+ * <li>{@link Mode#ANDERSON}: Anderson acceleration of the fixed point iteration {@code x = P x}, which extrapolates
+ * each step from a short history of previous steps.</li>
+ * <li>{@link Mode#STATIONARY}: direct computation of the limit from the stationary distributions of the closed
+ * communicating classes of the graph (see {@link Graphs#getStubbornComponents(DirectedGraph)}). Each closed class
+ * reaches the consensus {@code pi * x0}, where {@code pi} is its stationary distribution, and every other vertex
+ * converges to a combination of these consensus values weighted by its absorption probabilities. Both systems are
+ * solved with Gauss-Seidel sweeps.</li>
+ * </ul>
+ * The accuracy of the result is controlled by {@code epsilon}, which in {@link Mode#ANDERSON} bounds the residual
+ * {@code |P x - x|} of each vertex and in {@link Mode#STATIONARY} bounds the per-vertex change of a Gauss-Seidel sweep.
+ * <p>
+ * The result of this class equals the limit of {@link DeGroot} when the latter converges, namely when every closed
+ * class of the graph is aperiodic (see {@link gr.james.influence.algorithms.layout.BreadthFirstSearchPeriodicity}). If
+ * a closed class is periodic, {@link Mode#STATIONARY} yields the time averaged limit while {@link Mode#ANDERSON} may
+ * not converge within the maximum number of sweeps.
+ * <p>
+ * The input graph must not contain vertices without outbound edges.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ * @see DeGroot
+ * @see "Walker, Homer F., and Peng Ni. Anderson acceleration for fixed-point iterations. SIAM Journal on Numerical
+ * Analysis 49.4 (2011): 1715-1735."
+ */
+public class AcceleratedDeGroot<V> {
+    public static final int DEFAULT_MAX_SWEEPS = 100000;
+    public static final int ANDERSON_DEPTH = 5;
+
+    private final CompressedGraph<V> graph;
+    private final double epsilon;
+    private final int maxSweeps;
+    private final double[] result;
+    private int sweeps;
+    private int classSweeps;
+
+    /**
+     * Construct an instance of {@link AcceleratedDeGroot} and run the solver.
+     *
+     * @param g         the input {@link DirectedGraph}
+     * @param initial   the initial opinion vector
+     * @param epsilon   the positive precision of the result
+     * @param mode      the acceleration mode
+     * @param maxSweeps the maximum number of sweeps over the edges of the graph
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} or {@code maxSweeps} is not positive or if {@code g} has a
+     *                                  vertex without outbound edges
+     */
+    public AcceleratedDeGroot(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon,
+                              Mode mode, int maxSweeps) {
+        Conditions.requireArgument(epsilon > 0, "epsilon must be positive, got %f", epsilon);
+        Conditions.requireArgument(maxSweeps > 0, "maxSweeps must be positive, got %d", maxSweeps);
+        Conditions.requireArgument(Graphs.isMarkovChain(g), "every vertex must have at least one outbound edge");
+        Conditions.requireNonNull(mode);
+
+        this.graph = CompressedGraph.of(g);
+        this.epsilon = epsilon;
+        this.maxSweeps = maxSweeps;
+        this.sweeps = 0;
+
+        final double[] x0 = graph.toArray(initial);
+        switch (mode) {
+            case ANDERSON:
+                this.result = anderson(x0);
+                break;
+            case STATIONARY:
+                this.result = stationary(g, x0);
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Construct an instance of {@link AcceleratedDeGroot} with {@link #DEFAULT_MAX_SWEEPS} and run the solver.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param initial the initial opinion vector
+     * @param epsilon the positive precision of the result
+     * @param mode    the acceleration mode
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} is not positive or if {@code g} has a vertex without
+     *                                  outbound edges
+     */
+    public AcceleratedDeGroot(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon,
+                              Mode mode) {
+        this(g, initial, epsilon, mode, DEFAULT_MAX_SWEEPS);
+    }
+
+    /**
+     * Convenience function to compute the limiting opinion vector of the {@link DeGroot} model.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param initial the initial opinion vector
+     * @param epsilon the positive precision of the result
+     * @param mode    the acceleration mode
+     * @param <V>     the vertex type
+     * @return the limiting opinion vector
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code epsilon} is not positive or if {@code g} has a vertex without
+     *                                  outbound edges
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, GraphState<V, Double> initial,
+                                                    double epsilon, Mode mode) {
+        return new AcceleratedDeGroot<>(g, initial, epsilon, mode).result();
+    }
+
+    /**
+     * Returns the limiting opinion vector.
+     *
+     * @return a new {@link GraphState} holding the limiting opinion of every vertex
+     */
+    public GraphState<V, Double> result() {
+        return graph.toGraphState(result);
+    }
+
+    /**
+     * Returns the number of sweeps over the edges of the graph that the solver performed.
+     *
+     * @return the number of sweeps over the edges of the graph that the solver performed
+     */
+    public int sweeps() {
+        return sweeps;
+    }
+
+    private void multiply(double[] x, double[] y) {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double[] strengths = graph.outStrengths();
+        for (int i = 0; i < y.length; i++) {
+            double w = 0.0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                w += weights[k] * x[targets[k]];
+            }
+            y[i] = w / strengths[i];
+        }
+        sweeps++;
+    }
+
+    private double[] anderson(double[] x0) {
+        final int n = x0.length;
+        final double[][] dF = new double[ANDERSON_DEPTH][n];
+        final double[][] dG = new double[ANDERSON_DEPTH][n];
+        int history = 0;
+        int head = 0;
+
+        double[] x = x0.clone();
+        double[] gx = new double[n];
+        double[] f = new double[n];
+        double[] xNext = new double[n];
+        double[] gNext = new double[n];
+        double[] fNext = new double[n];
+
+        multiply(x, gx);
+        double residual = difference(gx, x, f);
+
+        while (residual > epsilon && sweeps < maxSweeps) {
+            if (history > 0) {
+                final double[] gamma = leastSquares(dF, history, f);
+                for (int i = 0; i < n; i++) {
+                    double s = gx[i];
+                    for (int j = 0; j < history; j++) {
+                        s -= gamma[j] * dG[j][i];
+                    }
+                    xNext[i] = s;
+                }
+            } else {
+                System.arraycopy(gx, 0, xNext, 0, n);
+            }
+            multiply(xNext, gNext);
+            double nextResidual = difference(gNext, xNext, fNext);
+
+            if (history > 0 && nextResidual > residual) {
+                // The extrapolation did not improve the residual, fall back to a plain step and restart the history
+                history = 0;
+                head = 0;
+                System.arraycopy(gx, 0, xNext, 0, n);
+                multiply(xNext, gNext);
+                nextResidual = difference(gNext, xNext, fNext);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    dF[head][i] = fNext[i] - f[i];
+                    dG[head][i] = gNext[i] - gx[i];
+                }
+                head = (head + 1) % ANDERSON_DEPTH;
+                history = Math.min(history + 1, ANDERSON_DEPTH);
+            }
+
+            double[] t;
+            t = x;
+            x = xNext;
+            xNext = t;
+            t = gx;
+            gx = gNext;
+            gNext = t;
+            t = f;
+            f = fNext;
+            fNext = t;
+            residual = nextResidual;
+        }
+
+        return gx;
+    }
+
+    private static double difference(double[] a, double[] b, double[] out) {
+        double max = 0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+            max = Math.max(max, Math.abs(out[i]));
+        }
+        return max;
+    }
+
+    /**
+     * Solves {@code min |f - dF * gamma|} via the regularized normal equations using Gaussian elimination.
+     */
+    private static double[] leastSquares(double[][] dF, int m, double[] f) {
+        final double[][] a = new double[m][m + 1];
+        double trace = 0;
+        for (int p = 0; p < m; p++) {
+            for (int q = p; q < m; q++) {
+                double s = 0;
+                for (int i = 0; i < f.length; i++) {
+                    s += dF[p][i] * dF[q][i];
+                }
+                a[p][q] = s;
+                a[q][p] = s;
+            }
+            double s = 0;
+            for (int i = 0; i < f.length; i++) {
+                s += dF[p][i] * f[i];
+            }
+            a[p][m] = s;
+            trace += a[p][p];
+        }
+        final double lambda = 1.0e-10 * trace + Double.MIN_NORMAL;
+        for (int p = 0; p < m; p++) {
+            a[p][p] += lambda;
+        }
+        for (int p = 0; p < m; p++) {
+            int pivot = p;
+            for (int q = p + 1; q < m; q++) {
+                if (Math.abs(a[q][p]) > Math.abs(a[pivot][p])) {
+                    pivot = q;
+                }
+            }
+            final double[] t = a[p];
+            a[p] = a[pivot];
+            a[pivot] = t;
+            for (int q = p + 1; q < m; q++) {
+                final double factor = a[q][p] / a[p][p];
+                for (int r = p; r <= m; r++) {
+                    a[q][r] -= factor * a[p][r];
+                }
+            }
+        }
+        final double[] gamma = new double[m];
+        for (int p = m - 1; p >= 0; p--) {
+            double s = a[p][m];
+            for (int q = p + 1; q < m; q++) {
+                s -= a[p][q] * gamma[q];
+            }
+            gamma[p] = s / a[p][p];
+        }
+        return gamma;
+    }
+
+    private double[] stationary(DirectedGraph<V, ?> g, double[] x0) {
+        final int n = x0.length;
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double[] strengths = graph.outStrengths();
+        final int[] inOffsets = graph.inOffsets();
+        final int[] inSources = graph.inSources();
+
+        // classOf[i] is the index of the closed class of vertex i or -1 if i is transient
+        final int[] classOf = new int[n];
+        Arrays.fill(classOf, -1);
+        final Set<Set<V>> closed = Graphs.getStubbornComponents(g);
+        final double[] x = new double[n];
+        final double[] pi = new double[n];
+        int c = 0;
+        for (Set<V> component : closed) {
+            final int[] members = new int[component.size()];
+            int k = 0;
+            for (V v : component) {
+                members[k] = graph.indexOf(v);
+                classOf[members[k]] = c;
+                k++;
+            }
+            final double consensus = consensus(members, classOf, c, x0, pi);
+            for (int i : members) {
+                x[i] = consensus;
+            }
+            c++;
+        }
+
+        // The closed classes are disjoint, so one round of their sweeps amounts to at most one sweep over the edges
+        sweeps += classSweeps;
+
+        // Order the transient vertices by reverse BFS from the closed classes so that Gauss-Seidel sweeps see the
+        // updated values of the vertices closer to the closed classes first
+        final int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+        final boolean[] queued = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (classOf[i] >= 0) {
+                order[tail++] = i;
+                queued[i] = true;
+            }
+        }
+        final int closedCount = tail;
+        while (head < tail) {
+            final int v = order[head++];
+            for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+                final int u = inSources[k];
+                if (!queued[u]) {
+                    queued[u] = true;
+                    order[tail++] = u;
+                }
+            }
+        }
+        assert tail == n;
+
+        for (int p = closedCount; p < n; p++) {
+            x[order[p]] = x0[order[p]];
+        }
+        double change = Double.POSITIVE_INFINITY;
+        while (closedCount < n && change > epsilon && sweeps < maxSweeps) {
+            change = 0;
+            for (int p = closedCount; p < n; p++) {
+                final int i = order[p];
+                double w = 0.0;
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    w += weights[k] * x[targets[k]];
+                }
+                w /= strengths[i];
+                change = Math.max(change, Math.abs(w - x[i]));
+                x[i] = w;
+            }
+            sweeps++;
+        }
+
+        return x;
+    }
+
+    /**
+     * Computes {@code pi * x0} for a closed class, where {@code pi} is the stationary distribution of the class,
+     * using Gauss-Seidel sweeps on {@code pi = pi P}. The array {@code pi} is shared among the classes.
+     */
+    private double consensus(int[] members, int[] classOf, int c, double[] x0, double[] pi) {
+        final int[] inOffsets = graph.inOffsets();
+        final int[] inSources = graph.inSources();
+        final double[] inWeights = graph.inWeights();
+        final double[] strengths = graph.outStrengths();
+        double scale = 0;
+        for (int i : members) {
+            pi[i] = 1.0 / members.length;
+            scale = Math.max(scale, Math.abs(x0[i]));
+        }
+        double change = Double.POSITIVE_INFINITY;
+        int iterations = 0;
+        while (change * scale > epsilon && iterations < maxSweeps) {
+            change = 0;
+            double sum = 0;
+            for (int j : members) {
+                double s = 0;
+                double self = 0;
+                for (int k = inOffsets[j]; k < inOffsets[j + 1]; k++) {
+                    final int i = inSources[k];
+                    if (i == j) {
+                        self = inWeights[k] / strengths[i];
+                    } else if (classOf[i] == c) {
+                        s += pi[i] * inWeights[k] / strengths[i];
+                    }
+                }
+                final double next = self < 1 ? s / (1 - self) : 1.0;
+                change += Math.abs(next - pi[j]);
+                pi[j] = next;
+                sum += next;
+            }
+            for (int j : members) {
+                pi[j] /= sum;
+            }
+            iterations++;
+        }
+        classSweeps = Math.max(classSweeps, iterations);
+        double value = 0;
+        for (int j : members) {
+            value += pi[j] * x0[j];
+        }
+        return value;
+    }
+
+    /**
+     * The acceleration mode of {@link AcceleratedDeGroot}.
+     */
+    public enum Mode {
+        /**
+         * Anderson acceleration of the averaging iteration.
+         */
+        ANDERSON,
+
+        /**
+         * Direct computation of the limit from the stationary distributions of the closed communicating classes.
+         */
+        STATIONARY
+    }
+}
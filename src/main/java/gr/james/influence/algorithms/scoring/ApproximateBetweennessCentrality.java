@@ -0,0 +1,273 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Approximation of {@link BetweennessCentrality} using shortest path sampling.
+ * <p>
+ * This class implements the algorithm of Riondato and Kornaropoulos: a number of ordered pairs of distinct vertices
+ * {@code (s, t)} are sampled uniformly and for each pair a shortest path from {@code s} to {@code t} is drawn uniformly
+ * among all shortest paths. The estimate of a vertex is the fraction of the sampled paths on which it is an interior
+ * vertex, scaled by {@code V (V - 1)} so that it is comparable to the value returned by {@link BetweennessCentrality}.
+ * With probability at least {@code 1 - delta}, all the estimates are simultaneously within {@code epsilon V (V - 1)}
+ * of the exact values.
+ * <p>
+ * The number of samples is {@code (c / epsilon^2) (floor(lg(VD - 2)) + 1 + ln(1 / delta))} with {@code c = 0.5}, where
+ * {@code VD} is an upper bound of the vertex diameter of the graph, the maximum number of vertices on a shortest path.
+ * The sample count thus adapts to the graph: on an unweighted graph with symmetric edges the bound is
+ * {@code 2 e + 1}, where {@code e} is the largest eccentricity of a single vertex per connected component, which is
+ * computed with one breadth first search per component; otherwise the bound is {@code V}.
+ * <p>
+ * Each sample runs a shortest paths search from {@code s} that stops as soon as {@code t} is settled, using the same
+ * search as {@link BetweennessCentrality}. The path is then drawn backwards from {@code t}, choosing each predecessor
+ * {@code v} of a vertex {@code w} with probability {@code paths(v) / paths(w)}. The samples are split into blocks that
+ * run in parallel and each block uses its own {@link SplittableRandom} stream derived from a single seed, so that the
+ * estimates are reproducible for a given seed and parallelism.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per block.
+ *
+ * @param <V> the vertex type
+ * @see BetweennessCentrality
+ * @see "Riondato, Matteo, and Evgenios M. Kornaropoulos. Fast approximation of betweenness centrality through
+ * sampling. Data Mining and Knowledge Discovery 30.2 (2016): 438-475."
+ */
+public class ApproximateBetweennessCentrality<V> extends AbstractArrayScoring<V> {
+    private static final double SAMPLE_CONSTANT = 0.5;
+
+    private final CompressedGraph<V> graph;
+    private final double[] estimates;
+    private final int vertexDiameterBound;
+    private final int samples;
+
+    /**
+     * Construct an instance of {@link ApproximateBetweennessCentrality} and run the estimator.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param epsilon     the maximum error relative to {@code V (V - 1)}, in {@code (0,1)}
+     * @param delta       the probability of failure, in {@code (0,1)}
+     * @param seed        the seed of the random streams
+     * @param parallelism the number of blocks to split the samples into
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is not in {@code (0,1)} or if
+     *                                  {@code parallelism} is less than 1
+     */
+    public ApproximateBetweennessCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon, double delta,
+                                            long seed, int parallelism) {
+        Conditions.requireArgument(epsilon > 0 && epsilon < 1, "epsilon must be in (0,1), got %f", epsilon);
+        Conditions.requireArgument(delta > 0 && delta < 1, "delta must be in (0,1), got %f", delta);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        this.graph = CompressedGraph.of(g);
+
+        final int n = graph.vertexCount();
+        this.estimates = new double[n];
+        if (n < 3) {
+            this.vertexDiameterBound = n;
+            this.samples = 0;
+            return;
+        }
+
+        this.vertexDiameterBound = vertexDiameterBound(graph);
+        final double log2 = Math.floor(Math.log(Math.max(1, vertexDiameterBound - 2)) / Math.log(2));
+        this.samples = (int) Math.ceil(SAMPLE_CONSTANT / (epsilon * epsilon) * (log2 + 1 + Math.log(1 / delta)));
+
+        final int blocks = Math.max(1, Math.min(parallelism, samples));
+        final SplittableRandom root = new SplittableRandom(seed);
+        final SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            randoms[b] = root.split();
+        }
+
+        final int[][] results = IntStream.range(0, blocks).parallel()
+                .mapToObj(b -> sample((int) ((long) (b + 1) * samples / blocks) - (int) ((long) b * samples / blocks),
+                        randoms[b]))
+                .toArray(int[][]::new);
+
+        final double scale = (double) n * (n - 1) / samples;
+        for (int[] counts : results) {
+            for (int i = 0; i < n; i++) {
+                estimates[i] += counts[i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            estimates[i] *= scale;
+        }
+    }
+
+    /**
+     * Construct an instance of {@link ApproximateBetweennessCentrality} and run the estimator using a seed drawn from
+     * the global {@link java.util.Random} instance and parallelism equal to the number of available processors.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the maximum error relative to {@code V (V - 1)}, in {@code (0,1)}
+     * @param delta   the probability of failure, in {@code (0,1)}
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is not in {@code (0,1)}
+     */
+    public ApproximateBetweennessCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon, double delta) {
+        this(g, epsilon, delta, RandomHelper.getRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Convenience function to estimate the betweenness centralities of all vertices in a graph.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the maximum error relative to {@code V (V - 1)}, in {@code (0,1)}
+     * @param delta   the probability of failure, in {@code (0,1)}
+     * @param <V>     the vertex type
+     * @return the betweenness centrality estimates of the vertices in {@code g}
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code epsilon} or {@code delta} is not in {@code (0,1)}
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double epsilon, double delta) {
+        return new ApproximateBetweennessCentrality<>(g, epsilon, delta).scores();
+    }
+
+    /**
+     * Computes an upper bound of the vertex diameter.
+     */
+    private static int vertexDiameterBound(CompressedGraph<?> graph) {
+        final int n = graph.vertexCount();
+        if (!graph.isUnweighted() || !isSymmetric(graph)) {
+            return n;
+        }
+        final ShortestPathSearch search = new ShortestPathSearch(graph);
+        final boolean[] visited = new boolean[n];
+        int bound = 1;
+        for (int v = 0; v < n; v++) {
+            if (!visited[v]) {
+                search.search(v, -1);
+                for (int i = 0; i < search.settled(); i++) {
+                    visited[search.settled(i)] = true;
+                }
+                final double eccentricity = search.distance(search.settled(search.settled() - 1));
+                bound = Math.max(bound, (int) Math.min(n, 2 * eccentricity + 1));
+                search.reset();
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Checks if the inbound and outbound neighbors of every vertex are the same.
+     */
+    private static boolean isSymmetric(CompressedGraph<?> graph) {
+        final int[] outOffsets = graph.outOffsets();
+        final int[] inOffsets = graph.inOffsets();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            final int[] out = Arrays.copyOfRange(graph.outTargets(), outOffsets[v], outOffsets[v + 1]);
+            final int[] in = Arrays.copyOfRange(graph.inSources(), inOffsets[v], inOffsets[v + 1]);
+            Arrays.sort(out);
+            Arrays.sort(in);
+            if (!Arrays.equals(out, in)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] sample(int count, SplittableRandom random) {
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.inOffsets();
+        final int[] sources = graph.inSources();
+        final ShortestPathSearch search = new ShortestPathSearch(graph);
+        final int[] counts = new int[n];
+        for (int r = 0; r < count; r++) {
+            final int s = random.nextInt(n);
+            int t = random.nextInt(n - 1);
+            if (t >= s) {
+                t++;
+            }
+            search.search(s, t);
+            if (search.paths(t) > 0) {
+                int w = t;
+                while (true) {
+                    // Choose a predecessor of w with probability proportional to its number of shortest paths
+                    double x = random.nextDouble() * search.paths(w);
+                    int v = -1;
+                    for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                        if (search.isShortestPathEdge(k, w)) {
+                            v = sources[k];
+                            x -= search.paths(v);
+                            if (x < 0) {
+                                break;
+                            }
+                        }
+                    }
+                    if (v == s) {
+                        break;
+                    }
+                    counts[v]++;
+                    w = v;
+                }
+            }
+            search.reset();
+        }
+        return counts;
+    }
+
+    /**
+     * Get the betweenness centrality estimate of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the betweenness centrality estimate of
+     * @return the betweenness centrality estimate of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        return estimates[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the betweenness centrality estimates of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the betweenness centrality estimates of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(estimates);
+    }
+
+    @Override
+    CompressedGraph<V> graph() {
+        return graph;
+    }
+
+    @Override
+    double[] values() {
+        return estimates;
+    }
+
+    /**
+     * Returns the upper bound of the vertex diameter that was used to determine the number of samples.
+     *
+     * @return the upper bound of the vertex diameter
+     */
+    public int vertexDiameterBound() {
+        return vertexDiameterBound;
+    }
+
+    /**
+     * Returns the number of sampled vertex pairs.
+     *
+     * @return the number of sampled vertex pairs
+     */
+    public int samples() {
+        return samples;
+    }
+}
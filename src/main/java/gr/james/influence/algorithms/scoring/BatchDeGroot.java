@@ -0,0 +1,207 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batched implementation of the {@link DeGroot} model for many initial opinion vectors on the same graph.
+ * <p>
+ * This class propagates {@code k} initial opinion vectors together, stored as a dense {@code V x k} row major block.
+ * Each iteration performs a single pass over the edges of the graph and updates all the active vectors at once, which
+ * turns {@code k} sparse matrix-vector products into one sparse matrix-matrix product.
+ * <p>
+ * Convergence is tracked separately for each vector with the same criterion as {@link DeGroot}: a vector converges
+ * when no vertex changes its opinion by more than {@code epsilon} between two successive iterations. Converged vectors
+ * are retired from the block and the remaining vectors are repacked so that later iterations only touch the active
+ * ones. The result of each vector is the same as the result of {@link DeGroot#execute(DirectedGraph, GraphState,
+ * double)} on a graph in which the latter converges.
+ * <p>
+ * Unlike {@link DeGroot}, this class does not detect periodic behavior and stops iterating a vector that has not
+ * converged after a maximum number of iterations.
+ * <p>
+ * This class uses state of size {@code O(V k + E)}.
+ *
+ * @param <V> the vertex type
+ * @see DeGroot
+ */
+public class BatchDeGroot<V> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private final CompressedGraph<V> graph;
+    private final double[][] results;
+    private final int[] iterations;
+
+    /**
+     * Construct an instance of {@link BatchDeGroot} and run the model on every initial opinion vector.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param initials      the initial opinion vectors
+     * @param epsilon       the precision of the convergence criterion
+     * @param maxIterations the maximum number of iterations
+     * @throws NullPointerException     if any argument is {@code null} or if some initial vector is missing a vertex
+     * @throws IllegalArgumentException if {@code maxIterations} is not positive
+     */
+    public BatchDeGroot(@UnmodifiableGraph DirectedGraph<V, ?> g, List<GraphState<V, Double>> initials,
+                        double epsilon, int maxIterations) {
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+
+        this.graph = CompressedGraph.of(g);
+
+        final int n = graph.vertexCount();
+        final int k = initials.size();
+        this.results = new double[k][];
+        this.iterations = new int[k];
+
+        // columns[j] is the index of the initial vector stored in column j of the block
+        int active = k;
+        final int[] columns = new int[k];
+        double[] x = new double[n * k];
+        double[] y = new double[n * k];
+        for (int j = 0; j < k; j++) {
+            columns[j] = j;
+            final double[] initial = graph.toArray(initials.get(j));
+            for (int i = 0; i < n; i++) {
+                x[i * k + j] = initial[i];
+            }
+        }
+
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double[] strengths = graph.outStrengths();
+        final boolean[] changed = new boolean[k];
+
+        int iteration = 0;
+        while (active > 0) {
+            iteration++;
+
+            // One pass over the edges updates every active column
+            for (int i = 0; i < n; i++) {
+                final int row = i * active;
+                for (int j = 0; j < active; j++) {
+                    y[row + j] = 0.0;
+                }
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    final double w = weights[e];
+                    final int source = targets[e] * active;
+                    for (int j = 0; j < active; j++) {
+                        y[row + j] += w * x[source + j];
+                    }
+                }
+                final double s = strengths[i];
+                for (int j = 0; j < active; j++) {
+                    y[row + j] /= s;
+                    if (Math.abs(y[row + j] - x[row + j]) > epsilon) {
+                        changed[j] = true;
+                    }
+                }
+            }
+
+            // Retire the converged columns and repack the rest
+            int remaining = 0;
+            for (int j = 0; j < active; j++) {
+                if (!changed[j] || iteration == maxIterations) {
+                    final double[] result = new double[n];
+                    for (int i = 0; i < n; i++) {
+                        result[i] = y[i * active + j];
+                    }
+                    results[columns[j]] = result;
+                    iterations[columns[j]] = iteration;
+                } else {
+                    columns[remaining++] = columns[j];
+                }
+            }
+            if (remaining < active) {
+                int r = 0;
+                for (int j = 0; j < active; j++) {
+                    if (changed[j] && iteration < maxIterations) {
+                        for (int i = 0; i < n; i++) {
+                            x[i * remaining + r] = y[i * active + j];
+                        }
+                        r++;
+                    }
+                }
+                assert r == remaining;
+            } else {
+                final double[] t = x;
+                x = y;
+                y = t;
+            }
+            for (int j = 0; j < active; j++) {
+                changed[j] = false;
+            }
+            active = remaining;
+        }
+    }
+
+    /**
+     * Construct an instance of {@link BatchDeGroot} with {@link #DEFAULT_MAX_ITERATIONS} and run the model on every
+     * initial opinion vector.
+     *
+     * @param g        the input {@link DirectedGraph}
+     * @param initials the initial opinion vectors
+     * @param epsilon  the precision of the convergence criterion
+     * @throws NullPointerException if any argument is {@code null} or if some initial vector is missing a vertex
+     */
+    public BatchDeGroot(@UnmodifiableGraph DirectedGraph<V, ?> g, List<GraphState<V, Double>> initials,
+                        double epsilon) {
+        this(g, initials, epsilon, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Convenience function to run the {@link DeGroot} model on many initial opinion vectors.
+     *
+     * @param g        the input {@link DirectedGraph}
+     * @param initials the initial opinion vectors
+     * @param epsilon  the precision of the convergence criterion
+     * @param <V>      the vertex type
+     * @return the final opinion vectors, in the order of {@code initials}
+     * @throws NullPointerException if any argument is {@code null} or if some initial vector is missing a vertex
+     */
+    public static <V> List<GraphState<V, Double>> execute(DirectedGraph<V, ?> g, List<GraphState<V, Double>> initials,
+                                                          double epsilon) {
+        return new BatchDeGroot<>(g, initials, epsilon).results();
+    }
+
+    /**
+     * Returns the final opinion vectors.
+     *
+     * @return an unmodifiable {@link List} of the final opinion vectors, in the order of the initial vectors
+     */
+    public List<GraphState<V, Double>> results() {
+        final List<GraphState<V, Double>> list = new ArrayList<>(results.length);
+        for (double[] result : results) {
+            list.add(graph.toGraphState(result));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the final opinion vector of the initial vector at the specified position.
+     *
+     * @param index the position of the initial vector
+     * @return the final opinion vector of the initial vector at position {@code index}
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public GraphState<V, Double> result(int index) {
+        return graph.toGraphState(results[index]);
+    }
+
+    /**
+     * Returns the number of iterations that the initial vector at the specified position needed to converge.
+     *
+     * @param index the position of the initial vector
+     * @return the number of iterations of the initial vector at position {@code index}
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int iterations(int index) {
+        return iterations[index];
+    }
+}
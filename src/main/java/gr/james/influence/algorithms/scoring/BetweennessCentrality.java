@@ -0,0 +1,183 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Implementation of the <a href="https://en.wikipedia.org/wiki/Betweenness_centrality">betweenness centrality</a>
+ * using the algorithm of Brandes.
+ * <p>
+ * The betweenness centrality of a vertex {@code v} is the sum over all ordered pairs of distinct vertices
+ * {@code (s, t)}, with {@code s != v} and {@code t != v}, of the fraction of shortest paths from {@code s} to
+ * {@code t} that pass through {@code v}. The edge weights are treated as distances, as in
+ * {@link gr.james.influence.algorithms.distance.DijkstraShortestPaths}. Because the pairs are ordered, the values on a
+ * graph with symmetric edges are twice the values of the undirected definition.
+ * <p>
+ * The algorithm performs a single source shortest paths search from every vertex followed by a dependency
+ * accumulation in reverse order of distance. If all the edges of the graph have the same weight, the search is a
+ * breadth first search, otherwise it is a Dijkstra search with an indexed binary heap. The predecessors of a vertex
+ * are not stored but recovered from its inbound edges during the accumulation, so that each worker uses state of size
+ * {@code O(V)} instead of {@code O(V+E)}.
+ * <p>
+ * The sources are distributed dynamically among a number of workers that run in parallel. Each worker accumulates the
+ * dependencies into its own array and the arrays are summed at the end. Because the order of the floating point
+ * additions depends on the scheduling, the results may differ in the last bits between executions.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per worker. The algorithm runs in time
+ * {@code O(VE)} on unweighted graphs and {@code O(VE lgV)} on weighted graphs.
+ *
+ * @param <V> the vertex type
+ * @see <a href="https://en.wikipedia.org/wiki/Betweenness_centrality">Betweenness centrality @ Wikipedia</a>
+ * @see "Brandes, Ulrik. A faster algorithm for betweenness centrality. Journal of Mathematical Sociology 25.2 (2001):
+ * 163-177."
+ */
+public class BetweennessCentrality<V> extends AbstractArrayScoring<V> {
+    private final CompressedGraph<V> graph;
+    private final double[] centrality;
+
+    /**
+     * Construct an instance of {@link BetweennessCentrality} and run the algorithm.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param parallelism the number of workers
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     */
+    public BetweennessCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, int parallelism) {
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        this.graph = CompressedGraph.of(g);
+
+        final int n = graph.vertexCount();
+        final int workers = Math.max(1, Math.min(parallelism, n));
+        final AtomicInteger nextSource = new AtomicInteger();
+
+        final double[][] results = IntStream.range(0, workers).parallel()
+                .mapToObj(w -> {
+                    final Worker worker = new Worker(graph);
+                    int s;
+                    while ((s = nextSource.getAndIncrement()) < n) {
+                        worker.accumulate(s);
+                    }
+                    return worker.centrality;
+                })
+                .toArray(double[][]::new);
+
+        this.centrality = new double[n];
+        for (double[] result : results) {
+            for (int i = 0; i < n; i++) {
+                centrality[i] += result[i];
+            }
+        }
+    }
+
+    /**
+     * Construct an instance of {@link BetweennessCentrality} with parallelism equal to the number of available
+     * processors and run the algorithm.
+     *
+     * @param g the input {@link DirectedGraph}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public BetweennessCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g) {
+        this(g, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Convenience function to calculate the betweenness centralities of all vertices in a graph.
+     *
+     * @param g   the input {@link DirectedGraph}
+     * @param <V> the vertex type
+     * @return the betweenness centralities of the vertices in {@code g}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g) {
+        return new BetweennessCentrality<>(g).scores();
+    }
+
+    /**
+     * Get the betweenness centrality of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the betweenness centrality of
+     * @return the betweenness centrality of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        return centrality[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the betweenness centralities of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the betweenness centralities of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(centrality);
+    }
+
+    @Override
+    CompressedGraph<V> graph() {
+        return graph;
+    }
+
+    @Override
+    double[] values() {
+        return centrality;
+    }
+
+    /**
+     * The state of a single worker, which is reused for all the sources that the worker processes.
+     */
+    private static final class Worker {
+        private final CompressedGraph<?> graph;
+        private final ShortestPathSearch search;
+        private final double[] centrality;
+        private final double[] dependency;
+
+        private Worker(CompressedGraph<?> graph) {
+            this.graph = graph;
+            this.search = new ShortestPathSearch(graph);
+            this.centrality = new double[graph.vertexCount()];
+            this.dependency = new double[graph.vertexCount()];
+        }
+
+        /**
+         * Accumulates the dependencies of the source {@code s} in reverse order of distance.
+         */
+        private void accumulate(int s) {
+            final int[] offsets = graph.inOffsets();
+            final int[] sources = graph.inSources();
+            search.search(s, -1);
+            for (int i = search.settled() - 1; i >= 0; i--) {
+                final int w = search.settled(i);
+                final double coefficient = (1 + dependency[w]) / search.paths(w);
+                for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                    if (search.isShortestPathEdge(k, w)) {
+                        final int v = sources[k];
+                        dependency[v] += search.paths(v) * coefficient;
+                    }
+                }
+                if (w != s) {
+                    centrality[w] += dependency[w];
+                }
+            }
+            for (int i = 0; i < search.settled(); i++) {
+                dependency[search.settled(i)] = 0;
+            }
+            search.reset();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import gr.james.influence.algorithms.distance.DijkstraShortestPaths;
 import gr.james.influence.annotation.UnmodifiableGraph;
 import gr.james.influence.exceptions.IllegalVertexException;
 import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.DoubleGraphState;
 import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
 
 /**
  * Implementation of the <a href="https://en.wikipedia.org/wiki/Closeness_centrality">closeness centrality</a>.
@@ -20,6 +22,7 @@ import gr.james.influence.util.collections.GraphState;
  *
  * @param <V> the vertex type
  * @see <a href="https://en.wikipedia.org/wiki/Closeness_centrality">Closeness centrality @ Wikipedia</a>
+ * @see DistanceAggregation
  */
 public class ClosenessCentrality<V> extends AbstractSingleVertexScoring<V, Double> {
     private final DirectedGraph<V, ?> g;
@@ -68,7 +71,8 @@ public class ClosenessCentrality<V> extends AbstractSingleVertexScoring<V, Doubl
      * Get the closeness centralities of all vertices.
      * <p>
      * The {@link GraphState} returned by this method will have as many entries as there are vertices in the graph. The
-     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}.
+     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}. The
+     * result is a {@link DoubleGraphState} over the vertices of the graph in iteration order.
      * <p>
      * This method is buffered and runs in time {@code O(V E lgV)}.
      *
@@ -78,4 +82,9 @@ public class ClosenessCentrality<V> extends AbstractSingleVertexScoring<V, Doubl
     public GraphState<V, Double> scores() {
         return super.scores();
     }
+
+    @Override
+    GraphState<V, Double> newScores(DirectedGraph<V, ?> g) {
+        return DoubleGraphState.create(VertexIndex.of(g.vertexSet()));
+    }
 }
@@ -0,0 +1,229 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link HITS} on primitive arrays.
+ * <p>
+ * This class performs the same iterations as {@link HITS} with the same initial state, normalization and convergence
+ * criterion, but operates on a {@link CompressedGraph} with two pairs of {@code double[]} arrays holding the previous
+ * and next authority and hub vectors. The iterations do not allocate any objects and the {@link HITS.HITSScore}
+ * objects are only created once when the scores are requested.
+ * <p>
+ * {@link HITS} relies on the periodicity detection of {@link gr.james.influence.algorithms.AbstractIterativeAlgorithm}
+ * to terminate when {@code epsilon} is negative. This class instead terminates when an iteration does not change the
+ * state at all or repeats an earlier state, which is how the iterations settle once they are within rounding error of
+ * the limit, or after a maximum number of iterations, which is reported by {@link #isConverged()}. Repetitions are
+ * detected with Brent's cycle detection, like in {@link gr.james.influence.algorithms.AbstractIterativeAlgorithm},
+ * which keeps one more copy of the state.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ * @see HITS
+ */
+public class CompressedHITS<V> implements VertexScoring<V, HITS.HITSScore> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private final CompressedGraph<V> graph;
+    private final double[] authority;
+    private final double[] hub;
+    private final int iterations;
+    private final boolean converged;
+
+    /**
+     * Construct an instance of {@link CompressedHITS} and run the algorithm.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param epsilon       the precision of the convergence criterion
+     * @param maxIterations the maximum number of iterations
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code maxIterations} is not positive
+     */
+    public CompressedHITS(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon, int maxIterations) {
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+
+        this.graph = CompressedGraph.of(g);
+
+        final int n = graph.vertexCount();
+        final int[] inOffsets = graph.inOffsets();
+        final int[] inSources = graph.inSources();
+        final double[] inWeights = graph.inWeights();
+        final int[] outOffsets = graph.outOffsets();
+        final int[] outTargets = graph.outTargets();
+        final double[] outWeights = graph.outWeights();
+
+        double[] authority = new double[n];
+        double[] hub = new double[n];
+        double[] nextAuthority = new double[n];
+        double[] nextHub = new double[n];
+        Arrays.fill(hub, 1.0);
+        // The state that the following states are compared with by Brent's cycle detection
+        final double[] tortoiseAuthority = authority.clone();
+        final double[] tortoiseHub = hub.clone();
+        int power = 1;
+        int lambda = 0;
+
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            double authoritySum = 0;
+            for (int v = 0; v < n; v++) {
+                double a = 0.0;
+                for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+                    a += inWeights[k] * hub[inSources[k]];
+                }
+                nextAuthority[v] = a;
+                authoritySum += a * a;
+            }
+
+            double hubSum = 0;
+            for (int v = 0; v < n; v++) {
+                double h = 0.0;
+                for (int k = outOffsets[v]; k < outOffsets[v + 1]; k++) {
+                    h += outWeights[k] * nextAuthority[outTargets[k]];
+                }
+                nextHub[v] = h;
+                hubSum += h * h;
+            }
+
+            authoritySum = Math.sqrt(authoritySum);
+            hubSum = Math.sqrt(hubSum);
+            converged = true;
+            boolean unchanged = true;
+            boolean repeated = true;
+            for (int v = 0; v < n; v++) {
+                nextAuthority[v] = nextAuthority[v] * n / authoritySum;
+                nextHub[v] = nextHub[v] * n / hubSum;
+                final double da = Math.abs(nextAuthority[v] - authority[v]);
+                final double dh = Math.abs(nextHub[v] - hub[v]);
+                if (da > epsilon || dh > epsilon) {
+                    converged = false;
+                }
+                if (da != 0 || dh != 0) {
+                    unchanged = false;
+                }
+                if (nextAuthority[v] != tortoiseAuthority[v] || nextHub[v] != tortoiseHub[v]) {
+                    repeated = false;
+                }
+            }
+            converged |= unchanged || repeated;
+            if (!converged && ++lambda == power) {
+                System.arraycopy(nextAuthority, 0, tortoiseAuthority, 0, n);
+                System.arraycopy(nextHub, 0, tortoiseHub, 0, n);
+                power *= 2;
+                lambda = 0;
+            }
+
+            double[] t = authority;
+            authority = nextAuthority;
+            nextAuthority = t;
+            t = hub;
+            hub = nextHub;
+            nextHub = t;
+            iterations++;
+        }
+
+        this.authority = authority;
+        this.hub = hub;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /**
+     * Construct an instance of {@link CompressedHITS} with {@link #DEFAULT_MAX_ITERATIONS} and run the algorithm.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the precision of the convergence criterion
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public CompressedHITS(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon) {
+        this(g, epsilon, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Convenience function to calculate the HITS scores of all vertices in a graph.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the precision of the convergence criterion
+     * @param <V>     the vertex type
+     * @return the HITS scores of the vertices in {@code g}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public static <V> GraphState<V, HITS.HITSScore> execute(DirectedGraph<V, ?> g, double epsilon) {
+        return new CompressedHITS<>(g, epsilon).scores();
+    }
+
+    /**
+     * Convenience function to calculate the HITS scores of all vertices in a graph with {@link HITS#DEFAULT_PRECISION}.
+     *
+     * @param g   the input {@link DirectedGraph}
+     * @param <V> the vertex type
+     * @return the HITS scores of the vertices in {@code g}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public static <V> GraphState<V, HITS.HITSScore> execute(DirectedGraph<V, ?> g) {
+        return new CompressedHITS<>(g, HITS.DEFAULT_PRECISION).scores();
+    }
+
+    /**
+     * Get the HITS score of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the HITS score of
+     * @return the HITS score of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public HITS.HITSScore score(V v) {
+        final int i = graph.indexOf(v);
+        return new HITS.HITSScore(authority[i], hub[i]);
+    }
+
+    /**
+     * Get the HITS scores of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the HITS scores of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, HITS.HITSScore> scores() {
+        final GraphState<V, HITS.HITSScore> scores = GraphState.create();
+        for (int i = 0; i < authority.length; i++) {
+            scores.put(graph.vertex(i), new HITS.HITSScore(authority[i], hub[i]));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns whether the iterations terminated before the maximum number of iterations.
+     * <p>
+     * The iterations terminate early if no component changes by more than {@code epsilon}, if an iteration does not
+     * change the state or if it repeats an earlier state.
+     *
+     * @return {@code true} if the iterations terminated before the maximum number of iterations, otherwise
+     * {@code false}
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Returns the number of iterations that the algorithm performed.
+     *
+     * @return the number of iterations that the algorithm performed
+     */
+    public int iterations() {
+        return iterations;
+    }
+}
@@ -1,18 +1,60 @@
 package gr.james.influence.algorithms.scoring;
 
 import gr.james.influence.algorithms.AbstractIterativeAlgorithm;
+import gr.james.influence.algorithms.ConvergencePolicy;
+import gr.james.influence.algorithms.StateCodec;
 import gr.james.influence.graph.DirectedEdge;
 import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.DoubleGraphState;
 import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
+
+import java.util.Map;
 
 public class DeGroot<V> extends AbstractIterativeAlgorithm<V, Double> {
     public static final double DEFAULT_PRECISION = -1.0;
 
-    private double epsilon;
+    private VertexIndex<V> index;
+
+    private DeGroot(DirectedGraph<V, ?> g, GraphState<V, Double> initial, ConvergencePolicy policy,
+                    VertexIndex<V> index) {
+        super(g, initial, policy);
+        this.index = index;
+    }
+
+    public DeGroot(DirectedGraph<V, ?> g, GraphState<V, Double> initial, ConvergencePolicy policy) {
+        this(g, initial, policy, VertexIndex.of(g.vertexSet()));
+    }
+
+    /**
+     * Construct an instance of {@link DeGroot} from opinions that were assigned to a different version of the graph.
+     * <p>
+     * Vertices of {@code g} that are missing from {@code initial} start with {@code defaultOpinion} and vertices of
+     * {@code initial} that are not in {@code g} are ignored. Unlike {@link PageRank}, the limit of the DeGroot model
+     * depends on the initial opinions, so {@code initial} is not a hint but the actual starting point of the process.
+     *
+     * @param g              the graph
+     * @param initial        the initial opinions
+     * @param defaultOpinion the initial opinion of the vertices that are missing from {@code initial}
+     * @param policy         the {@link ConvergencePolicy}
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public DeGroot(DirectedGraph<V, ?> g, Map<V, Double> initial, double defaultOpinion, ConvergencePolicy policy) {
+        this(g, VertexIndex.of(g.vertexSet()), initial, defaultOpinion, policy);
+    }
+
+    private DeGroot(DirectedGraph<V, ?> g, VertexIndex<V> index, Map<V, Double> initial, double defaultOpinion,
+                    ConvergencePolicy policy) {
+        this(g, DoubleGraphState.copyOf(index, initial, defaultOpinion), policy, index);
+    }
 
     public DeGroot(DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon) {
-        super(g, initial);
-        this.epsilon = epsilon;
+        this(g, initial, ConvergencePolicy.of(ConvergencePolicy.Norm.LINF, epsilon));
+    }
+
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, GraphState<V, Double> initial,
+                                                    ConvergencePolicy policy) {
+        return new DeGroot<>(g, initial, policy).run();
     }
 
     public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, GraphState<V, Double> initial, double epsilon) {
@@ -24,24 +66,21 @@ public class DeGroot<V> extends AbstractIterativeAlgorithm<V, Double> {
     }
 
     @Override
-    protected boolean converges(GraphState<V, Double> previous, GraphState<V, Double> next) {
-        for (V v : next.keySet()) {
-            if (Math.abs(next.get(v) - previous.get(v)) > epsilon) {
-                return false;
-            }
-        }
-        return true;
+    protected StateCodec<Double> stateCodec() {
+        return StateCodec.doubles();
     }
 
     @Override
     protected GraphState<V, Double> step(DirectedGraph<V, ?> g, GraphState<V, Double> previous) {
-        final GraphState<V, Double> nextState = GraphState.create();
+        final DoubleGraphState<V> nextState = DoubleGraphState.create(index);
         for (V v : g) {
             double w = 0.0;
             for (DirectedEdge<V, ?> e : g.outEdges(v)) {
                 w += e.weight() * previous.get(e.target());
             }
-            nextState.put(v, w / g.outStrength(v));
+            final double value = w / g.outStrength(v);
+            residual().add(previous.get(v), value);
+            nextState.set(v, value);
         }
         return nextState;
     }
@@ -5,7 +5,9 @@ import gr.james.influence.annotation.UnmodifiableGraph;
 import gr.james.influence.exceptions.IllegalVertexException;
 import gr.james.influence.graph.DirectedGraph;
 import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.DoubleGraphState;
 import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
 
 /**
  * Implementation of the decay centrality from "Social and Economic Networks", ch. 2.2.4.
@@ -20,6 +22,7 @@ import gr.james.influence.util.collections.GraphState;
  *
  * @param <V> the vertex type
  * @see "Matthew Jackson. Social and economic networks. Princeton university press, 2010. Chapter 2.2.4."
+ * @see DistanceAggregation
  */
 public class DecayCentrality<V> extends AbstractSingleVertexScoring<V, Double> {
     private final DirectedGraph<V, ?> g;
@@ -72,7 +75,8 @@ public class DecayCentrality<V> extends AbstractSingleVertexScoring<V, Double> {
      * Get the decay centralities of all vertices.
      * <p>
      * The {@link GraphState} returned by this method will have as many entries as there are vertices in the graph. The
-     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}.
+     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}. The
+     * result is a {@link DoubleGraphState} over the vertices of the graph in iteration order.
      * <p>
      * This method is buffered and runs in time {@code O(V E lgV)}.
      *
@@ -82,4 +86,9 @@ public class DecayCentrality<V> extends AbstractSingleVertexScoring<V, Double> {
     public GraphState<V, Double> scores() {
         return super.scores();
     }
+
+    @Override
+    GraphState<V, Double> newScores(DirectedGraph<V, ?> g) {
+        return DoubleGraphState.create(VertexIndex.of(g.vertexSet()));
+    }
 }
@@ -0,0 +1,164 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Computes several distance based centralities with a single shortest paths search per vertex.
+ * <p>
+ * {@link ClosenessCentrality}, {@link HarmonicCentrality} and {@link DecayCentrality} each run a
+ * {@link gr.james.influence.algorithms.distance.DijkstraShortestPaths} per vertex. This class instead runs one search
+ * per vertex on a {@link CompressedGraph} and feeds the distances to all the given {@link DistanceAggregator}
+ * instances. The search is a breadth first search if all the edges of the graph have the same weight, otherwise it is
+ * a Dijkstra search. The edge weights are treated as distances, as in the classes above, and the scores are the same.
+ * <p>
+ * The sources are distributed dynamically among a number of workers that run in parallel. Each worker writes the
+ * scores of its own sources, so that no merging is required.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per worker and {@code O(V)} per aggregator.
+ *
+ * @param <V> the vertex type
+ * @see DistanceAggregator
+ */
+public class DistanceAggregation<V> {
+    private final CompressedGraph<V> graph;
+    private final DistanceAggregator[] aggregators;
+    private final double[][] scores;
+
+    /**
+     * Construct an instance of {@link DistanceAggregation} and run the algorithm.
+     * <p>
+     * The algorithm runs in time {@code O(VE)} on unweighted graphs and {@code O(VE lgV)} on weighted graphs.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param parallelism the number of workers
+     * @param aggregators the aggregators
+     * @throws NullPointerException     if {@code g} or any of the {@code aggregators} is {@code null}
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     */
+    public DistanceAggregation(@UnmodifiableGraph DirectedGraph<V, ?> g, int parallelism,
+                               DistanceAggregator... aggregators) {
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+        for (DistanceAggregator aggregator : aggregators) {
+            Conditions.requireNonNull(aggregator);
+        }
+
+        this.graph = CompressedGraph.of(g);
+        this.aggregators = aggregators.clone();
+
+        final int n = graph.vertexCount();
+        this.scores = new double[aggregators.length][n];
+
+        // A breadth first search counts hops, which must be scaled by the common weight
+        final double unit = graph.isUnweighted() && graph.edgeCount() > 0 ? graph.outWeights()[0] : 1.0;
+        final double[] unreachable = new double[aggregators.length];
+        for (int a = 0; a < aggregators.length; a++) {
+            unreachable[a] = aggregators[a].term(Double.POSITIVE_INFINITY);
+        }
+
+        final int workers = Math.max(1, Math.min(parallelism, n));
+        final AtomicInteger nextSource = new AtomicInteger();
+        IntStream.range(0, workers).parallel().forEach(w -> {
+            final ShortestPathSearch search = new ShortestPathSearch(graph);
+            final double[] sums = new double[this.aggregators.length];
+            int s;
+            while ((s = nextSource.getAndIncrement()) < n) {
+                search.search(s, -1);
+                for (int i = 1; i < search.settled(); i++) {
+                    final double distance = search.distance(search.settled(i)) * unit;
+                    for (int a = 0; a < sums.length; a++) {
+                        sums[a] += this.aggregators[a].term(distance);
+                    }
+                }
+                final int missing = n - search.settled();
+                for (int a = 0; a < sums.length; a++) {
+                    if (missing > 0) {
+                        sums[a] += missing * unreachable[a];
+                    }
+                    scores[a][s] = this.aggregators[a].finish(sums[a], n);
+                    sums[a] = 0;
+                }
+                search.reset();
+            }
+        });
+    }
+
+    /**
+     * Construct an instance of {@link DistanceAggregation} with parallelism equal to the number of available processors
+     * and run the algorithm.
+     *
+     * @param g           the input {@link DirectedGraph}
+     * @param aggregators the aggregators
+     * @throws NullPointerException if {@code g} or any of the {@code aggregators} is {@code null}
+     */
+    public DistanceAggregation(@UnmodifiableGraph DirectedGraph<V, ?> g, DistanceAggregator... aggregators) {
+        this(g, Runtime.getRuntime().availableProcessors(), aggregators);
+    }
+
+    private int indexOf(DistanceAggregator aggregator) {
+        for (int a = 0; a < aggregators.length; a++) {
+            if (aggregators[a] == aggregator) {
+                return a;
+            }
+        }
+        throw new IllegalArgumentException("aggregator was not given to this instance");
+    }
+
+    /**
+     * Get the score of vertex {@code v} for the given aggregator.
+     * <p>
+     * This method runs in time proportional to the number of aggregators.
+     *
+     * @param aggregator the aggregator, which must be one of the aggregators given to the constructor
+     * @param v          the vertex to get the score of
+     * @return the score of vertex {@code v} for {@code aggregator}
+     * @throws NullPointerException     if {@code v} is {@code null}
+     * @throws IllegalVertexException   if {@code v} is not in the graph
+     * @throws IllegalArgumentException if {@code aggregator} was not given to the constructor
+     */
+    public double score(DistanceAggregator aggregator, V v) {
+        return scores[indexOf(aggregator)][graph.indexOf(v)];
+    }
+
+    /**
+     * Get the scores of all vertices for the given aggregator.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @param aggregator the aggregator, which must be one of the aggregators given to the constructor
+     * @return a {@link GraphState} object holding the scores of all vertices for {@code aggregator}
+     * @throws IllegalArgumentException if {@code aggregator} was not given to the constructor
+     */
+    public GraphState<V, Double> scores(DistanceAggregator aggregator) {
+        return graph.toGraphState(scores[indexOf(aggregator)]);
+    }
+
+    /**
+     * Returns a {@link VertexScoring} view of the scores for the given aggregator.
+     *
+     * @param aggregator the aggregator, which must be one of the aggregators given to the constructor
+     * @return a {@link VertexScoring} view of the scores for {@code aggregator}
+     * @throws IllegalArgumentException if {@code aggregator} was not given to the constructor
+     */
+    public VertexScoring<V, Double> scoring(DistanceAggregator aggregator) {
+        final double[] values = scores[indexOf(aggregator)];
+        return new VertexScoring<V, Double>() {
+            @Override
+            public Double score(V v) {
+                return values[graph.indexOf(v)];
+            }
+
+            @Override
+            public GraphState<V, Double> scores() {
+                return graph.toGraphState(values);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.util.Conditions;
+
+/**
+ * Represents a centrality that is an aggregate of the distances from a vertex to all other vertices of the graph.
+ * <p>
+ * The score of a vertex {@code v} is {@code finish(sum(term(d(v, w))), V)} over all vertices {@code w != v}, where
+ * {@code d(v, w)} is {@link Double#POSITIVE_INFINITY} if {@code w} is not reachable from {@code v}. Aggregators are
+ * used by {@link DistanceAggregation} to compute several centralities with a single traversal per vertex.
+ *
+ * @see DistanceAggregation
+ */
+public interface DistanceAggregator {
+    /**
+     * The aggregator of {@link ClosenessCentrality}, which is {@code V / farness}.
+     *
+     * @return the aggregator of {@link ClosenessCentrality}
+     */
+    static DistanceAggregator closeness() {
+        return new DistanceAggregator() {
+            @Override
+            public double term(double distance) {
+                return distance;
+            }
+
+            @Override
+            public double finish(double sum, int vertexCount) {
+                return vertexCount / sum;
+            }
+        };
+    }
+
+    /**
+     * The aggregator of {@link HarmonicCentrality}, which is the sum of the reciprocals of the distances.
+     *
+     * @return the aggregator of {@link HarmonicCentrality}
+     */
+    static DistanceAggregator harmonic() {
+        return distance -> 1 / distance;
+    }
+
+    /**
+     * The aggregator of {@link DecayCentrality}, which is the sum of the powers of {@code decay} to the distances.
+     *
+     * @param decay the decay value in (0,1)
+     * @return the aggregator of {@link DecayCentrality}
+     * @throws IllegalArgumentException if {@code decay} is not in {@code (0,1)}
+     */
+    static DistanceAggregator decay(double decay) {
+        Conditions.requireArgument(decay > 0 && decay < 1, "decay argument must be in (0,1)");
+        return distance -> Math.pow(decay, distance);
+    }
+
+    /**
+     * Returns the contribution of a vertex at the given distance to the sum.
+     *
+     * @param distance the distance, which may be {@link Double#POSITIVE_INFINITY}
+     * @return the contribution of a vertex at distance {@code distance}
+     */
+    double term(double distance);
+
+    /**
+     * Returns the score of a vertex given the sum of its terms.
+     * <p>
+     * The default implementation returns {@code sum}.
+     *
+     * @param sum         the sum of the terms of all other vertices
+     * @param vertexCount the number of vertices in the graph
+     * @return the score of the vertex
+     */
+    default double finish(double sum, int vertexCount) {
+        return sum;
+    }
+}
@@ -0,0 +1,343 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the <a href="https://en.wikipedia.org/wiki/Eigenvector_centrality">eigenvector centrality</a>.
+ * <p>
+ * The eigenvector centrality {@code x} is the dominant eigenvector of the transposed weight matrix {@code A'} of the
+ * graph, namely {@code lambda x(v) = sum(w(u, v) x(u))} for all inbound edges {@code (u, v)}. The vector is normalized
+ * so that the centralities have an average of 1, as in {@link PageRank}.
+ * <p>
+ * Unlike {@code PageRank.execute(g, 1.0)}, which normalizes every edge weight by the out strength of its source, this
+ * class uses the raw edge weights. The computation runs on primitive arrays using one of the following
+ * {@link Method methods} on the shifted matrix {@code A' + I}, which has the same eigenvectors and whose dominant
+ * eigenvalue is strictly dominant even on periodic graphs:
+ * <ul>
+ * <li>{@link Method#POWER}: the power method, until no centrality changes by more than {@code epsilon}.</li>
+ * <li>{@link Method#ARNOLDI}: the explicitly restarted Arnoldi method, which extracts the dominant Ritz vector of a
+ * small Krylov subspace on each restart, until the residual of every vertex is at most {@code epsilon}. This method
+ * usually requires much fewer passes over the edges on graphs with a small spectral gap.</li>
+ * </ul>
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ * @see <a href="https://en.wikipedia.org/wiki/Eigenvector_centrality">Eigenvector centrality @ Wikipedia</a>
+ * @see KatzCentrality
+ */
+public class EigenvectorCentrality<V> extends AbstractArrayScoring<V> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+    public static final int KRYLOV_DIMENSION = 20;
+
+    private final CompressedGraph<V> graph;
+    private final double epsilon;
+    private final int maxIterations;
+    private final double[] centrality;
+    private double eigenvalue;
+    private int iterations;
+
+    /**
+     * Construct an instance of {@link EigenvectorCentrality} and run the algorithm.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param epsilon       the precision of the convergence criterion
+     * @param method        the method to use
+     * @param maxIterations the maximum number of passes over the edges of the graph
+     * @throws NullPointerException     if {@code g} or {@code method} is {@code null}
+     * @throws IllegalArgumentException if {@code maxIterations} is not positive
+     */
+    public EigenvectorCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon, Method method,
+                                 int maxIterations) {
+        this(CompressedGraph.of(g), epsilon, method, maxIterations);
+    }
+
+    EigenvectorCentrality(CompressedGraph<V> graph, double epsilon, Method method, int maxIterations) {
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+        Conditions.requireNonNull(method);
+
+        this.graph = graph;
+        this.epsilon = epsilon;
+        this.maxIterations = maxIterations;
+        this.iterations = 0;
+
+        switch (method) {
+            case POWER:
+                this.centrality = power();
+                break;
+            case ARNOLDI:
+                this.centrality = arnoldi();
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Construct an instance of {@link EigenvectorCentrality} using the {@link Method#POWER power method} and
+     * {@link #DEFAULT_MAX_ITERATIONS} and run the algorithm.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the precision of the convergence criterion
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public EigenvectorCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon) {
+        this(g, epsilon, Method.POWER, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Convenience function to calculate the eigenvector centralities of all vertices in a graph.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the precision of the convergence criterion
+     * @param <V>     the vertex type
+     * @return the eigenvector centralities of the vertices in {@code g}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double epsilon) {
+        return new EigenvectorCentrality<>(g, epsilon).scores();
+    }
+
+    /**
+     * Computes {@code y = A' x + x}.
+     */
+    private static void multiplyShifted(CompressedGraph<?> graph, double[] x, double[] y) {
+        final int[] offsets = graph.inOffsets();
+        final int[] sources = graph.inSources();
+        final double[] weights = graph.inWeights();
+        for (int v = 0; v < y.length; v++) {
+            double s = x[v];
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                s += weights[k] * x[sources[k]];
+            }
+            y[v] = s;
+        }
+    }
+
+    private static double normalize(double[] x) {
+        double sum = 0;
+        for (double v : x) {
+            sum += v;
+        }
+        final double factor = x.length / sum;
+        for (int i = 0; i < x.length; i++) {
+            x[i] *= factor;
+        }
+        return sum;
+    }
+
+    private double[] power() {
+        final int n = graph.vertexCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Arrays.fill(x, 1.0);
+        double change = Double.POSITIVE_INFINITY;
+        while (change > epsilon && iterations < maxIterations) {
+            multiplyShifted(graph, x, y);
+            iterations++;
+            // x has an average of 1 so the sum of y over the sum of x is the shifted eigenvalue estimate
+            eigenvalue = normalize(y) / n - 1;
+            change = 0;
+            for (int i = 0; i < n; i++) {
+                change = Math.max(change, Math.abs(y[i] - x[i]));
+            }
+            final double[] t = x;
+            x = y;
+            y = t;
+        }
+        return x;
+    }
+
+    private double[] arnoldi() {
+        final int n = graph.vertexCount();
+        final int m = Math.max(1, Math.min(n, KRYLOV_DIMENSION));
+        final double[][] q = new double[m + 1][n];
+        final double[][] h = new double[m + 1][m];
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        Arrays.fill(x, 1.0);
+        if (n == 0) {
+            return x;
+        }
+
+        while (iterations < maxIterations) {
+            // Build the Krylov basis of A' + I starting from the current estimate
+            double norm = Math.sqrt(dot(x, x));
+            for (int i = 0; i < n; i++) {
+                q[0][i] = x[i] / norm;
+            }
+            for (double[] row : h) {
+                Arrays.fill(row, 0.0);
+            }
+            int k = m;
+            for (int j = 0; j < m; j++) {
+                final double[] w = q[j + 1];
+                multiplyShifted(graph, q[j], w);
+                iterations++;
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int i = 0; i <= j; i++) {
+                        final double c = dot(q[i], w);
+                        h[i][j] += c;
+                        for (int l = 0; l < n; l++) {
+                            w[l] -= c * q[i][l];
+                        }
+                    }
+                }
+                h[j + 1][j] = Math.sqrt(dot(w, w));
+                if (h[j + 1][j] <= 1.0e-14 * Math.abs(h[j][j]) || iterations >= maxIterations) {
+                    k = j + 1;
+                    break;
+                }
+                for (int l = 0; l < n; l++) {
+                    w[l] /= h[j + 1][j];
+                }
+            }
+
+            // The dominant Ritz vector is the dominant eigenvector of the small Hessenberg matrix
+            final double[] s = dominantEigenvector(h, k);
+            Arrays.fill(x, 0.0);
+            for (int j = 0; j < k; j++) {
+                for (int l = 0; l < n; l++) {
+                    x[l] += s[j] * q[j][l];
+                }
+            }
+            normalize(x);
+
+            // Check the residual of the normalized estimate
+            multiplyShifted(graph, x, y);
+            iterations++;
+            final double shifted = normalize(y);
+            eigenvalue = shifted / n - 1;
+            double residual = 0;
+            for (int i = 0; i < n; i++) {
+                residual = Math.max(residual, Math.abs(y[i] - x[i]));
+            }
+            System.arraycopy(y, 0, x, 0, n);
+            if (residual <= epsilon) {
+                break;
+            }
+        }
+        return x;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+
+    /**
+     * Power iterations on the leading {@code k x k} block of {@code h}, which is cheap because {@code k} is small.
+     */
+    private static double[] dominantEigenvector(double[][] h, int k) {
+        double[] s = new double[k];
+        double[] t = new double[k];
+        s[0] = 1.0;
+        for (int iteration = 0; iteration < 100000; iteration++) {
+            double norm = 0;
+            for (int i = 0; i < k; i++) {
+                double sum = 0;
+                for (int j = 0; j < k; j++) {
+                    sum += h[i][j] * s[j];
+                }
+                t[i] = sum;
+                norm += sum * sum;
+            }
+            norm = Math.sqrt(norm);
+            if (norm == 0) {
+                break;
+            }
+            double change = 0;
+            for (int i = 0; i < k; i++) {
+                t[i] /= norm;
+                change = Math.max(change, Math.abs(t[i] - s[i]));
+            }
+            final double[] u = s;
+            s = t;
+            t = u;
+            if (change <= 1.0e-15) {
+                break;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Get the eigenvector centrality of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the eigenvector centrality of
+     * @return the eigenvector centrality of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        return centrality[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the eigenvector centralities of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the eigenvector centralities of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(centrality);
+    }
+
+    @Override
+    CompressedGraph<V> graph() {
+        return graph;
+    }
+
+    @Override
+    double[] values() {
+        return centrality;
+    }
+
+    /**
+     * Returns the estimate of the dominant eigenvalue of the weight matrix, which is its spectral radius.
+     *
+     * @return the estimate of the dominant eigenvalue of the weight matrix
+     */
+    public double eigenvalue() {
+        return eigenvalue;
+    }
+
+    /**
+     * Returns the number of passes over the edges of the graph that the algorithm performed.
+     *
+     * @return the number of passes over the edges of the graph that the algorithm performed
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * The method of {@link EigenvectorCentrality}.
+     */
+    public enum Method {
+        /**
+         * The power method.
+         */
+        POWER,
+
+        /**
+         * The explicitly restarted Arnoldi method.
+         */
+        ARNOLDI
+    }
+}
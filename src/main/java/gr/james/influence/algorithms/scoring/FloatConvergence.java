@@ -0,0 +1,58 @@
+package gr.james.influence.algorithms.scoring;
+
+/**
+ * The stopping rule of the single precision engines {@link FloatPageRank} and {@link FloatDeGroot}.
+ * <p>
+ * A single precision iteration rarely settles on a fixed point; once the state is within rounding error of the limit
+ * it usually wanders or cycles in the last bits. This rule therefore stops when any of the following holds:
+ * <ul>
+ * <li>No element changes by more than {@code epsilon}, where {@code epsilon} is clamped from below to the spacing of
+ * floats at the largest element of the state, which is the finest change a float state can resolve.</li>
+ * <li>The state equals the state two iterations back, which detects fixed points and cycles of period 2.</li>
+ * <li>The largest change has not decreased below its minimum for {@link #PATIENCE} consecutive iterations.</li>
+ * </ul>
+ */
+final class FloatConvergence {
+    static final int PATIENCE = 20;
+
+    private final double epsilon;
+    private final float[] previous;
+    private boolean hasPrevious;
+    private float best = Float.POSITIVE_INFINITY;
+    private int stalled;
+
+    FloatConvergence(double epsilon, int n) {
+        this.epsilon = epsilon;
+        this.previous = new float[n];
+    }
+
+    /**
+     * Tests whether the iteration from {@code x} to {@code y} satisfies the stopping rule.
+     *
+     * @param x the state before the iteration, which is retained for the cycle detection
+     * @param y the state after the iteration
+     * @return {@code true} if the iterations should stop
+     */
+    boolean converged(float[] x, float[] y) {
+        float residual = 0;
+        float scale = 0;
+        boolean cycle = hasPrevious;
+        for (int i = 0; i < y.length; i++) {
+            residual = Math.max(residual, Math.abs(y[i] - x[i]));
+            scale = Math.max(scale, Math.abs(y[i]));
+            cycle &= y[i] == previous[i];
+        }
+        System.arraycopy(x, 0, previous, 0, x.length);
+        hasPrevious = true;
+        if (residual <= Math.max(epsilon, Math.ulp(scale)) || cycle) {
+            return true;
+        }
+        if (residual < best) {
+            best = residual;
+            stalled = 0;
+        } else {
+            stalled++;
+        }
+        return stalled >= PATIENCE;
+    }
+}
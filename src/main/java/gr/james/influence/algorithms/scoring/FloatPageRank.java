@@ -0,0 +1,165 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.DoubleGraphState;
+import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
+
+import java.util.Arrays;
+
+/**
+ * Single precision implementation of {@link PageRank} on primitive arrays.
+ * <p>
+ * This class performs the same iterations as {@link PageRank} with the same initial state, but stores the state
+ * vectors and the transition weights {@code w(u,v) / outStrength(u)} as {@code float[]} next to the {@code int[]}
+ * sources of the inbound edges of a {@link CompressedGraph}. Each iteration is a sparse matrix-vector product whose
+ * memory traffic is about half of the equivalent double precision product, which is the bottleneck on large graphs.
+ * The products of each vertex are summed according to an {@link Accumulation} strategy.
+ * <p>
+ * The scores have about 7 significant digits, which is sufficient for ranking, and an {@code epsilon} below the spacing
+ * of floats at the largest score has no effect. The iterations stop when no score changes by more than
+ * {@code epsilon}, when the state repeats with period 1 or 2, when the largest change stops decreasing or after a
+ * maximum number of iterations, see {@link FloatConvergence}. The scores are converted back to {@code double} when
+ * they are requested.
+ * <p>
+ * This class uses state of size {@code O(V)} after construction and {@code O(V+E)} during construction.
+ *
+ * @param <V> the vertex type
+ * @see PageRank
+ */
+public class FloatPageRank<V> implements VertexScoring<V, Double> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private final VertexIndex<V> index;
+    private final float[] scores;
+    private final int iterations;
+
+    /**
+     * Construct an instance of {@link FloatPageRank} and run the algorithm.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1]}
+     * @param epsilon       the precision of the convergence criterion
+     * @param maxIterations the maximum number of iterations
+     * @param accumulation  the {@link Accumulation} strategy
+     * @throws NullPointerException     if {@code g} or {@code accumulation} is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1]} or if {@code maxIterations}
+     *                                  is not positive
+     */
+    public FloatPageRank(@UnmodifiableGraph DirectedGraph<V, ?> g, double dampingFactor, double epsilon,
+                         int maxIterations, Accumulation accumulation) {
+        Conditions.requireArgument(dampingFactor >= 0 && dampingFactor <= 1,
+                "dampingFactor must be in [0,1], got %f", dampingFactor);
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+        Conditions.requireNonNull(accumulation);
+
+        final CompressedGraph<V> graph = CompressedGraph.of(g);
+        this.index = graph.index();
+
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.inOffsets();
+        final int[] sources = graph.inSources();
+        final double[] inWeights = graph.inWeights();
+        final double[] strengths = graph.outStrengths();
+        final float[] weights = new float[graph.edgeCount()];
+        for (int k = 0; k < weights.length; k++) {
+            weights[k] = (float) (inWeights[k] / strengths[sources[k]]);
+        }
+
+        final float damping = (float) dampingFactor;
+        final float teleport = (float) (1 - dampingFactor);
+        float[] x = new float[n];
+        float[] y = new float[n];
+        Arrays.fill(x, 1.0f);
+
+        final FloatConvergence convergence = new FloatConvergence(epsilon, n);
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            for (int v = 0; v < n; v++) {
+                y[v] = teleport + damping * accumulation.dot(offsets[v], offsets[v + 1], sources, weights, x);
+            }
+            converged = convergence.converged(x, y);
+            final float[] t = x;
+            x = y;
+            y = t;
+            iterations++;
+        }
+
+        this.scores = x;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Construct an instance of {@link FloatPageRank} with {@link #DEFAULT_MAX_ITERATIONS} and
+     * {@link Accumulation#DOUBLE} and run the algorithm.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1]}
+     * @param epsilon       the precision of the convergence criterion
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1]}
+     */
+    public FloatPageRank(@UnmodifiableGraph DirectedGraph<V, ?> g, double dampingFactor, double epsilon) {
+        this(g, dampingFactor, epsilon, DEFAULT_MAX_ITERATIONS, Accumulation.DOUBLE);
+    }
+
+    /**
+     * Convenience function to calculate the single precision PageRank scores of all vertices in a graph.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1]}
+     * @param epsilon       the precision of the convergence criterion
+     * @param <V>           the vertex type
+     * @return the PageRank scores of the vertices in {@code g}
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1]}
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double dampingFactor, double epsilon) {
+        return new FloatPageRank<>(g, dampingFactor, epsilon).scores();
+    }
+
+    /**
+     * Get the PageRank score of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the PageRank score of
+     * @return the PageRank score of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        final int i = index.indexOf(Conditions.requireNonNull(v));
+        if (i < 0) {
+            throw new IllegalVertexException();
+        }
+        return (double) scores[i];
+    }
+
+    /**
+     * Get the PageRank scores of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link DoubleGraphState} holding the PageRank scores of all vertices in the graph
+     */
+    @Override
+    public DoubleGraphState<V> scores() {
+        return FloatDeGroot.toGraphState(index, scores);
+    }
+
+    /**
+     * Returns the number of iterations that the algorithm performed.
+     *
+     * @return the number of iterations that the algorithm performed
+     */
+    public int iterations() {
+        return iterations;
+    }
+}
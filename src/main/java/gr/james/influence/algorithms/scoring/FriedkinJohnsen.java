@@ -0,0 +1,343 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Set;
+
+/**
+ * Implementation of the Friedkin-Johnsen opinion dynamics model.
+ * <p>
+ * In the Friedkin-Johnsen model every agent {@code i} has a susceptibility coefficient {@code lambda(i)} in
+ * {@code [0,1]} and remains anchored to its initial opinion {@code x0(i)}. On each step the opinions are updated as
+ * <pre><code>
+ * x(i) = lambda(i) * (W x)(i) + (1 - lambda(i)) * x0(i)
+ * </code></pre>
+ * where {@code W} is the row normalized weight matrix of the graph, as in {@link DeGroot}. A susceptibility of 1
+ * reduces the agent to a {@link DeGroot} agent while a susceptibility of 0 makes the agent fully stubborn. Vertices
+ * without outbound edges keep their initial opinion.
+ * <p>
+ * The equilibrium of the model is the solution of the sparse linear system {@code (I - L W) x = (I - L) x0}, where
+ * {@code L} is the diagonal matrix of the susceptibilities. This class computes it on primitive arrays using one of
+ * the following {@link Mode modes}:
+ * <ul>
+ * <li>{@link Mode#ITERATIVE}: the update rule of the model applied until no opinion changes by more than
+ * {@code epsilon}.</li>
+ * <li>{@link Mode#JACOBI}: Jacobi iterations on the linear system, which differ from the update rule in that they
+ * solve for the self loop weights directly.</li>
+ * <li>{@link Mode#BICGSTAB}: the BiCGSTAB Krylov solver on the linear system until the residual of every equation is
+ * at most {@code epsilon}. The conjugate gradient method is not applicable because the system is not symmetric.</li>
+ * </ul>
+ * The linear solver modes require that the system is nonsingular, which is the case if and only if every closed
+ * communicating class of the graph (see {@link Graphs#getStubbornComponents(DirectedGraph)}) contains an agent with
+ * susceptibility less than 1.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ * @see "Friedkin, Noah E., and Eugene C. Johnsen. Social influence and opinions. Journal of Mathematical Sociology
+ * 15.3-4 (1990): 193-206."
+ */
+public class FriedkinJohnsen<V> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private final CompressedGraph<V> graph;
+    private final double[] lambda;
+    private final double[] x0;
+    private final double epsilon;
+    private final int maxIterations;
+    private final double[] result;
+    private int iterations;
+
+    /**
+     * Construct an instance of {@link FriedkinJohnsen} and compute the equilibrium.
+     *
+     * @param g              the input {@link DirectedGraph}
+     * @param initial        the initial opinion vector
+     * @param susceptibility the susceptibility of each vertex in {@code [0,1]}
+     * @param epsilon        the precision of the result
+     * @param mode           the solver mode
+     * @param maxIterations  the maximum number of iterations
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} or {@code susceptibility}
+     *                                  is missing a vertex
+     * @throws IllegalArgumentException if a susceptibility is not in {@code [0,1]}, if {@code maxIterations} is not
+     *                                  positive or if {@code mode} is a linear solver and the system is singular
+     */
+    public FriedkinJohnsen(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial,
+                           GraphState<V, Double> susceptibility, double epsilon, Mode mode, int maxIterations) {
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+        Conditions.requireNonNull(mode);
+
+        this.graph = CompressedGraph.of(g);
+        this.x0 = graph.toArray(initial);
+        this.lambda = graph.toArray(susceptibility);
+        this.epsilon = epsilon;
+        this.maxIterations = maxIterations;
+        this.iterations = 0;
+
+        for (int i = 0; i < lambda.length; i++) {
+            Conditions.requireArgument(lambda[i] >= 0 && lambda[i] <= 1,
+                    "susceptibility must be in [0,1], got %f", lambda[i]);
+        }
+
+        if (mode != Mode.ITERATIVE) {
+            for (Set<V> component : Graphs.getStubbornComponents(g)) {
+                boolean anchored = false;
+                for (V v : component) {
+                    final int i = graph.indexOf(v);
+                    if (lambda[i] < 1 || graph.outStrengths()[i] == 0) {
+                        anchored = true;
+                        break;
+                    }
+                }
+                Conditions.requireArgument(anchored,
+                        "every closed class must contain an agent with susceptibility less than 1");
+            }
+        }
+
+        switch (mode) {
+            case ITERATIVE:
+                this.result = iterate(false);
+                break;
+            case JACOBI:
+                this.result = iterate(true);
+                break;
+            case BICGSTAB:
+                this.result = bicgstab();
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Construct an instance of {@link FriedkinJohnsen} with {@link #DEFAULT_MAX_ITERATIONS} and compute the
+     * equilibrium.
+     *
+     * @param g              the input {@link DirectedGraph}
+     * @param initial        the initial opinion vector
+     * @param susceptibility the susceptibility of each vertex in {@code [0,1]}
+     * @param epsilon        the precision of the result
+     * @param mode           the solver mode
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} or {@code susceptibility}
+     *                                  is missing a vertex
+     * @throws IllegalArgumentException if a susceptibility is not in {@code [0,1]} or if {@code mode} is a linear
+     *                                  solver and the system is singular
+     */
+    public FriedkinJohnsen(@UnmodifiableGraph DirectedGraph<V, ?> g, GraphState<V, Double> initial,
+                           GraphState<V, Double> susceptibility, double epsilon, Mode mode) {
+        this(g, initial, susceptibility, epsilon, mode, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Convenience function to compute the equilibrium of the Friedkin-Johnsen model with the same susceptibility for
+     * every vertex.
+     *
+     * @param g              the input {@link DirectedGraph}
+     * @param initial        the initial opinion vector
+     * @param susceptibility the susceptibility of all vertices in {@code [0,1]}
+     * @param epsilon        the precision of the result
+     * @param mode           the solver mode
+     * @param <V>            the vertex type
+     * @return the equilibrium opinion vector
+     * @throws NullPointerException     if any argument is {@code null} or if {@code initial} is missing a vertex
+     * @throws IllegalArgumentException if {@code susceptibility} is not in {@code [0,1]} or if {@code mode} is a
+     *                                  linear solver and the system is singular
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, GraphState<V, Double> initial,
+                                                    double susceptibility, double epsilon, Mode mode) {
+        return new FriedkinJohnsen<>(g, initial, GraphState.create(g.vertexSet(), susceptibility), epsilon, mode)
+                .result();
+    }
+
+    /**
+     * Returns the equilibrium opinion vector.
+     *
+     * @return a new {@link GraphState} holding the equilibrium opinion of every vertex
+     */
+    public GraphState<V, Double> result() {
+        return graph.toGraphState(result);
+    }
+
+    /**
+     * Returns the number of iterations that the solver performed.
+     *
+     * @return the number of iterations that the solver performed
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    private double[] iterate(boolean jacobi) {
+        final int n = x0.length;
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double[] strengths = graph.outStrengths();
+
+        double[] x = x0.clone();
+        double[] y = new double[n];
+        double change = Double.POSITIVE_INFINITY;
+        while (change > epsilon && iterations < maxIterations) {
+            change = 0;
+            for (int i = 0; i < n; i++) {
+                if (strengths[i] == 0) {
+                    y[i] = x0[i];
+                    continue;
+                }
+                double w = 0.0;
+                double self = 0.0;
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    if (jacobi && targets[k] == i) {
+                        self = weights[k];
+                    } else {
+                        w += weights[k] * x[targets[k]];
+                    }
+                }
+                y[i] = (lambda[i] * w / strengths[i] + (1 - lambda[i]) * x0[i]) /
+                        (1 - lambda[i] * self / strengths[i]);
+                change = Math.max(change, Math.abs(y[i] - x[i]));
+            }
+            final double[] t = x;
+            x = y;
+            y = t;
+            iterations++;
+        }
+        return x;
+    }
+
+    /**
+     * Computes {@code y = (I - L W) x}.
+     */
+    private void multiply(double[] x, double[] y) {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double[] strengths = graph.outStrengths();
+        for (int i = 0; i < y.length; i++) {
+            if (strengths[i] == 0) {
+                y[i] = x[i];
+                continue;
+            }
+            double w = 0.0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                w += weights[k] * x[targets[k]];
+            }
+            y[i] = x[i] - lambda[i] * w / strengths[i];
+        }
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+
+    private static double norm(double[] a) {
+        double max = 0;
+        for (double x : a) {
+            max = Math.max(max, Math.abs(x));
+        }
+        return max;
+    }
+
+    private double[] bicgstab() {
+        final int n = x0.length;
+        final double[] strengths = graph.outStrengths();
+
+        final double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = strengths[i] == 0 ? x0[i] : (1 - lambda[i]) * x0[i];
+        }
+
+        final double[] x = x0.clone();
+        final double[] r = new double[n];
+        final double[] rHat = new double[n];
+        final double[] p = new double[n];
+        final double[] v = new double[n];
+        final double[] s = new double[n];
+        final double[] t = new double[n];
+
+        multiply(x, r);
+        for (int i = 0; i < n; i++) {
+            r[i] = b[i] - r[i];
+        }
+        System.arraycopy(r, 0, rHat, 0, n);
+        double rho = 1;
+        double alpha = 1;
+        double omega = 1;
+
+        while (norm(r) > epsilon && iterations < maxIterations) {
+            iterations++;
+            final double rhoNext = dot(rHat, r);
+            if (rhoNext == 0) {
+                // Breakdown, restart with the current residual as the shadow residual
+                System.arraycopy(r, 0, rHat, 0, n);
+                rho = alpha = omega = 1;
+                for (int i = 0; i < n; i++) {
+                    p[i] = v[i] = 0;
+                }
+                continue;
+            }
+            final double beta = (rhoNext / rho) * (alpha / omega);
+            rho = rhoNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * (p[i] - omega * v[i]);
+            }
+            multiply(p, v);
+            alpha = rho / dot(rHat, v);
+            for (int i = 0; i < n; i++) {
+                s[i] = r[i] - alpha * v[i];
+            }
+            if (norm(s) <= epsilon) {
+                for (int i = 0; i < n; i++) {
+                    x[i] += alpha * p[i];
+                    r[i] = s[i];
+                }
+                break;
+            }
+            multiply(s, t);
+            final double tt = dot(t, t);
+            omega = tt == 0 ? 0 : dot(t, s) / tt;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i] + omega * s[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            if (omega == 0) {
+                // Stagnation, restart the shadow residual on the next iteration
+                rho = alpha = omega = 1;
+                System.arraycopy(r, 0, rHat, 0, n);
+                for (int i = 0; i < n; i++) {
+                    p[i] = v[i] = 0;
+                }
+            }
+        }
+        return x;
+    }
+
+    /**
+     * The solver mode of {@link FriedkinJohnsen}.
+     */
+    public enum Mode {
+        /**
+         * Repeated application of the update rule of the model.
+         */
+        ITERATIVE,
+
+        /**
+         * Jacobi iterations on the linear system of the equilibrium.
+         */
+        JACOBI,
+
+        /**
+         * BiCGSTAB iterations on the linear system of the equilibrium.
+         */
+        BICGSTAB
+    }
+}
@@ -1,18 +1,91 @@
 package gr.james.influence.algorithms.scoring;
 
 import gr.james.influence.algorithms.AbstractIterativeAlgorithm;
+import gr.james.influence.algorithms.ConvergencePolicy;
+import gr.james.influence.algorithms.StateCodec;
 import gr.james.influence.graph.DirectedEdge;
 import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
 import gr.james.influence.util.collections.GraphState;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
 public class HITS<V> extends AbstractIterativeAlgorithm<V, HITS.HITSScore> {
     public static final double DEFAULT_PRECISION = -1.0;
 
-    private double epsilon;
+    public HITS(DirectedGraph<V, ?> g, ConvergencePolicy policy) {
+        super(g, GraphState.create(g.vertexSet(), new HITSScore(0.0, 1.0)), policy);
+    }
+
+    /**
+     * Construct an instance of {@link HITS} that starts from the scores of a previous run.
+     * <p>
+     * Vertices of {@code g} that are missing from {@code prior} start with the mean authority and hub scores of the
+     * vertices of {@code prior} that are in {@code g}, and vertices of {@code prior} that are not in {@code g} are
+     * ignored. The authority and hub vectors are then normalized in the same way as the result of each iteration, so
+     * that the starting point is a valid HITS state. If the hub vector is zero, the default starting point is used.
+     *
+     * @param g      the graph
+     * @param policy the {@link ConvergencePolicy}
+     * @param prior  the scores to start from
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public HITS(DirectedGraph<V, ?> g, ConvergencePolicy policy, Map<V, HITSScore> prior) {
+        super(g, initialState(g, Conditions.requireNonNull(prior)), policy);
+    }
 
     public HITS(DirectedGraph<V, ?> g, double epsilon) {
-        super(g, GraphState.create(g.vertexSet(), new HITSScore(0.0, 1.0)));
-        this.epsilon = epsilon;
+        this(g, ConvergencePolicy.of(ConvergencePolicy.Norm.LINF, epsilon));
+    }
+
+    public static <V> GraphState<V, HITSScore> execute(DirectedGraph<V, ?> g, ConvergencePolicy policy) {
+        return new HITS<>(g, policy).run();
+    }
+
+    public static <V> GraphState<V, HITSScore> execute(DirectedGraph<V, ?> g, ConvergencePolicy policy,
+                                                       Map<V, HITSScore> prior) {
+        return new HITS<>(g, policy, prior).run();
+    }
+
+    private static <V> GraphState<V, HITSScore> initialState(DirectedGraph<V, ?> g, Map<V, HITSScore> prior) {
+        double authorityMean = 0;
+        double hubMean = 0;
+        int retained = 0;
+        for (V v : g) {
+            final HITSScore score = prior.get(v);
+            if (score != null) {
+                authorityMean += score.authority;
+                hubMean += score.hub;
+                retained++;
+            }
+        }
+        if (retained > 0) {
+            authorityMean /= retained;
+            hubMean /= retained;
+        }
+
+        final GraphState<V, HITSScore> state = GraphState.create();
+        double authorityNorm = 0;
+        double hubNorm = 0;
+        for (V v : g) {
+            final HITSScore score = prior.get(v);
+            final double authority = score == null ? authorityMean : score.authority;
+            final double hub = score == null ? hubMean : score.hub;
+            authorityNorm += authority * authority;
+            hubNorm += hub * hub;
+            state.put(v, new HITSScore(authority, hub));
+        }
+        if (!(hubNorm > 0)) {
+            return GraphState.create(g.vertexSet(), new HITSScore(0.0, 1.0));
+        }
+
+        final double authorityScale = authorityNorm > 0 ? g.vertexCount() / Math.sqrt(authorityNorm) : 0;
+        final double hubScale = g.vertexCount() / Math.sqrt(hubNorm);
+        state.replaceAll((v, score) -> new HITSScore(score.authority * authorityScale, score.hub * hubScale));
+        return state;
     }
 
     public static <V> GraphState<V, HITSScore> execute(DirectedGraph<V, ?> g, double epsilon) {
@@ -24,14 +97,20 @@ public class HITS<V> extends AbstractIterativeAlgorithm<V, HITS.HITSScore> {
     }
 
     @Override
-    protected boolean converges(GraphState<V, HITSScore> previous, GraphState<V, HITSScore> next) {
-        for (V v : next.keySet()) {
-            if (Math.abs(next.get(v).authority - previous.get(v).authority) > epsilon ||
-                    Math.abs(next.get(v).hub - previous.get(v).hub) > epsilon) {
-                return false;
+    protected StateCodec<HITSScore> stateCodec() {
+        return new StateCodec<HITSScore>() {
+            @Override
+            public void write(DataOutput out, HITSScore value) throws IOException {
+                out.writeDouble(value.authority);
+                out.writeDouble(value.hub);
             }
-        }
-        return true;
+
+            @Override
+            public HITSScore read(DataInput in) throws IOException {
+                final double authority = in.readDouble();
+                return new HITSScore(authority, in.readDouble());
+            }
+        };
     }
 
     @Override
@@ -55,10 +134,15 @@ public class HITS<V> extends AbstractIterativeAlgorithm<V, HITS.HITSScore> {
         final double hubSum = Math.sqrt(next.values().stream()
                 .mapToDouble(x -> Math.pow(x.getHub(), 2.0)).sum());
 
-        next.replaceAll((vertex, hitsScore) -> new HITSScore(
-                hitsScore.getAuthority() * g.vertexCount() / authoritySum,
-                hitsScore.getHub() * g.vertexCount() / hubSum)
-        );
+        next.replaceAll((vertex, hitsScore) -> {
+            final HITSScore score = new HITSScore(
+                    hitsScore.getAuthority() * g.vertexCount() / authoritySum,
+                    hitsScore.getHub() * g.vertexCount() / hubSum);
+            final HITSScore old = previous.get(vertex);
+            residual().add(old.getAuthority(), score.getAuthority());
+            residual().add(old.getHub(), score.getHub());
+            return score;
+        });
 
         return next;
     }
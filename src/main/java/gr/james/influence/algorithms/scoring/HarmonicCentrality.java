@@ -4,7 +4,9 @@ import gr.james.influence.algorithms.distance.DijkstraShortestPaths;
 import gr.james.influence.annotation.UnmodifiableGraph;
 import gr.james.influence.exceptions.IllegalVertexException;
 import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.DoubleGraphState;
 import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
 
 /**
  * Implementation of the <a href="https://en.wikipedia.org/wiki/Closeness_centrality#In_disconnected_graphs">harmonic
@@ -21,6 +23,7 @@ import gr.james.influence.util.collections.GraphState;
  * @param <V> the vertex type
  * @see <a href="https://en.wikipedia.org/wiki/Closeness_centrality#In_disconnected_graphs">Harmonic centrality @
  * Wikipedia</a>
+ * @see DistanceAggregation
  */
 public class HarmonicCentrality<V> extends AbstractSingleVertexScoring<V, Double> {
     private final DirectedGraph<V, ?> g;
@@ -69,7 +72,8 @@ public class HarmonicCentrality<V> extends AbstractSingleVertexScoring<V, Double
      * Get the harmonic centralities of all vertices.
      * <p>
      * The {@link GraphState} returned by this method will have as many entries as there are vertices in the graph. The
-     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}.
+     * {@link GraphState} returned by this method may be empty if the graph is empty but can't be {@code null}. The
+     * result is a {@link DoubleGraphState} over the vertices of the graph in iteration order.
      * <p>
      * This method is buffered and runs in time {@code O(V E lgV)}.
      *
@@ -79,4 +83,9 @@ public class HarmonicCentrality<V> extends AbstractSingleVertexScoring<V, Double
     public GraphState<V, Double> scores() {
         return super.scores();
     }
+
+    @Override
+    GraphState<V, Double> newScores(DirectedGraph<V, ?> g) {
+        return DoubleGraphState.create(VertexIndex.of(g.vertexSet()));
+    }
 }
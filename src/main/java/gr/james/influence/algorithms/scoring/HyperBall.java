@@ -0,0 +1,315 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Approximation of the neighbourhood function and of the distance based centralities of a graph using the HyperBall
+ * algorithm.
+ * <p>
+ * HyperBall keeps a HyperLogLog counter per vertex {@code v} that, after {@code t} iterations, estimates the size of
+ * the ball {@code B(v, t)} of vertices reachable from {@code v} using at most {@code t} outbound edges. Each iteration
+ * replaces the counter of every vertex by the union of its own counter and the counters of its outbound neighbors,
+ * which is the register-wise maximum. The iterations stop when no register changes. The differences
+ * {@code |B(v, t)| - |B(v, t - 1)|} estimate the number of vertices at distance {@code t} from {@code v}, from which
+ * this class derives:
+ * <ul>
+ * <li>{@link #harmonicCentrality()}, the estimate of {@link HarmonicCentrality}.</li>
+ * <li>{@link #closenessCentrality()}, the estimate of {@link ClosenessCentrality} restricted to the vertices
+ * reachable from each vertex, which is equal to {@link ClosenessCentrality} on strongly connected graphs.</li>
+ * <li>{@link #neighbourhoodFunction()} and {@link #effectiveDiameter(double)}.</li>
+ * </ul>
+ * <p>
+ * The distances are numbers of hops and the edge weights are ignored, so the estimates refer to the unweighted
+ * versions of the centralities.
+ * <p>
+ * Each counter has {@code 2^registerBits} registers and the relative standard error of each size estimate is about
+ * {@code 1.04 / sqrt(2^registerBits)}. The registers hold values up to 31, which suffices for sizes up to
+ * {@code 2^31} per register, and are packed in lanes of 6 bits, 10 per {@code long}, so that the register-wise maximum
+ * of two counters is computed 10 registers at a time with a few word operations. The counters are held in two arrays
+ * of {@code 8 V ceil(2^registerBits / 10)} bytes each, which are split in chunks so that the number of vertices is not
+ * limited by the maximum length of an array, and each iteration updates the vertices in parallel. With the default
+ * {@link #DEFAULT_REGISTER_BITS} the counters take 112 bytes per vertex.
+ * <p>
+ * This class uses state of size {@code O(E + V 2^registerBits)} and each iteration runs in time
+ * {@code O((V+E) 2^registerBits)}.
+ *
+ * @param <V> the vertex type
+ * @see "Boldi, Paolo, and Sebastiano Vigna. In-core computation of geometric centralities with HyperBall: A hundred
+ * billion nodes and beyond. 2013 IEEE 13th International Conference on Data Mining Workshops. IEEE, 2013."
+ * @see DistanceAggregation
+ */
+public class HyperBall<V> {
+    public static final int DEFAULT_REGISTER_BITS = 6;
+
+    private static final int LANES = 10;
+    private static final int LANE_BITS = 6;
+    private static final int MAX_RANK = 31;
+    /**
+     * The lowest bit of each lane.
+     */
+    private static final long LANE_LOW = 0x41041041041041L;
+    /**
+     * The highest bit of each lane, which is always 0 in the registers.
+     */
+    private static final long LANE_HIGH = LANE_LOW << (LANE_BITS - 1);
+    /**
+     * The maximum number of words of a chunk of the counters.
+     */
+    private static final int CHUNK_WORDS = 1 << 24;
+
+    private final CompressedGraph<V> graph;
+    private final double[] harmonic;
+    private final double[] farness;
+    private final double[] reachable;
+    private final double[] neighbourhoodFunction;
+
+    /**
+     * Construct an instance of {@link HyperBall} and run the algorithm.
+     *
+     * @param g            the input {@link DirectedGraph}
+     * @param registerBits the base 2 logarithm of the number of registers per counter, in {@code [4,16]}
+     * @param seed         the seed of the hash function
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code registerBits} is not in {@code [4,16]}
+     */
+    public HyperBall(@UnmodifiableGraph DirectedGraph<V, ?> g, int registerBits, long seed) {
+        Conditions.requireArgument(registerBits >= 4 && registerBits <= 16,
+                "registerBits must be in [4,16], got %d", registerBits);
+
+        this.graph = CompressedGraph.of(g);
+
+        final int n = graph.vertexCount();
+        final int m = 1 << registerBits;
+        final int words = (m + LANES - 1) / LANES;
+        // Vertices per chunk, a power of 2 so that the chunk of a vertex is a shift
+        final int shift = 31 - Integer.numberOfLeadingZeros(CHUNK_WORDS / words);
+        final int mask = (1 << shift) - 1;
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+
+        long[][] current = chunks(n, words, shift);
+        long[][] next = chunks(n, words, shift);
+        for (int v = 0; v < n; v++) {
+            final long hash = mix(v + seed * 0x9E3779B97F4A7C15L);
+            final int register = (int) (hash >>> (64 - registerBits));
+            final int rank = Math.min(Long.numberOfLeadingZeros(hash << registerBits | (1L << (registerBits - 1))) + 1,
+                    MAX_RANK);
+            current[v >>> shift][(v & mask) * words + register / LANES] |=
+                    (long) rank << (register % LANES * LANE_BITS);
+        }
+
+        this.harmonic = new double[n];
+        this.farness = new double[n];
+        this.reachable = new double[n];
+        final double[] size = this.reachable;
+        double total = 0;
+        for (int v = 0; v < n; v++) {
+            size[v] = estimate(current[v >>> shift], (v & mask) * words, m);
+            total += size[v];
+        }
+        double[] function = new double[16];
+        int length = 0;
+        function[length++] = total;
+
+        for (int t = 1; t <= n; t++) {
+            final long[][] from = current;
+            final long[][] to = next;
+            final int distance = t;
+            final AtomicBoolean changed = new AtomicBoolean();
+            total = IntStream.range(0, n).parallel().mapToDouble(v -> {
+                final long[] target = to[v >>> shift];
+                final int base = (v & mask) * words;
+                System.arraycopy(from[v >>> shift], base, target, base, words);
+                boolean modified = false;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    final int w = targets[k];
+                    final long[] source = from[w >>> shift];
+                    final int other = (w & mask) * words;
+                    for (int j = 0; j < words; j++) {
+                        final long x = target[base + j];
+                        final long y = max(x, source[other + j]);
+                        if (y != x) {
+                            target[base + j] = y;
+                            modified = true;
+                        }
+                    }
+                }
+                if (modified) {
+                    changed.set(true);
+                    final double s = Math.max(size[v], estimate(target, base, m));
+                    final double delta = s - size[v];
+                    harmonic[v] += delta / distance;
+                    farness[v] += delta * distance;
+                    size[v] = s;
+                }
+                return size[v];
+            }).sum();
+            current = to;
+            next = from;
+            if (!changed.get()) {
+                break;
+            }
+            if (length == function.length) {
+                function = Arrays.copyOf(function, length * 2);
+            }
+            function[length++] = total;
+        }
+
+        this.neighbourhoodFunction = Arrays.copyOf(function, length);
+    }
+
+    /**
+     * Construct an instance of {@link HyperBall} with {@link #DEFAULT_REGISTER_BITS} and a seed drawn from the global
+     * {@link java.util.Random} instance and run the algorithm.
+     *
+     * @param g the input {@link DirectedGraph}
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public HyperBall(@UnmodifiableGraph DirectedGraph<V, ?> g) {
+        this(g, DEFAULT_REGISTER_BITS, RandomHelper.getRandom().nextLong());
+    }
+
+    /**
+     * Allocates the counters of {@code n} vertices of {@code words} words each in chunks of {@code 2^shift} vertices.
+     */
+    private static long[][] chunks(int n, int words, int shift) {
+        final int chunkVertices = 1 << shift;
+        final long[][] chunks = new long[(int) (((long) n + chunkVertices - 1) >>> shift)][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new long[Math.min(chunkVertices, n - (c << shift)) * words];
+        }
+        return chunks;
+    }
+
+    /**
+     * The register-wise maximum of two words of registers.
+     * <p>
+     * Setting the highest bit of each lane of {@code x} before subtracting {@code y} prevents borrows across lanes, so
+     * that the highest bit of each lane of the difference is set if and only if the register of {@code x} is not less
+     * than the register of {@code y}.
+     */
+    private static long max(long x, long y) {
+        final long greater = (((x | LANE_HIGH) - y) & LANE_HIGH) >>> (LANE_BITS - 1);
+        final long select = greater * MAX_RANK;
+        return (x & select) | (y & ~select);
+    }
+
+    /**
+     * The finalizer of the 64-bit SplitMix generator.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The HyperLogLog estimate of the counter at {@code base} with the linear counting correction for small sizes.
+     */
+    private static double estimate(long[] registers, int base, int m) {
+        double sum = 0;
+        int zeros = 0;
+        for (int j = 0; j < m; j++) {
+            final int r = (int) (registers[base + j / LANES] >>> (j % LANES * LANE_BITS)) & MAX_RANK;
+            sum += Double.longBitsToDouble((1023L - r) << 52);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        final double alpha = 0.7213 / (1 + 1.079 / m);
+        final double raw = alpha * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return m * Math.log((double) m / zeros);
+        }
+        return raw;
+    }
+
+    /**
+     * Get the harmonic centrality estimates of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the harmonic centrality estimates of all vertices in the graph
+     */
+    public GraphState<V, Double> harmonicCentrality() {
+        return graph.toGraphState(harmonic);
+    }
+
+    /**
+     * Get the closeness centrality estimates of all vertices.
+     * <p>
+     * The closeness centrality of a vertex {@code v} is estimated as {@code V / farness} where the farness is the sum
+     * of the distances from {@code v} to the vertices reachable from {@code v}. The value is
+     * {@link Double#POSITIVE_INFINITY} if no vertex is reachable from {@code v}.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the closeness centrality estimates of all vertices in the graph
+     */
+    public GraphState<V, Double> closenessCentrality() {
+        final double[] closeness = new double[farness.length];
+        for (int v = 0; v < closeness.length; v++) {
+            closeness[v] = closeness.length / farness[v];
+        }
+        return graph.toGraphState(closeness);
+    }
+
+    /**
+     * Get the estimates of the number of vertices reachable from each vertex, including the vertex itself.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the estimates of the number of reachable vertices
+     */
+    public GraphState<V, Double> reachableCount() {
+        return graph.toGraphState(reachable);
+    }
+
+    /**
+     * Returns the estimate of the neighbourhood function of the graph.
+     * <p>
+     * The element {@code t} of the returned array is the estimate of the number of ordered pairs {@code (v, w)}
+     * such that {@code w} is reachable from {@code v} using at most {@code t} edges, including the pairs with
+     * {@code v = w}. The last element is the estimate of the number of all reachable pairs.
+     *
+     * @return a new array containing the estimate of the neighbourhood function of the graph
+     */
+    public double[] neighbourhoodFunction() {
+        return neighbourhoodFunction.clone();
+    }
+
+    /**
+     * Returns the estimate of the effective diameter of the graph.
+     * <p>
+     * The effective diameter at {@code fraction} is the smallest {@code t} such that the neighbourhood function at
+     * {@code t} is at least {@code fraction} of the number of reachable pairs, linearly interpolated between the
+     * integer distances.
+     *
+     * @param fraction the fraction of reachable pairs in {@code (0,1]}, commonly 0.9
+     * @return the estimate of the effective diameter of the graph
+     * @throws IllegalArgumentException if {@code fraction} is not in {@code (0,1]}
+     */
+    public double effectiveDiameter(double fraction) {
+        Conditions.requireArgument(fraction > 0 && fraction <= 1, "fraction must be in (0,1], got %f", fraction);
+        final double threshold = fraction * neighbourhoodFunction[neighbourhoodFunction.length - 1];
+        for (int t = 0; t < neighbourhoodFunction.length; t++) {
+            if (neighbourhoodFunction[t] >= threshold) {
+                if (t == 0) {
+                    return 0;
+                }
+                final double previous = neighbourhoodFunction[t - 1];
+                return t - 1 + (threshold - previous) / (neighbourhoodFunction[t] - previous);
+            }
+        }
+        return neighbourhoodFunction.length - 1;
+    }
+}
@@ -0,0 +1,246 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the <a href="https://en.wikipedia.org/wiki/Katz_centrality">Katz centrality</a>.
+ * <p>
+ * The Katz centrality of a vertex {@code v} is defined as {@code x(v) = alpha * sum(w(u, v) x(u)) + 1} for all
+ * inbound edges {@code (u, v)}, which counts the walks ending at {@code v} with a weight attenuated by {@code alpha}
+ * per step. The centralities exist if and only if {@code alpha} is less than the reciprocal of the spectral radius of
+ * the weight matrix, which is given by {@link #maxAlpha(DirectedGraph)}.
+ * <p>
+ * This class computes the centralities on primitive arrays using the fixed point iteration of the definition, which
+ * converges geometrically with rate {@code alpha} times the spectral radius, until no centrality changes by more than
+ * {@code epsilon}.
+ * <p>
+ * The constructors that do not accept an {@code alpha} argument set it to {@link #DEFAULT_ALPHA_FRACTION} of its
+ * upper bound.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ * @see <a href="https://en.wikipedia.org/wiki/Katz_centrality">Katz centrality @ Wikipedia</a>
+ * @see EigenvectorCentrality
+ */
+public class KatzCentrality<V> extends AbstractArrayScoring<V> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+    public static final double DEFAULT_ALPHA_FRACTION = 0.85;
+
+    private final CompressedGraph<V> graph;
+    private final double alpha;
+    private final double[] centrality;
+    private int iterations;
+
+    /**
+     * Construct an instance of {@link KatzCentrality} and run the algorithm.
+     * <p>
+     * If {@code alpha} is not below the Gershgorin bound of the spectral radius, the constructor computes the spectral
+     * radius with {@link EigenvectorCentrality} in order to validate {@code alpha}.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param alpha         the attenuation factor
+     * @param epsilon       the precision of the convergence criterion
+     * @param maxIterations the maximum number of iterations
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code alpha} is not in {@code (0, maxAlpha(g))} or if {@code maxIterations}
+     *                                  is not positive
+     */
+    public KatzCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double alpha, double epsilon, int maxIterations) {
+        this(CompressedGraph.of(g), false, alpha, epsilon, maxIterations);
+    }
+
+    /**
+     * Construct an instance of {@link KatzCentrality} with {@link #DEFAULT_MAX_ITERATIONS} and run the algorithm.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param alpha   the attenuation factor
+     * @param epsilon the precision of the convergence criterion
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code alpha} is not in {@code (0, maxAlpha(g))}
+     */
+    public KatzCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double alpha, double epsilon) {
+        this(g, alpha, epsilon, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Construct an instance of {@link KatzCentrality} with {@code alpha} set to {@link #DEFAULT_ALPHA_FRACTION} of
+     * {@link #maxAlpha(DirectedGraph)} and run the algorithm.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param epsilon the precision of the convergence criterion
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public KatzCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, double epsilon) {
+        this(CompressedGraph.of(g), true, Double.NaN, epsilon, DEFAULT_MAX_ITERATIONS);
+    }
+
+    private KatzCentrality(CompressedGraph<V> graph, boolean defaultAlpha, double alpha, double epsilon,
+                           int maxIterations) {
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+
+        this.graph = graph;
+
+        if (defaultAlpha) {
+            final double radius = spectralRadius(graph);
+            this.alpha = radius > 0 ? DEFAULT_ALPHA_FRACTION / radius : 1.0;
+        } else {
+            Conditions.requireArgument(alpha > 0, "alpha must be positive, got %f", alpha);
+            if (alpha * gershgorinBound(graph) >= 1) {
+                final double radius = spectralRadius(graph);
+                Conditions.requireArgument(alpha * radius < 1,
+                        "alpha must be less than the reciprocal of the spectral radius %f, got %f", radius, alpha);
+            }
+            this.alpha = alpha;
+        }
+
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.inOffsets();
+        final int[] sources = graph.inSources();
+        final double[] weights = graph.inWeights();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Arrays.fill(x, 1.0);
+        double change = Double.POSITIVE_INFINITY;
+        while (change > epsilon && iterations < maxIterations) {
+            change = 0;
+            for (int v = 0; v < n; v++) {
+                double s = 0;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    s += weights[k] * x[sources[k]];
+                }
+                y[v] = this.alpha * s + 1;
+                change = Math.max(change, Math.abs(y[v] - x[v]));
+            }
+            final double[] t = x;
+            x = y;
+            y = t;
+            iterations++;
+        }
+        this.centrality = x;
+    }
+
+    /**
+     * Convenience function to calculate the Katz centralities of all vertices in a graph.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param alpha   the attenuation factor
+     * @param epsilon the precision of the convergence criterion
+     * @param <V>     the vertex type
+     * @return the Katz centralities of the vertices in {@code g}
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code alpha} is not in {@code (0, maxAlpha(g))}
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double alpha, double epsilon) {
+        return new KatzCentrality<>(g, alpha, epsilon).scores();
+    }
+
+    /**
+     * Returns the upper bound of the attenuation factor of the Katz centrality, which is the reciprocal of the
+     * spectral radius of the weight matrix of the graph.
+     * <p>
+     * The spectral radius is estimated using the {@link EigenvectorCentrality.Method#ARNOLDI Arnoldi method} of
+     * {@link EigenvectorCentrality}. This method returns {@link Double#POSITIVE_INFINITY} if the spectral radius is 0,
+     * for example if the graph is acyclic.
+     *
+     * @param g the graph
+     * @return the upper bound of the attenuation factor of the Katz centrality
+     * @throws NullPointerException if {@code g} is {@code null}
+     */
+    public static double maxAlpha(DirectedGraph<?, ?> g) {
+        return 1 / spectralRadius(CompressedGraph.of(g));
+    }
+
+    /**
+     * An upper bound of the spectral radius that is the minimum of the maximum in and out strengths.
+     */
+    private static double gershgorinBound(CompressedGraph<?> graph) {
+        double maxOut = 0;
+        for (double s : graph.outStrengths()) {
+            maxOut = Math.max(maxOut, s);
+        }
+        final int[] offsets = graph.inOffsets();
+        final double[] weights = graph.inWeights();
+        double maxIn = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            double s = 0;
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                s += weights[k];
+            }
+            maxIn = Math.max(maxIn, s);
+        }
+        return Math.min(maxIn, maxOut);
+    }
+
+    private static <V> double spectralRadius(CompressedGraph<V> graph) {
+        final double bound = gershgorinBound(graph);
+        if (bound == 0) {
+            return 0;
+        }
+        final EigenvectorCentrality<V> eigenvector = new EigenvectorCentrality<>(graph, 1.0e-10,
+                EigenvectorCentrality.Method.ARNOLDI, EigenvectorCentrality.DEFAULT_MAX_ITERATIONS);
+        return Math.max(0, Math.min(eigenvector.eigenvalue(), bound));
+    }
+
+    /**
+     * Get the Katz centrality of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the Katz centrality of
+     * @return the Katz centrality of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        return centrality[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the Katz centralities of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the Katz centralities of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(centrality);
+    }
+
+    @Override
+    CompressedGraph<V> graph() {
+        return graph;
+    }
+
+    @Override
+    double[] values() {
+        return centrality;
+    }
+
+    /**
+     * Returns the attenuation factor used by this instance.
+     *
+     * @return the attenuation factor used by this instance
+     */
+    public double alpha() {
+        return alpha;
+    }
+
+    /**
+     * Returns the number of iterations that the algorithm performed.
+     *
+     * @return the number of iterations that the algorithm performed
+     */
+    public int iterations() {
+        return iterations;
+    }
+}
@@ -0,0 +1,290 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.algorithms.iterators.RandomSurferIterator;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo estimator of {@link PageRank}.
+ * <p>
+ * This class implements the <i>complete path</i> Monte Carlo method: {@code R} random surfer walks are started from
+ * every vertex of the graph. On each step the surfer terminates with probability {@code 1 - dampingFactor} or else
+ * moves to a random outbound neighbor with probability proportional to the edge weights. A walk also terminates on a
+ * vertex without outbound edges. The PageRank of a vertex is then estimated as {@code (1 - dampingFactor) * visits / R}
+ * which is an unbiased estimator of the value returned by {@link PageRank} (normalized so that the values have an
+ * average of 1 in a graph without dangling vertices).
+ * <p>
+ * Unlike {@link RandomSurferIterator}, which uses the global {@link java.util.Random} instance, the walks are split
+ * into blocks that run in parallel and each block uses its own {@link SplittableRandom} stream derived from a single
+ * seed. As a result, the estimates are reproducible for a given seed and parallelism regardless of thread scheduling.
+ * <p>
+ * Along with the estimates, this class provides a standard error for each vertex. The standard error is computed from
+ * the sum of the squared per-walk visit counts, which is an upper bound of the variance of the estimator, and is thus
+ * conservative.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per block.
+ *
+ * @param <V> the vertex type
+ * @see "Avrachenkov, Konstantin, et al. Monte Carlo methods in PageRank computation: When one iteration is sufficient.
+ * SIAM Journal on Numerical Analysis 45.2 (2007): 890-904."
+ */
+public class MonteCarloPageRank<V> extends AbstractArrayScoring<V> {
+    private final CompressedGraph<V> graph;
+    private final double dampingFactor;
+    private final int walks;
+    private final double[] estimates;
+    private final double[] standardErrors;
+
+    /**
+     * Construct an instance of {@link MonteCarloPageRank} and run the estimator.
+     * <p>
+     * The estimator runs in expected time {@code O(V R lgV / (1 - dampingFactor))}.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1)}
+     * @param walks         the number of walks {@code R} to start from each vertex
+     * @param seed          the seed of the random streams
+     * @param parallelism   the number of blocks to split the vertices into
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1)}, or if {@code walks} or
+     *                                  {@code parallelism} is less than 1
+     */
+    public MonteCarloPageRank(@UnmodifiableGraph DirectedGraph<V, ?> g, double dampingFactor, int walks, long seed,
+                              int parallelism) {
+        Conditions.requireArgument(dampingFactor >= 0 && dampingFactor < 1,
+                "dampingFactor must be in [0,1), got %f", dampingFactor);
+        Conditions.requireArgument(walks >= 1, "walks must be positive, got %d", walks);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        this.graph = CompressedGraph.of(g);
+        this.dampingFactor = dampingFactor;
+        this.walks = walks;
+
+        final int n = graph.vertexCount();
+        final double[] cumulativeWeights = cumulativeWeights(graph);
+        final int blocks = Math.max(1, Math.min(parallelism, n));
+
+        final SplittableRandom root = new SplittableRandom(seed);
+        final SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            randoms[b] = root.split();
+        }
+
+        final Block[] results = IntStream.range(0, blocks).parallel()
+                .mapToObj(b -> walk(cumulativeWeights, b * n / blocks, (b + 1) * n / blocks, randoms[b]))
+                .toArray(Block[]::new);
+
+        final long[] visits = new long[n];
+        final double[] squares = new double[n];
+        for (Block block : results) {
+            for (int i = 0; i < n; i++) {
+                visits[i] += block.visits[i];
+                squares[i] += block.squares[i];
+            }
+        }
+
+        this.estimates = new double[n];
+        this.standardErrors = new double[n];
+        final double scale = (1 - dampingFactor) / walks;
+        for (int i = 0; i < n; i++) {
+            estimates[i] = scale * visits[i];
+            standardErrors[i] = scale * Math.sqrt(squares[i]);
+        }
+    }
+
+    /**
+     * Construct an instance of {@link MonteCarloPageRank} and run the estimator using a seed drawn from the global
+     * {@link java.util.Random} instance and parallelism equal to the number of available processors.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1)}
+     * @param walks         the number of walks {@code R} to start from each vertex
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1)} or if {@code walks} is less
+     *                                  than 1
+     */
+    public MonteCarloPageRank(@UnmodifiableGraph DirectedGraph<V, ?> g, double dampingFactor, int walks) {
+        this(g, dampingFactor, walks, RandomHelper.getRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Convenience function to estimate the PageRank of all vertices in a graph.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1)}
+     * @param walks         the number of walks {@code R} to start from each vertex
+     * @param <V>           the vertex type
+     * @return the PageRank estimates of the vertices in {@code g}
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1)} or if {@code walks} is less
+     *                                  than 1
+     */
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double dampingFactor, int walks) {
+        return new MonteCarloPageRank<>(g, dampingFactor, walks).scores();
+    }
+
+    private static double[] cumulativeWeights(CompressedGraph<?> graph) {
+        final int[] offsets = graph.outOffsets();
+        final double[] weights = graph.outWeights();
+        final double[] cumulative = new double[weights.length];
+        for (int i = 0; i < graph.vertexCount(); i++) {
+            double sum = 0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                sum += weights[k];
+                cumulative[k] = sum;
+            }
+        }
+        return cumulative;
+    }
+
+    private Block walk(double[] cumulativeWeights, int from, int to, SplittableRandom random) {
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final Block block = new Block(n);
+
+        // Visit counts of the current walk, reset through the path array after each walk
+        final int[] counts = new int[n];
+        int[] path = new int[16];
+
+        for (int start = from; start < to; start++) {
+            for (int r = 0; r < walks; r++) {
+                int length = 0;
+                int current = start;
+                while (true) {
+                    if (counts[current]++ == 0) {
+                        if (length == path.length) {
+                            path = Arrays.copyOf(path, length * 2);
+                        }
+                        path[length++] = current;
+                    }
+                    final int lo = offsets[current];
+                    final int hi = offsets[current + 1];
+                    if (lo == hi || random.nextDouble() >= dampingFactor) {
+                        break;
+                    }
+                    final double x = random.nextDouble() * cumulativeWeights[hi - 1];
+                    int k = Arrays.binarySearch(cumulativeWeights, lo, hi, x);
+                    k = k < 0 ? -k - 1 : k + 1;
+                    current = targets[Math.min(k, hi - 1)];
+                }
+                for (int p = 0; p < length; p++) {
+                    final int v = path[p];
+                    block.visits[v] += counts[v];
+                    block.squares[v] += (double) counts[v] * counts[v];
+                    counts[v] = 0;
+                }
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Get the PageRank estimate of vertex {@code v}.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param v the vertex to get the PageRank estimate of
+     * @return the PageRank estimate of vertex {@code v}
+     * @throws NullPointerException   {@inheritDoc}
+     * @throws IllegalVertexException {@inheritDoc}
+     */
+    @Override
+    public Double score(V v) {
+        return estimates[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the PageRank estimates of all vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @return a {@link GraphState} object holding the PageRank estimates of all vertices in the graph
+     */
+    @Override
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(estimates);
+    }
+
+    @Override
+    CompressedGraph<V> graph() {
+        return graph;
+    }
+
+    @Override
+    double[] values() {
+        return estimates;
+    }
+
+    /**
+     * Get the (conservative) standard error of the PageRank estimate of vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the standard error of the PageRank estimate of {@code v}
+     * @throws NullPointerException   if {@code v} is {@code null}
+     * @throws IllegalVertexException if {@code v} is not in the graph
+     */
+    public double standardError(V v) {
+        return standardErrors[graph.indexOf(v)];
+    }
+
+    /**
+     * Get the (conservative) standard errors of the PageRank estimates of all vertices.
+     *
+     * @return a {@link GraphState} object holding the standard errors of all vertices in the graph
+     */
+    public GraphState<V, Double> standardErrors() {
+        return graph.toGraphState(standardErrors);
+    }
+
+    /**
+     * Get the lower confidence bound of the PageRank estimate of vertex {@code v} at {@code z} standard errors.
+     * <p>
+     * For example, {@code z = 1.96} yields an approximately 95% confidence interval. The lower bound is clamped to 0.
+     *
+     * @param v the vertex
+     * @param z the number of standard errors
+     * @return the lower confidence bound of the PageRank estimate of {@code v}
+     * @throws NullPointerException   if {@code v} is {@code null}
+     * @throws IllegalVertexException if {@code v} is not in the graph
+     */
+    public double lowerBound(V v, double z) {
+        final int i = graph.indexOf(v);
+        return Math.max(0, estimates[i] - z * standardErrors[i]);
+    }
+
+    /**
+     * Get the upper confidence bound of the PageRank estimate of vertex {@code v} at {@code z} standard errors.
+     * <p>
+     * For example, {@code z = 1.96} yields an approximately 95% confidence interval.
+     *
+     * @param v the vertex
+     * @param z the number of standard errors
+     * @return the upper confidence bound of the PageRank estimate of {@code v}
+     * @throws NullPointerException   if {@code v} is {@code null}
+     * @throws IllegalVertexException if {@code v} is not in the graph
+     */
+    public double upperBound(V v, double z) {
+        final int i = graph.indexOf(v);
+        return estimates[i] + z * standardErrors[i];
+    }
+
+    private static class Block {
+        private final long[] visits;
+        private final double[] squares;
+
+        private Block(int n) {
+            this.visits = new long[n];
+            this.squares = new double[n];
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package gr.james.influence.algorithms.scoring;
 
 import gr.james.influence.algorithms.AbstractIterativeAlgorithm;
+import gr.james.influence.algorithms.ConvergencePolicy;
+import gr.james.influence.algorithms.StateCodec;
 import gr.james.influence.graph.DirectedEdge;
 import gr.james.influence.graph.DirectedGraph;
 import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.DoubleGraphState;
 import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexIndex;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -13,17 +17,18 @@ public class PageRank<V> extends AbstractIterativeAlgorithm<V, Double> {
     public static final double DEFAULT_PRECISION = -1.0;
 
     private double dampingFactor;
-    private double epsilon;
     private Map<V, Double> outStrengths;
+    private VertexIndex<V> index;
 
-    public PageRank(DirectedGraph<V, ?> g, double dampingFactor, double epsilon) {
-        super(g, GraphState.create(g.vertexSet(), 1.0));
+    private PageRank(DirectedGraph<V, ?> g, double dampingFactor, ConvergencePolicy policy, VertexIndex<V> index,
+                     Map<V, Double> prior) {
+        super(g, initialState(index, prior), policy);
 
         Conditions.requireArgument(dampingFactor >= 0 && dampingFactor <= 1,
                 "dampingFactor must be in [0,1], got %f", dampingFactor);
 
         this.dampingFactor = dampingFactor;
-        this.epsilon = epsilon;
+        this.index = index;
 
         outStrengths = new HashMap<>();
         for (V v : g) {
@@ -31,6 +36,49 @@ public class PageRank<V> extends AbstractIterativeAlgorithm<V, Double> {
         }
     }
 
+    public PageRank(DirectedGraph<V, ?> g, double dampingFactor, ConvergencePolicy policy) {
+        this(g, dampingFactor, policy, VertexIndex.of(g.vertexSet()), null);
+    }
+
+    /**
+     * Construct an instance of {@link PageRank} that starts from the scores of a previous run.
+     * <p>
+     * Vertices of {@code g} that are missing from {@code prior} start with the default score 1 and vertices of
+     * {@code prior} that are not in {@code g} are ignored. The scores are then rescaled so that their sum is
+     * {@code V}, which is the sum of the PageRank scores. If {@code dampingFactor < 1}, PageRank has a unique fixed
+     * point, so the result does not depend on {@code prior}, but the number of iterations is much smaller if
+     * {@code prior} is close to it, for example if it was computed on a slightly different graph.
+     * <p>
+     * If {@code dampingFactor == 1} the fixed point is unique only if {@code g} is strongly connected. Otherwise, each
+     * closed class of vertices keeps the share of the total score that flows into it from the start vector, so the
+     * result is the limit reached from {@code prior} and in general differs from the result of
+     * {@link #PageRank(DirectedGraph, double, ConvergencePolicy)}, which starts from the uniform vector.
+     *
+     * @param g             the graph
+     * @param dampingFactor the damping factor in {@code [0,1]}
+     * @param policy        the {@link ConvergencePolicy}
+     * @param prior         the scores to start from
+     * @throws NullPointerException     if any argument is {@code null}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1]}
+     */
+    public PageRank(DirectedGraph<V, ?> g, double dampingFactor, ConvergencePolicy policy, Map<V, Double> prior) {
+        this(g, dampingFactor, policy, VertexIndex.of(g.vertexSet()), Conditions.requireNonNull(prior));
+    }
+
+    public PageRank(DirectedGraph<V, ?> g, double dampingFactor, double epsilon) {
+        this(g, dampingFactor, ConvergencePolicy.of(ConvergencePolicy.Norm.LINF, epsilon));
+    }
+
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double dampingFactor,
+                                                    ConvergencePolicy policy) {
+        return new PageRank<>(g, dampingFactor, policy).run();
+    }
+
+    public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double dampingFactor,
+                                                    ConvergencePolicy policy, Map<V, Double> prior) {
+        return new PageRank<>(g, dampingFactor, policy, prior).run();
+    }
+
     public static <V> GraphState<V, Double> execute(DirectedGraph<V, ?> g, double dampingFactor, double epsilon) {
         return new PageRank<>(g, dampingFactor, epsilon).run();
     }
@@ -39,25 +87,42 @@ public class PageRank<V> extends AbstractIterativeAlgorithm<V, Double> {
         return new PageRank<>(g, dampingFactor, DEFAULT_PRECISION).run();
     }
 
-    @Override
-    protected boolean converges(GraphState<V, Double> previous, GraphState<V, Double> next) {
-        for (V v : next.keySet()) {
-            if (Math.abs(next.get(v) - previous.get(v)) > epsilon) {
-                return false;
+    private static <V> DoubleGraphState<V> initialState(VertexIndex<V> index, Map<V, Double> prior) {
+        if (prior == null) {
+            return DoubleGraphState.create(index, 1.0);
+        }
+        final DoubleGraphState<V> state = DoubleGraphState.copyOf(index, prior, 1.0);
+        final double sum = state.getSum();
+        if (sum > 0) {
+            final double scale = index.size() / sum;
+            for (int i = 0; i < index.size(); i++) {
+                state.setValueAt(i, state.valueAt(i) * scale);
             }
         }
-        return true;
+        return state;
+    }
+
+    @Override
+    protected StateCodec<Double> stateCodec() {
+        return StateCodec.doubles();
+    }
+
+    @Override
+    protected long parameterFingerprint() {
+        return Double.doubleToLongBits(dampingFactor);
     }
 
     @Override
     protected GraphState<V, Double> step(DirectedGraph<V, ?> g, GraphState<V, Double> previous) {
-        final GraphState<V, Double> nextState = GraphState.create();
+        final DoubleGraphState<V> nextState = DoubleGraphState.create(index);
         for (V v : g) {
             double w = 0;
             for (DirectedEdge<V, ?> e : g.inEdges(v)) {
                 w += e.weight() * previous.get(e.source()) / outStrengths.get(e.source());
             }
-            nextState.put(v, (1 - dampingFactor) + dampingFactor * w);
+            final double value = (1 - dampingFactor) + dampingFactor * w;
+            residual().add(previous.get(v), value);
+            nextState.set(v, value);
         }
         return nextState;
     }
@@ -0,0 +1,584 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.exceptions.IllegalVertexException;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.VertexPair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Sensitivity of the {@link PageRank} score of a target vertex to the insertion and removal of edges.
+ * <p>
+ * The PageRank vector {@code x} solves {@code x = (1 - d) + d P' x}, where {@code P} is the weight matrix normalized by
+ * the out strengths. Inserting or removing an edge {@code (u,v)} changes only the row {@code u} of {@code P} by a
+ * vector {@code delta} and, by the Sherman-Morrison formula, changes the score of the target {@code t} by
+ * <pre><code>
+ * d x(u) delta' z / (1 - d delta' z_u)
+ * </code></pre>
+ * where {@code z} solves {@code (I - d P) z = e_t} and {@code z_u} solves the same system for {@code e_u}. This class
+ * computes {@code x} and {@code z} once and estimates the change of every candidate edge by the numerator, the first
+ * order derivative of the score, which takes constant time per candidate using the precomputed products of each row of
+ * the weight matrix with {@code z}. When {@code d = 1}, which gives the eigenvector of the normalized weight matrix as
+ * in {@code PageRank.execute(g, 1.0)}, {@code z} instead solves {@code (I - P) z = e_t - x(t) / V} and the estimate is
+ * not defined for candidates that add or remove the only outbound edge of a vertex, which is estimated as
+ * {@link Double#NaN}.
+ * <p>
+ * The rankings of this class estimate all candidates and then compute the exact change of the best candidates by
+ * repairing {@code x}: the power iteration of the modified graph is warm started from {@code x}, which is close to the
+ * new solution, and runs on the snapshot of the graph with the single row replaced, without copying the graph. The
+ * repairs of different candidates are independent and run in parallel. When {@code d = 1} the limit of the iteration
+ * on a graph that is not strongly connected depends on its start vector, so the repairs instead start from the uniform
+ * vector, like {@code PageRank.execute(g, 1.0)}, and only benefit from running on the snapshot.
+ * <p>
+ * If an iteration does not converge within the maximum number of iterations, the corresponding effect is
+ * {@link Double#NaN}, and {@link #isConverged()} reports whether the PageRank and sensitivity vectors of the original
+ * graph converged.
+ * <p>
+ * This class uses state of size {@code O(V+E)} plus {@code O(V)} per parallel repair.
+ *
+ * @param <V> the vertex type
+ * @see PageRank
+ */
+public class PageRankSensitivity<V> {
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+    public static final int REFINEMENT_FACTOR = 4;
+
+    private final CompressedGraph<V> graph;
+    private final double dampingFactor;
+    private final double epsilon;
+    private final int maxIterations;
+    private final int parallelism;
+    private final int target;
+    private final double[] normalized;
+    private final double[] scores;
+    private final double[] z;
+    private final double[] rowProducts;
+    private final boolean converged;
+
+    /**
+     * A candidate edge insertion or removal and its effect on the score of the target.
+     *
+     * @param <V> the vertex type
+     */
+    public static final class Change<V> {
+        private final V source;
+        private final V target;
+        private final double weight;
+        private final boolean insertion;
+        private final double estimate;
+        private final double effect;
+
+        Change(V source, V target, double weight, boolean insertion, double estimate, double effect) {
+            this.source = source;
+            this.target = target;
+            this.weight = weight;
+            this.insertion = insertion;
+            this.estimate = estimate;
+            this.effect = effect;
+        }
+
+        /**
+         * Returns the source of the edge.
+         *
+         * @return the source of the edge
+         */
+        public V source() {
+            return source;
+        }
+
+        /**
+         * Returns the target of the edge.
+         *
+         * @return the target of the edge
+         */
+        public V target() {
+            return target;
+        }
+
+        /**
+         * Returns the weight of the inserted edge or the weight of the removed edge.
+         *
+         * @return the weight of the inserted edge or the weight of the removed edge
+         */
+        public double weight() {
+            return weight;
+        }
+
+        /**
+         * Returns whether this change is an edge insertion rather than a removal.
+         *
+         * @return {@code true} if this change is an edge insertion, {@code false} if it is an edge removal
+         */
+        public boolean isInsertion() {
+            return insertion;
+        }
+
+        /**
+         * Returns the first order estimate of the change of the score of the target.
+         *
+         * @return the first order estimate of the change of the score of the target
+         */
+        public double estimate() {
+            return estimate;
+        }
+
+        /**
+         * Returns the exact change of the score of the target, up to the precision of the iteration.
+         * <p>
+         * The change equals the difference of the {@link PageRank} scores of the target on the modified and the
+         * original graph, both computed from the uniform start vector. It is {@link Double#NaN} if the repair did not
+         * converge within the maximum number of iterations, in which case this change ranks last.
+         *
+         * @return the exact change of the score of the target, or {@link Double#NaN} if the repair did not converge
+         */
+        public double effect() {
+            return effect;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s -> %s (%.4f): %.6f", insertion ? "insert" : "remove", source, target, weight,
+                    effect);
+        }
+    }
+
+    /**
+     * Construct an instance of {@link PageRankSensitivity} and compute the PageRank and sensitivity vectors.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1]}
+     * @param target        the vertex whose score is of interest
+     * @param epsilon       the precision of the convergence criterion of the iterations
+     * @param maxIterations the maximum number of iterations of each solution
+     * @param parallelism   the maximum number of repairs that run in parallel
+     * @throws NullPointerException     if {@code g} or {@code target} is {@code null}
+     * @throws IllegalVertexException   if {@code target} is not in {@code g}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1]}, if {@code epsilon} is not
+     *                                  positive or if {@code maxIterations} or {@code parallelism} is not positive
+     */
+    public PageRankSensitivity(@UnmodifiableGraph DirectedGraph<V, ?> g, double dampingFactor, V target,
+                               double epsilon, int maxIterations, int parallelism) {
+        Conditions.requireArgument(dampingFactor >= 0 && dampingFactor <= 1,
+                "dampingFactor must be in [0,1], got %f", dampingFactor);
+        Conditions.requireArgument(epsilon > 0, "epsilon must be positive, got %f", epsilon);
+        Conditions.requireArgument(maxIterations > 0, "maxIterations must be positive, got %d", maxIterations);
+        Conditions.requireArgument(parallelism >= 1, "parallelism must be positive, got %d", parallelism);
+
+        this.graph = CompressedGraph.of(g);
+        this.dampingFactor = dampingFactor;
+        this.epsilon = epsilon;
+        this.maxIterations = maxIterations;
+        this.parallelism = parallelism;
+        this.target = graph.indexOf(Conditions.requireNonNull(target));
+
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double[] strengths = graph.outStrengths();
+        this.normalized = new double[weights.length];
+        for (int u = 0; u < n; u++) {
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                normalized[k] = weights[k] / strengths[u];
+            }
+        }
+
+        this.scores = uniform();
+        final boolean solved = solve(scores, -1, -1, 0);
+        this.z = new double[n];
+        this.converged = sensitivity(z) && solved;
+        this.rowProducts = new double[n];
+        for (int u = 0; u < n; u++) {
+            double s = 0;
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                s += weights[k] * z[targets[k]];
+            }
+            rowProducts[u] = s;
+        }
+    }
+
+    /**
+     * Construct an instance of {@link PageRankSensitivity} with {@link #DEFAULT_MAX_ITERATIONS} and parallelism equal
+     * to the number of available processors and compute the PageRank and sensitivity vectors.
+     *
+     * @param g             the input {@link DirectedGraph}
+     * @param dampingFactor the damping factor in {@code [0,1]}
+     * @param target        the vertex whose score is of interest
+     * @param epsilon       the precision of the convergence criterion of the iterations
+     * @throws NullPointerException     if {@code g} or {@code target} is {@code null}
+     * @throws IllegalVertexException   if {@code target} is not in {@code g}
+     * @throws IllegalArgumentException if {@code dampingFactor} is not in {@code [0,1]} or if {@code epsilon} is not
+     *                                  positive
+     */
+    public PageRankSensitivity(@UnmodifiableGraph DirectedGraph<V, ?> g, double dampingFactor, V target,
+                               double epsilon) {
+        this(g, dampingFactor, target, epsilon, DEFAULT_MAX_ITERATIONS, Runtime.getRuntime().availableProcessors());
+    }
+
+    private double[] uniform() {
+        final double[] x = new double[graph.vertexCount()];
+        Arrays.fill(x, 1.0);
+        return x;
+    }
+
+    /**
+     * Runs the power iteration {@code y = (1 - d) + d P' x} in place from {@code x}, where the row {@code u} of
+     * {@code P}, if {@code u} is not negative, is replaced by the row of the graph with the edge {@code (u,v)} removed,
+     * if {@code weight} is 0, or with {@code weight} added to the weight of {@code (u,v)} otherwise. Returns whether the
+     * iteration converged within the maximum number of iterations.
+     */
+    private boolean solve(double[] x, int u, int v, double weight) {
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final double d = dampingFactor;
+
+        // The strength of the modified row
+        double strength = 0;
+        if (u >= 0) {
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                if (targets[k] != v || weight != 0) {
+                    strength += weights[k];
+                }
+            }
+            strength += weight;
+        }
+
+        final double[] result = x;
+        double[] y = new double[n];
+        boolean converged = false;
+        for (int iteration = 0; iteration < maxIterations && !converged; iteration++) {
+            Arrays.fill(y, 1 - d);
+            for (int w = 0; w < n; w++) {
+                if (w == u) {
+                    if (strength > 0) {
+                        final double mass = d * x[w] / strength;
+                        for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                            if (targets[k] != v || weight != 0) {
+                                y[targets[k]] += mass * weights[k];
+                            }
+                        }
+                        y[v] += mass * weight;
+                    }
+                } else {
+                    final double mass = d * x[w];
+                    for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                        y[targets[k]] += mass * normalized[k];
+                    }
+                }
+            }
+            double change = 0;
+            for (int w = 0; w < n; w++) {
+                change = Math.max(change, Math.abs(y[w] - x[w]));
+            }
+            final double[] t = x;
+            x = y;
+            y = t;
+            converged = change <= epsilon;
+        }
+        if (x != result) {
+            System.arraycopy(x, 0, result, 0, n);
+        }
+        return converged;
+    }
+
+    /**
+     * Solves {@code (I - d P) z = e_t} or, if {@code d = 1}, {@code (I - P) z = e_t - x(t) / V} in place from
+     * {@code z} using the lazy iteration {@code z = (z + P z + b) / 2}, which converges on periodic graphs. Returns
+     * whether the iteration converged within the maximum number of iterations.
+     */
+    private boolean sensitivity(double[] z) {
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final boolean singular = dampingFactor == 1;
+        final double base = singular ? -scores[target] / n : 0;
+
+        double[] x = z;
+        double[] y = new double[n];
+        boolean converged = false;
+        for (int iteration = 0; iteration < maxIterations && !converged; iteration++) {
+            double change = 0;
+            for (int w = 0; w < n; w++) {
+                double s = 0;
+                for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                    s += normalized[k] * x[targets[k]];
+                }
+                final double b = (w == target ? 1 : 0) + base;
+                y[w] = singular ? (x[w] + s + b) / 2 : b + dampingFactor * s;
+                change = Math.max(change, Math.abs(y[w] - x[w]));
+            }
+            final double[] t = x;
+            x = y;
+            y = t;
+            converged = change <= epsilon;
+        }
+        if (x != z) {
+            System.arraycopy(x, 0, z, 0, n);
+        }
+        return converged;
+    }
+
+    /**
+     * Returns the change of the score of the target when the row of {@code u} is modified as in {@link #solve}, or
+     * {@link Double#NaN} if the repair does not converge.
+     */
+    private double effect(int u, int v, double weight) {
+        final double[] x = dampingFactor == 1 ? uniform() : scores.clone();
+        return solve(x, u, v, weight) ? x[target] - scores[target] : Double.NaN;
+    }
+
+    /**
+     * Returns the first order estimate of the change of the score of the target when the row of {@code u} changes
+     * from its current value to the row with weight product {@code product} and strength {@code strength}.
+     */
+    private double estimate(int u, double product, double strength) {
+        final double current = graph.outStrengths()[u];
+        if (dampingFactor == 1 && (current == 0 || strength <= 0)) {
+            return Double.NaN;
+        }
+        final double before = current > 0 ? rowProducts[u] / current : 0;
+        final double after = strength > 0 ? product / strength : 0;
+        return dampingFactor * scores[u] * (after - before);
+    }
+
+    private double weight(int u, int v) {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+            if (targets[k] == v) {
+                return graph.outWeights()[k];
+            }
+        }
+        return 0;
+    }
+
+    private int index(V v) {
+        return graph.indexOf(Conditions.requireNonNull(v));
+    }
+
+    /**
+     * Returns whether the iterations that computed the PageRank and sensitivity vectors of the graph converged within
+     * the maximum number of iterations.
+     * <p>
+     * If this method returns {@code false}, the scores, the estimates and the effects of this instance are based on
+     * the last iterates.
+     *
+     * @return {@code true} if the PageRank and sensitivity vectors converged, otherwise {@code false}
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Returns the PageRank score of the target.
+     *
+     * @return the PageRank score of the target
+     */
+    public double score() {
+        return scores[target];
+    }
+
+    /**
+     * Returns the PageRank scores of all vertices.
+     *
+     * @return a {@link GraphState} holding the PageRank scores of all vertices in the graph
+     */
+    public GraphState<V, Double> scores() {
+        return graph.toGraphState(scores);
+    }
+
+    /**
+     * Estimates the change of the score of the target if the edge {@code (source, target)} is removed.
+     * <p>
+     * This method runs in time {@code O(d)}, where {@code d} is the out degree of {@code source}.
+     *
+     * @param source the source of the edge
+     * @param target the target of the edge
+     * @return the first order estimate of the change of the score of the target
+     * @throws NullPointerException     if {@code source} or {@code target} is {@code null}
+     * @throws IllegalVertexException   if {@code source} or {@code target} is not in the graph
+     * @throws IllegalArgumentException if the edge does not exist
+     */
+    public double estimateRemoval(V source, V target) {
+        final int u = index(source);
+        final int v = index(target);
+        Conditions.requireArgument(graph.getGraph().containsEdge(source, target), "edge %s -> %s does not exist",
+                source, target);
+        final double w = weight(u, v);
+        return estimate(u, rowProducts[u] - w * z[v], graph.outStrengths()[u] - w);
+    }
+
+    /**
+     * Estimates the change of the score of the target if an edge {@code (source, target)} with weight {@code weight}
+     * is inserted, or if {@code weight} is added to the weight of an existing edge.
+     * <p>
+     * This method runs in constant time.
+     *
+     * @param source the source of the edge
+     * @param target the target of the edge
+     * @param weight the weight of the edge
+     * @return the first order estimate of the change of the score of the target
+     * @throws NullPointerException     if {@code source} or {@code target} is {@code null}
+     * @throws IllegalVertexException   if {@code source} or {@code target} is not in the graph
+     * @throws IllegalArgumentException if {@code weight} is not positive
+     */
+    public double estimateInsertion(V source, V target, double weight) {
+        Conditions.requireArgument(weight > 0, "weight must be positive, got %f", weight);
+        final int u = index(source);
+        final int v = index(target);
+        return estimate(u, rowProducts[u] + weight * z[v], graph.outStrengths()[u] + weight);
+    }
+
+    /**
+     * Computes the exact change of the score of the target if the edge {@code (source, target)} is removed, by
+     * repairing the PageRank vector.
+     *
+     * @param source the source of the edge
+     * @param target the target of the edge
+     * @return the change of the score of the target, or {@link Double#NaN} if the repair does not converge within
+     * the maximum number of iterations
+     * @throws NullPointerException     if {@code source} or {@code target} is {@code null}
+     * @throws IllegalVertexException   if {@code source} or {@code target} is not in the graph
+     * @throws IllegalArgumentException if the edge does not exist
+     */
+    public double removalEffect(V source, V target) {
+        Conditions.requireArgument(graph.getGraph().containsEdge(source, target), "edge %s -> %s does not exist",
+                source, target);
+        return effect(index(source), index(target), 0);
+    }
+
+    /**
+     * Computes the exact change of the score of the target if an edge {@code (source, target)} with weight
+     * {@code weight} is inserted, or if {@code weight} is added to the weight of an existing edge, by repairing the
+     * PageRank vector.
+     *
+     * @param source the source of the edge
+     * @param target the target of the edge
+     * @param weight the weight of the edge
+     * @return the change of the score of the target, or {@link Double#NaN} if the repair does not converge within
+     * the maximum number of iterations
+     * @throws NullPointerException     if {@code source} or {@code target} is {@code null}
+     * @throws IllegalVertexException   if {@code source} or {@code target} is not in the graph
+     * @throws IllegalArgumentException if {@code weight} is not positive
+     */
+    public double insertionEffect(V source, V target, double weight) {
+        Conditions.requireArgument(weight > 0, "weight must be positive, got %f", weight);
+        return effect(index(source), index(target), weight);
+    }
+
+    /**
+     * Ranks the removals of all edges of the graph by their effect on the score of the target.
+     * <p>
+     * All removals are estimated in time {@code O(E)} and the {@code REFINEMENT_FACTOR * k} best estimates are
+     * repaired exactly, in parallel.
+     *
+     * @param k the number of changes to return
+     * @return the {@code min(k, E)} removals with the largest exact increase of the score of the target among the
+     * repaired removals, in descending order
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<Change<V>> rankRemovals(int k) {
+        Conditions.requireArgument(k >= 0, "k must be non-negative, got %d", k);
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        final List<Change<V>> candidates = new ArrayList<>(graph.edgeCount());
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                final int v = targets[e];
+                final double estimate = estimate(u, rowProducts[u] - weights[e] * z[v],
+                        graph.outStrengths()[u] - weights[e]);
+                candidates.add(new Change<>(graph.vertex(u), graph.vertex(v), weights[e], false, estimate,
+                        Double.NaN));
+            }
+        }
+        return refine(candidates, k);
+    }
+
+    /**
+     * Ranks the insertions of the given candidate edges with weight {@code weight} by their effect on the score of the
+     * target.
+     * <p>
+     * All insertions are estimated in time {@code O(1)} each and the {@code REFINEMENT_FACTOR * k} best estimates are
+     * repaired exactly, in parallel.
+     *
+     * @param candidates the candidate edges
+     * @param weight     the weight of the inserted edges
+     * @param k          the number of changes to return
+     * @return the {@code min(k, candidates.size())} insertions with the largest exact increase of the score of the
+     * target among the repaired insertions, in descending order
+     * @throws NullPointerException     if {@code candidates} or any of its elements is {@code null}
+     * @throws IllegalVertexException   if any of the candidate vertices is not in the graph
+     * @throws IllegalArgumentException if {@code weight} is not positive or if {@code k} is negative
+     */
+    public List<Change<V>> rankInsertions(Collection<VertexPair<V>> candidates, double weight, int k) {
+        Conditions.requireArgument(k >= 0, "k must be non-negative, got %d", k);
+        final List<Change<V>> changes = new ArrayList<>(candidates.size());
+        for (VertexPair<V> pair : candidates) {
+            final double estimate = estimateInsertion(pair.getSource(), pair.getTarget(), weight);
+            changes.add(new Change<>(pair.getSource(), pair.getTarget(), weight, true, estimate, Double.NaN));
+        }
+        return refine(changes, k);
+    }
+
+    /**
+     * Ranks the insertions of all missing edges towards the target with weight {@code weight} by their effect on the
+     * score of the target.
+     *
+     * @param weight the weight of the inserted edges
+     * @param k      the number of changes to return
+     * @return the {@code k} insertions of edges towards the target with the largest exact increase of the score of the
+     * target among the repaired insertions, in descending order
+     * @throws IllegalArgumentException if {@code weight} is not positive or if {@code k} is negative
+     */
+    public List<Change<V>> rankInsertions(double weight, int k) {
+        final V t = graph.vertex(target);
+        final List<VertexPair<V>> candidates = new ArrayList<>();
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            if (u != target && weight(u, target) == 0) {
+                candidates.add(new VertexPair<>(graph.vertex(u), t));
+            }
+        }
+        return rankInsertions(candidates, weight, k);
+    }
+
+    private List<Change<V>> refine(List<Change<V>> candidates, int k) {
+        final Comparator<Change<V>> byEstimate = Comparator.comparingDouble(c -> Double.isNaN(c.estimate) ?
+                Double.NEGATIVE_INFINITY : c.estimate);
+        candidates.sort(byEstimate.reversed());
+        final int count = (int) Math.min(candidates.size(), (long) REFINEMENT_FACTOR * k);
+        final List<Change<V>> top = candidates.subList(0, count);
+        final int blocks = Math.max(1, Math.min(parallelism, count));
+        final List<Change<V>> result = IntStream.range(0, blocks).parallel()
+                .mapToObj(b -> {
+                    final List<Change<V>> block = new ArrayList<>();
+                    for (int i = b; i < count; i += blocks) {
+                        final Change<V> c = top.get(i);
+                        final double effect = c.insertion ?
+                                insertionEffect(c.source, c.target, c.weight) :
+                                removalEffect(c.source, c.target);
+                        block.add(new Change<>(c.source, c.target, c.weight, c.insertion, c.estimate, effect));
+                    }
+                    return block;
+                })
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        final Comparator<Change<V>> byEffect = Comparator.comparingDouble(c -> Double.isNaN(c.effect) ?
+                Double.NEGATIVE_INFINITY : c.effect);
+        result.sort(byEffect.reversed());
+        return Collections.unmodifiableList(result.subList(0, Math.min(k, result.size())));
+    }
+}
@@ -0,0 +1,202 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.util.Conditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Helper methods for the top {@code k} and ranked iteration methods of {@link VertexScoring}.
+ * <p>
+ * All the methods order the vertices in descending order of score and break ties by the position of the vertex in the
+ * iteration order of the scores, so that the top {@code k} of a scoring is always a prefix of its top {@code k + 1}.
+ * The selection uses a bounded heap of size {@code k}, which runs in time {@code O(V lg k)} and uses {@code O(k)}
+ * additional memory.
+ */
+final class Ranking {
+    private Ranking() {
+    }
+
+    /**
+     * Returns the indices of the {@code k} largest elements of {@code scores} in descending order.
+     *
+     * @param scores the scores
+     * @param k      the number of indices
+     * @return the indices of the {@code k} largest elements of {@code scores}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    static int[] topK(double[] scores, int k) {
+        Conditions.requireArgument(k >= 0, "k must be non-negative, got %d", k);
+        final int size = Math.min(k, scores.length);
+        // Min heap with respect to the ranking, the root is the worst of the current top k
+        final int[] heap = new int[size];
+        int count = 0;
+        for (int i = 0; i < scores.length && size > 0; i++) {
+            if (count < size) {
+                heap[count] = i;
+                siftUp(scores, heap, count++);
+            } else if (before(scores, i, heap[0])) {
+                heap[0] = i;
+                siftDown(scores, heap, 0, count);
+            }
+        }
+        final int[] top = new int[size];
+        while (count > 0) {
+            top[--count] = heap[0];
+            heap[0] = heap[count];
+            siftDown(scores, heap, 0, count);
+        }
+        return top;
+    }
+
+    /**
+     * Returns the vertices of {@code graph} with the {@code k} largest elements of {@code scores} in descending order.
+     *
+     * @param graph  the graph that indexes {@code scores}
+     * @param scores the scores
+     * @param k      the number of vertices
+     * @param <V>    the vertex type
+     * @return the vertices with the {@code k} largest scores
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    static <V> List<V> topK(CompressedGraph<V> graph, double[] scores, int k) {
+        final int[] top = topK(scores, k);
+        final List<V> vertices = new ArrayList<>(top.length);
+        for (int i : top) {
+            vertices.add(graph.vertex(i));
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns the keys of the {@code k} largest values of {@code scores} in descending order.
+     *
+     * @param scores     the scores
+     * @param k          the number of keys
+     * @param comparator the comparator of the values
+     * @param <V>        the vertex type
+     * @param <T>        the score type
+     * @return the keys of the {@code k} largest values of {@code scores}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    static <V, T> List<V> topK(Map<V, T> scores, int k, Comparator<? super T> comparator) {
+        Conditions.requireArgument(k >= 0, "k must be non-negative, got %d", k);
+        Conditions.requireNonNull(comparator);
+        final Comparator<Candidate<V, T>> ranking = (a, b) -> {
+            final int c = comparator.compare(a.score, b.score);
+            return c != 0 ? c : Integer.compare(b.position, a.position);
+        };
+        final PriorityQueue<Candidate<V, T>> heap = new PriorityQueue<>(Math.max(1, Math.min(k, scores.size())),
+                ranking);
+        int position = 0;
+        for (Map.Entry<V, T> e : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(new Candidate<>(e.getKey(), e.getValue(), position));
+            } else if (k > 0 && comparator.compare(e.getValue(), heap.peek().score) > 0) {
+                heap.poll();
+                heap.add(new Candidate<>(e.getKey(), e.getValue(), position));
+            }
+            position++;
+        }
+        final List<V> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(heap.poll().vertex);
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    /**
+     * Returns a lazy {@link Iterator} over all the vertices in descending order of score.
+     * <p>
+     * The iterator requests the top {@code k} vertices in batches of doubling size, so that consuming the first
+     * {@code m} vertices uses {@code O(m)} memory.
+     *
+     * @param topK the top {@code k} function, which must be consistent for increasing {@code k}
+     * @param size the number of vertices
+     * @param <V>  the vertex type
+     * @return a lazy {@link Iterator} over all the vertices in descending order of score
+     */
+    static <V> Iterator<V> ranked(IntFunction<List<V>> topK, int size) {
+        return new Iterator<V>() {
+            private List<V> batch = Collections.emptyList();
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (next == batch.size()) {
+                    batch = topK.apply((int) Math.min(size, Math.max(16L, 2L * batch.size())));
+                }
+                return batch.get(next++);
+            }
+        };
+    }
+
+    private static boolean before(double[] scores, int a, int b) {
+        final int c = Double.compare(scores[a], scores[b]);
+        return c > 0 || (c == 0 && a < b);
+    }
+
+    private static void siftUp(double[] scores, int[] heap, int i) {
+        final int v = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (!before(scores, heap[parent], v)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(double[] scores, int[] heap, int i, int size) {
+        if (size == 0) {
+            return;
+        }
+        final int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(scores, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!before(scores, v, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static final class Candidate<V, T> {
+        private final V vertex;
+        private final T score;
+        private final int position;
+
+        private Candidate(V vertex, T score, int position) {
+            this.vertex = vertex;
+            this.score = score;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+
+import java.util.Arrays;
+
+/**
+ * Reusable single source shortest paths search on a {@link CompressedGraph} that also counts the number of shortest
+ * paths to each vertex.
+ * <p>
+ * The edge weights are treated as distances. If all the edges of the graph have the same weight, the search is a
+ * breadth first search that counts hops, otherwise it is a Dijkstra search with an indexed binary heap. The search does
+ * not store predecessors; the inbound edge with index {@code k} of a vertex {@code w} lies on a shortest path if
+ * {@link #isShortestPathEdge(int, int)} returns {@code true}.
+ * <p>
+ * An instance uses state of size {@code O(V)} and is meant to be reused for many searches by a single thread. Only the
+ * vertices that were touched by a search are reset by {@link #reset()}, so a search that stops early at a target is
+ * also cheap to undo.
+ */
+final class ShortestPathSearch {
+    private final CompressedGraph<?> graph;
+    private final boolean unweighted;
+    private final double[] distance;
+    private final double[] paths;
+    /**
+     * The vertices in the order they were settled, which is also the breadth first queue.
+     */
+    private final int[] order;
+    private final int[] heap;
+    private final int[] position;
+    private int settled;
+    private int discovered;
+    private int heapSize;
+
+    ShortestPathSearch(CompressedGraph<?> graph) {
+        final int n = graph.vertexCount();
+        this.graph = graph;
+        this.unweighted = graph.isUnweighted();
+        this.distance = new double[n];
+        this.paths = new double[n];
+        this.order = new int[n];
+        this.heap = new int[n];
+        this.position = new int[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Runs the search from {@code source} until all reachable vertices are settled or until {@code target} is settled.
+     *
+     * @param source the source index
+     * @param target the target index or {@code -1} to settle all reachable vertices
+     */
+    void search(int source, int target) {
+        search(source, target < 0 ? null : v -> v == target);
+    }
+
+    /**
+     * Runs the search from {@code source} until all reachable vertices are settled or until {@code cutoff} returns
+     * {@code true} for a vertex that was just settled.
+     *
+     * @param source the source index
+     * @param cutoff the cutoff or {@code null} to settle all reachable vertices
+     */
+    void search(int source, Cutoff cutoff) {
+        distance[source] = 0;
+        paths[source] = 1;
+        if (unweighted) {
+            breadthFirst(source, cutoff);
+        } else {
+            dijkstra(source, cutoff);
+        }
+    }
+
+    private void breadthFirst(int source, Cutoff cutoff) {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        order[0] = source;
+        discovered = 1;
+        for (settled = 0; settled < discovered; ) {
+            final int u = order[settled++];
+            if (cutoff != null && cutoff.test(u)) {
+                return;
+            }
+            final double next = distance[u] + 1;
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                final int w = targets[k];
+                if (distance[w] == Double.POSITIVE_INFINITY) {
+                    distance[w] = next;
+                    order[discovered++] = w;
+                }
+                if (distance[w] == next) {
+                    paths[w] += paths[u];
+                }
+            }
+        }
+    }
+
+    private void dijkstra(int source, Cutoff cutoff) {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final double[] weights = graph.outWeights();
+        settled = 0;
+        push(source);
+        while (heapSize > 0) {
+            final int u = pop();
+            order[settled++] = u;
+            if (cutoff != null && cutoff.test(u)) {
+                return;
+            }
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                final int w = targets[k];
+                final double next = distance[u] + weights[k];
+                if (next < distance[w]) {
+                    final boolean found = distance[w] == Double.POSITIVE_INFINITY;
+                    distance[w] = next;
+                    paths[w] = paths[u];
+                    if (found) {
+                        push(w);
+                    } else {
+                        siftUp(position[w]);
+                    }
+                } else if (next == distance[w]) {
+                    paths[w] += paths[u];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of settled vertices.
+     *
+     * @return the number of settled vertices
+     */
+    int settled() {
+        return settled;
+    }
+
+    /**
+     * Returns the {@code i}-th settled vertex, in non-decreasing order of distance.
+     *
+     * @param i the settle order
+     * @return the {@code i}-th settled vertex
+     */
+    int settled(int i) {
+        return order[i];
+    }
+
+    /**
+     * Returns the distance from the source to a settled vertex, which is the number of hops if the search is a breadth
+     * first search.
+     *
+     * @param v the vertex index
+     * @return the distance from the source to {@code v}
+     */
+    double distance(int v) {
+        return distance[v];
+    }
+
+    /**
+     * Returns the number of shortest paths from the source to a settled vertex.
+     *
+     * @param v the vertex index
+     * @return the number of shortest paths from the source to {@code v}
+     */
+    double paths(int v) {
+        return paths[v];
+    }
+
+    /**
+     * Returns {@code true} if the inbound edge with index {@code k} of the settled vertex {@code w} lies on a shortest
+     * path from the source to {@code w}.
+     *
+     * @param k the index of the edge in the inbound arrays of the {@link CompressedGraph}
+     * @param w the target of the edge
+     * @return {@code true} if the edge lies on a shortest path to {@code w}, otherwise {@code false}
+     */
+    boolean isShortestPathEdge(int k, int w) {
+        final double length = unweighted ? 1 : graph.inWeights()[k];
+        return distance[graph.inSources()[k]] + length == distance[w];
+    }
+
+    /**
+     * Resets the state of the vertices touched by the last search.
+     */
+    void reset() {
+        final int touched = unweighted ? discovered : settled;
+        for (int i = 0; i < touched; i++) {
+            clear(order[i]);
+        }
+        for (int i = 0; i < heapSize; i++) {
+            position[heap[i]] = -1;
+            clear(heap[i]);
+        }
+        settled = 0;
+        discovered = 0;
+        heapSize = 0;
+    }
+
+    private void clear(int v) {
+        distance[v] = Double.POSITIVE_INFINITY;
+        paths[v] = 0;
+    }
+
+    private void push(int v) {
+        heap[heapSize] = v;
+        position[v] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        final int top = heap[0];
+        position[top] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        final int v = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (distance[heap[parent]] <= distance[v]) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    private void siftDown(int i) {
+        final int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && distance[heap[child + 1]] < distance[heap[child]]) {
+                child++;
+            }
+            if (distance[v] <= distance[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    /**
+     * A condition that stops a search early.
+     */
+    @FunctionalInterface
+    interface Cutoff {
+        /**
+         * Tests whether the search should stop after settling vertex {@code v}.
+         * <p>
+         * The vertices are settled in non-decreasing order of distance, so all the unsettled vertices have a distance
+         * at least {@code distance(v)}.
+         *
+         * @param v the vertex that was just settled
+         * @return {@code true} if the search should stop, otherwise {@code false}
+         */
+        boolean test(int v);
+    }
+}
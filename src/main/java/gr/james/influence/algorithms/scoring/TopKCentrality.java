@@ -0,0 +1,184 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.annotation.UnmodifiableGraph;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.Conditions;
+import gr.james.influence.util.collections.Weighted;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the {@code k} vertices with the highest {@link ClosenessCentrality closeness} or
+ * {@link HarmonicCentrality harmonic} centrality without computing the centralities of all vertices exactly.
+ * <p>
+ * The vertices are processed in decreasing order of out degree and a shortest paths search is performed from each.
+ * Whenever a vertex at distance {@code d} is settled, all the unsettled vertices are at distance at least {@code d},
+ * which yields an upper bound of the centrality of the source, similar to the bounds of Bergamini et al. If the bound
+ * cannot enter the current top {@code k}, the search is abandoned. Because the first vertices usually have high
+ * centralities, most of the searches of the remaining vertices stop after a few levels.
+ * <p>
+ * The scores are equal to the scores of {@link ClosenessCentrality} and {@link HarmonicCentrality}, including the edge
+ * weights treated as distances. The search is a breadth first search if all the edges have the same weight, otherwise
+ * it is a Dijkstra search. If several vertices have the same score at the boundary of the top {@code k}, it is
+ * unspecified which of them are returned.
+ * <p>
+ * This class uses state of size {@code O(V+E)}.
+ *
+ * @param <V> the vertex type
+ * @see "Bergamini, Elisabetta, et al. Computing top-k closeness centrality faster in unweighted graphs. ACM
+ * Transactions on Knowledge Discovery from Data 13.5 (2019): 1-40."
+ */
+public class TopKCentrality<V> {
+    private final List<Weighted<V, Double>> ranking;
+    private final long settled;
+
+    /**
+     * Construct an instance of {@link TopKCentrality} and run the algorithm.
+     *
+     * @param g       the input {@link DirectedGraph}
+     * @param k       the number of vertices to return
+     * @param measure the centrality measure
+     * @throws NullPointerException     if {@code g} or {@code measure} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public TopKCentrality(@UnmodifiableGraph DirectedGraph<V, ?> g, int k, Measure measure) {
+        Conditions.requireArgument(k >= 0, "k must be non-negative, got %d", k);
+        Conditions.requireNonNull(measure);
+
+        final CompressedGraph<V> graph = CompressedGraph.of(g);
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final double unit = graph.isUnweighted() && graph.edgeCount() > 0 ? graph.outWeights()[0] : 1.0;
+        final boolean harmonic = measure == Measure.HARMONIC;
+
+        final int[] order = IntStream.range(0, n).boxed()
+                .sorted((a, b) -> Integer.compare(offsets[b + 1] - offsets[b], offsets[a + 1] - offsets[a]))
+                .mapToInt(Integer::intValue).toArray();
+
+        // Min heap of the current top k by score, the scores are higher for more central vertices
+        final PriorityQueue<Weighted<Integer, Double>> top = new PriorityQueue<>(Math.max(1, k));
+        final ShortestPathSearch search = new ShortestPathSearch(graph);
+        final double[] sum = new double[1];
+        final boolean[] pruned = new boolean[1];
+        long settled = 0;
+
+        for (int s : order) {
+            if (k == 0) {
+                break;
+            }
+            final boolean full = top.size() == k;
+            final double threshold = full ? top.peek().weight : Double.NEGATIVE_INFINITY;
+            final int source = s;
+            sum[0] = 0;
+            pruned[0] = false;
+            search.search(s, v -> {
+                if (v == source) {
+                    return false;
+                }
+                final double d = search.distance(v) * unit;
+                sum[0] += harmonic ? 1 / d : d;
+                if (!full) {
+                    return false;
+                }
+                final int remaining = n - search.settled();
+                final double bound = harmonic ? sum[0] + remaining / d : n / (sum[0] + remaining * d);
+                pruned[0] = bound < threshold;
+                return pruned[0];
+            });
+            settled += search.settled();
+            if (!pruned[0]) {
+                final double score;
+                if (harmonic) {
+                    score = sum[0];
+                } else {
+                    score = search.settled() == n ? n / sum[0] : 0.0;
+                }
+                if (!full) {
+                    top.add(new Weighted<>(s, score));
+                } else if (score > threshold) {
+                    top.poll();
+                    top.add(new Weighted<>(s, score));
+                }
+            }
+            search.reset();
+        }
+
+        final List<Weighted<V, Double>> ranking = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            final Weighted<Integer, Double> w = top.poll();
+            ranking.add(new Weighted<>(graph.vertex(w.object), w.weight));
+        }
+        Collections.reverse(ranking);
+        this.ranking = Collections.unmodifiableList(ranking);
+        this.settled = settled;
+    }
+
+    /**
+     * Convenience function to get the {@code k} vertices with the highest closeness centrality.
+     *
+     * @param g   the input {@link DirectedGraph}
+     * @param k   the number of vertices to return
+     * @param <V> the vertex type
+     * @return the {@code k} vertices with the highest closeness centrality in descending order
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public static <V> List<Weighted<V, Double>> closeness(DirectedGraph<V, ?> g, int k) {
+        return new TopKCentrality<>(g, k, Measure.CLOSENESS).ranking();
+    }
+
+    /**
+     * Convenience function to get the {@code k} vertices with the highest harmonic centrality.
+     *
+     * @param g   the input {@link DirectedGraph}
+     * @param k   the number of vertices to return
+     * @param <V> the vertex type
+     * @return the {@code k} vertices with the highest harmonic centrality in descending order
+     * @throws NullPointerException     if {@code g} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public static <V> List<Weighted<V, Double>> harmonic(DirectedGraph<V, ?> g, int k) {
+        return new TopKCentrality<>(g, k, Measure.HARMONIC).ranking();
+    }
+
+    /**
+     * Returns the {@code k} vertices with the highest centrality and their scores, in descending order of score.
+     * <p>
+     * The list contains fewer than {@code k} elements if the graph has fewer than {@code k} vertices.
+     *
+     * @return an unmodifiable {@link List} of the top {@code k} vertices and their scores
+     */
+    public List<Weighted<V, Double>> ranking() {
+        return ranking;
+    }
+
+    /**
+     * Returns the total number of vertices settled by all the searches, which is {@code V^2} for a strongly connected
+     * graph without pruning.
+     *
+     * @return the total number of vertices settled by all the searches
+     */
+    public long settled() {
+        return settled;
+    }
+
+    /**
+     * The centrality measure of {@link TopKCentrality}.
+     */
+    public enum Measure {
+        /**
+         * The {@link ClosenessCentrality closeness centrality}.
+         */
+        CLOSENESS,
+
+        /**
+         * The {@link HarmonicCentrality harmonic centrality}.
+         */
+        HARMONIC
+    }
+}
@@ -3,6 +3,10 @@ package gr.james.influence.algorithms.scoring;
 import gr.james.influence.exceptions.IllegalVertexException;
 import gr.james.influence.util.collections.GraphState;
 
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Represents an algorithm that assigns a score to a vertex.
  *
@@ -29,4 +33,52 @@ public interface VertexScoring<V, T> {
      * @return a {@link GraphState} object holding the scores of all vertices in the graph
      */
     GraphState<V, T> scores();
+
+    /**
+     * Get the {@code k} vertices with the highest scores in descending order of score, according to the natural
+     * ordering of the scores.
+     * <p>
+     * Ties are broken by the iteration order of {@link #scores()}. The default implementation selects the vertices from
+     * {@link #scores()} using a bounded heap in time {@code O(V lg k)} and {@code O(k)} additional memory.
+     *
+     * @param k the number of vertices
+     * @return a {@link List} of the {@code min(k, V)} vertices with the highest scores
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @throws ClassCastException       if the scores are not {@link Comparable}
+     */
+    @SuppressWarnings("unchecked")
+    default List<V> topK(int k) {
+        return topK(k, (a, b) -> ((Comparable<Object>) a).compareTo(b));
+    }
+
+    /**
+     * Get the {@code k} vertices with the highest scores in descending order of score, according to the given
+     * {@link Comparator}.
+     * <p>
+     * Ties are broken by the iteration order of {@link #scores()}. The default implementation selects the vertices from
+     * {@link #scores()} using a bounded heap in time {@code O(V lg k)} and {@code O(k)} additional memory.
+     *
+     * @param k          the number of vertices
+     * @param comparator the {@link Comparator} of the scores
+     * @return a {@link List} of the {@code min(k, V)} vertices with the highest scores
+     * @throws NullPointerException     if {@code comparator} is {@code null}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    default List<V> topK(int k, Comparator<? super T> comparator) {
+        return Ranking.topK(scores(), k, comparator);
+    }
+
+    /**
+     * Returns a lazy {@link Iterator} over all the vertices in descending order of score, according to the natural
+     * ordering of the scores.
+     * <p>
+     * The iterator is backed by {@link #topK(int)} invoked with doubling {@code k}, so that consuming the first
+     * {@code m} vertices uses {@code O(m)} memory and time {@code O(V lg m)} for each doubling.
+     *
+     * @return a lazy {@link Iterator} over all the vertices in descending order of score
+     * @throws ClassCastException if the scores are not {@link Comparable}
+     */
+    default Iterator<V> ranked() {
+        return Ranking.ranked(this::topK, scores().size());
+    }
 }
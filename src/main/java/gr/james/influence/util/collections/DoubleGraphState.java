@@ -0,0 +1,557 @@
+package gr.james.influence.util.collections;
+
+import com.google.common.collect.ForwardingMap;
+import gr.james.influence.util.Conditions;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A {@link GraphState} of {@link Double} values backed by a {@link VertexIndex} and a primitive {@code double[]}.
+ * <p>
+ * A {@link GraphState} stores each value boxed in a {@link java.util.HashMap} entry, which costs several dozens of
+ * bytes per vertex. This class stores the values in a {@code double[]} indexed by a {@link VertexIndex}, which is meant
+ * to be shared among the states of the same graph, so that each state costs 8 bytes per vertex. The bulk operations of
+ * {@link GraphState}, like {@link #getSum()}, {@link #subtract(GraphState)} or {@link #abs()}, are overridden with
+ * plain loops over the array.
+ * <p>
+ * This class is a fully functional {@link GraphState}. Replacing the values of the vertices of the index uses the
+ * array, while a structural change, like inserting a key that is not in the index, removing a key or inserting a
+ * {@code null} value, copies the mappings to a {@link LinkedHashMap} that backs the state from then on. After a
+ * structural change, the methods that refer to positions of the index, {@link #valueAt(int)},
+ * {@link #setValueAt(int, double)} and {@link #toArray()}, throw {@link IllegalStateException}.
+ *
+ * @param <V> the vertex type
+ * @see VertexIndex
+ */
+public class DoubleGraphState<V> extends GraphState<V, Double> {
+    private final VertexIndex<V> index;
+    private final double[] values;
+    private final Map<V, Double> view;
+    private Map<V, Double> fallback;
+
+    private DoubleGraphState(VertexIndex<V> index, double[] values) {
+        this.index = index;
+        this.values = values;
+        this.view = new View();
+    }
+
+    /**
+     * Create and return a new {@link DoubleGraphState} over the given index with all values set to 0.
+     *
+     * @param index the {@link VertexIndex}
+     * @param <V>   the vertex type
+     * @return a new {@link DoubleGraphState} over {@code index} with all values set to 0
+     * @throws NullPointerException if {@code index} is {@code null}
+     */
+    public static <V> DoubleGraphState<V> create(VertexIndex<V> index) {
+        return new DoubleGraphState<>(index, new double[index.size()]);
+    }
+
+    /**
+     * Create and return a new {@link DoubleGraphState} over the given index with all values set to {@code value}.
+     *
+     * @param index the {@link VertexIndex}
+     * @param value the value to associate with each vertex
+     * @param <V>   the vertex type
+     * @return a new {@link DoubleGraphState} over {@code index} with all values set to {@code value}
+     * @throws NullPointerException if {@code index} is {@code null}
+     */
+    public static <V> DoubleGraphState<V> create(VertexIndex<V> index, double value) {
+        final DoubleGraphState<V> state = create(index);
+        Arrays.fill(state.values, value);
+        return state;
+    }
+
+    /**
+     * Create and return a new {@link DoubleGraphState} over the given index with a copy of the given values.
+     *
+     * @param index  the {@link VertexIndex}
+     * @param values the values in index order
+     * @param <V>    the vertex type
+     * @return a new {@link DoubleGraphState} over {@code index} with a copy of {@code values}
+     * @throws NullPointerException     if {@code index} or {@code values} is {@code null}
+     * @throws IllegalArgumentException if the length of {@code values} is not the size of {@code index}
+     */
+    public static <V> DoubleGraphState<V> of(VertexIndex<V> index, double[] values) {
+        Conditions.requireArgument(values.length == index.size(), "values length must be %d, got %d",
+                index.size(), values.length);
+        return new DoubleGraphState<>(index, values.clone());
+    }
+
+    /**
+     * Create and return a new {@link DoubleGraphState} with the same mappings as the given map.
+     * <p>
+     * This method creates a new {@link VertexIndex} from the keys of {@code state}.
+     *
+     * @param state the map to copy
+     * @param <V>   the vertex type
+     * @return a new {@link DoubleGraphState} with the same mappings as {@code state}
+     * @throws NullPointerException if {@code state} is {@code null} or contains {@code null} keys or values
+     */
+    public static <V> DoubleGraphState<V> copyOf(Map<V, ? extends Number> state) {
+        final VertexIndex<V> index = VertexIndex.of(state.keySet());
+        final DoubleGraphState<V> copy = create(index);
+        for (int i = 0; i < index.size(); i++) {
+            copy.values[i] = state.get(index.vertex(i)).doubleValue();
+        }
+        return copy;
+    }
+
+    /**
+     * Create and return a new {@link DoubleGraphState} over the given index with the values of {@code state}.
+     * <p>
+     * Vertices of {@code index} that are not in {@code state} or that are mapped to {@code null} are assigned
+     * {@code defaultValue} and vertices of {@code state} that are not in {@code index} are ignored. If {@code state} is
+     * a {@link DoubleGraphState} over the same index, its array is copied directly.
+     *
+     * @param index        the {@link VertexIndex}
+     * @param state        the map to copy
+     * @param defaultValue the value of the vertices that are missing from {@code state}
+     * @param <V>          the vertex type
+     * @return a new {@link DoubleGraphState} over {@code index} with the values of {@code state}
+     * @throws NullPointerException if {@code index} or {@code state} is {@code null}
+     */
+    public static <V> DoubleGraphState<V> copyOf(VertexIndex<V> index, Map<V, ? extends Number> state,
+                                                 double defaultValue) {
+        if (state instanceof DoubleGraphState && ((DoubleGraphState<?>) state).isIndexedBy(index)) {
+            return new DoubleGraphState<>(index, ((DoubleGraphState<?>) state).values.clone());
+        }
+        final DoubleGraphState<V> copy = create(index);
+        for (int i = 0; i < index.size(); i++) {
+            final Number x = state.get(index.vertex(i));
+            copy.values[i] = x == null ? defaultValue : x.doubleValue();
+        }
+        return copy;
+    }
+
+    @Override
+    protected Map<V, Double> delegate() {
+        return view;
+    }
+
+    /**
+     * Returns whether this state is backed by an array over {@code index}.
+     * <p>
+     * This is the case if {@code index} is the {@link #index()} of this state and the keys of this state have not
+     * changed, which is when the methods that refer to positions of the index, like {@link #toArray()}, can be used.
+     *
+     * @param index the {@link VertexIndex}
+     * @return {@code true} if this state is backed by an array over {@code index}, otherwise {@code false}
+     */
+    public boolean isIndexedBy(VertexIndex<?> index) {
+        return fallback == null && this.index == index;
+    }
+
+    private void requireIndexed() {
+        if (fallback != null) {
+            throw new IllegalStateException("the keys of this state no longer match its index");
+        }
+    }
+
+    /**
+     * Copies the mappings to the {@link LinkedHashMap} that backs this state after a structural change.
+     */
+    private Map<V, Double> fallback() {
+        if (fallback == null) {
+            final Map<V, Double> map = new LinkedHashMap<>(values.length * 2);
+            for (int i = 0; i < values.length; i++) {
+                map.put(index.vertex(i), values[i]);
+            }
+            fallback = map;
+        }
+        return fallback;
+    }
+
+    /**
+     * Returns the {@link VertexIndex} of this state.
+     *
+     * @return the {@link VertexIndex} of this state
+     */
+    public VertexIndex<V> index() {
+        return index;
+    }
+
+    /**
+     * Returns the value of vertex {@code v} without boxing.
+     *
+     * @param v the vertex
+     * @return the value of vertex {@code v}
+     * @throws IllegalArgumentException if {@code v} is not a key of this state or is mapped to {@code null}
+     */
+    public double getDouble(V v) {
+        if (fallback != null) {
+            final Double x = fallback.get(v);
+            Conditions.requireArgument(x != null, "vertex %s has no value", v);
+            return x;
+        }
+        final int i = index.indexOf(v);
+        Conditions.requireArgument(i >= 0, "vertex %s is not in the index", v);
+        return values[i];
+    }
+
+    /**
+     * Sets the value of vertex {@code v} without boxing, where possible.
+     *
+     * @param v     the vertex
+     * @param value the new value
+     */
+    public void set(V v, double value) {
+        final int i = fallback == null ? index.indexOf(v) : -1;
+        if (i >= 0) {
+            values[i] = value;
+        } else {
+            fallback().put(v, value);
+        }
+    }
+
+    /**
+     * Returns the value of the vertex with index {@code i}.
+     *
+     * @param i the index
+     * @return the value of the vertex with index {@code i}
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is not in {@code [0, size())}
+     * @throws IllegalStateException          if the keys of this state have changed
+     */
+    public double valueAt(int i) {
+        requireIndexed();
+        return values[i];
+    }
+
+    /**
+     * Sets the value of the vertex with index {@code i}.
+     *
+     * @param i     the index
+     * @param value the new value
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is not in {@code [0, size())}
+     * @throws IllegalStateException          if the keys of this state have changed
+     */
+    public void setValueAt(int i, double value) {
+        requireIndexed();
+        values[i] = value;
+    }
+
+    /**
+     * Returns a copy of the values of this state in index order.
+     *
+     * @return a new array containing the values of this state in index order
+     * @throws IllegalStateException if the keys of this state have changed
+     */
+    public double[] toArray() {
+        requireIndexed();
+        return values.clone();
+    }
+
+    @Override
+    public int size() {
+        return fallback == null ? values.length : fallback.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return fallback == null ? index.indexOf(key) >= 0 : fallback.containsKey(key);
+    }
+
+    @Override
+    public Double get(Object key) {
+        if (fallback != null) {
+            return fallback.get(key);
+        }
+        final int i = index.indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public Double put(V key, Double value) {
+        final int i = fallback == null && value != null ? index.indexOf(key) : -1;
+        if (i < 0) {
+            return fallback().put(key, value);
+        }
+        final double previous = values[i];
+        values[i] = value;
+        return previous;
+    }
+
+    @Override
+    public Double remove(Object key) {
+        return containsKey(key) ? fallback().remove(key) : null;
+    }
+
+    @Override
+    public void clear() {
+        fallback().clear();
+    }
+
+    @Override
+    public long fingerprint() {
+        if (fallback != null) {
+            return super.fingerprint();
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < values.length; i++) {
+            fingerprint += fingerprint(index.vertex(i), Double.doubleToLongBits(values[i]));
+        }
+        return fingerprint;
+    }
+
+    @Deprecated
+    @Override
+    public double getAsDouble(V v) {
+        return fallback == null ? getDouble(v) : super.getAsDouble(v);
+    }
+
+    private DoubleGraphState<V> map(DoubleUnaryOperator f) {
+        final double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = f.applyAsDouble(values[i]);
+        }
+        return new DoubleGraphState<>(index, result);
+    }
+
+    @Override
+    public GraphState<V, Double> subtract(GraphState<V, Double> r) {
+        if (fallback != null) {
+            return super.subtract(r);
+        }
+        final double[] result = new double[values.length];
+        if (r instanceof DoubleGraphState && ((DoubleGraphState<V>) r).isIndexedBy(index)) {
+            final double[] other = ((DoubleGraphState<V>) r).values;
+            for (int i = 0; i < values.length; i++) {
+                result[i] = values[i] - other[i];
+            }
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                result[i] = values[i] - r.get(index.vertex(i));
+            }
+        }
+        return new DoubleGraphState<>(index, result);
+    }
+
+    @Override
+    public GraphState<V, Double> power(double p) {
+        return fallback == null ? map(x -> Math.pow(x, p)) : super.power(p);
+    }
+
+    @Override
+    public GraphState<V, Double> abs() {
+        return fallback == null ? map(Math::abs) : super.abs();
+    }
+
+    @Override
+    public boolean lessThan(double e) {
+        if (fallback != null) {
+            return super.lessThan(e);
+        }
+        for (double x : values) {
+            if (x >= e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Weighted<V, Double> getMax() {
+        if (fallback != null) {
+            return super.getMax();
+        }
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return new Weighted<>(index.vertex(best), values[best]);
+    }
+
+    @Override
+    public Weighted<V, Double> getMax(Collection<V> filter) {
+        if (fallback != null) {
+            return super.getMax(filter);
+        }
+        int best = -1;
+        for (V v : filter) {
+            final int i = index.indexOf(v);
+            if (i >= 0 && (best < 0 || values[i] > values[best])) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            throw new NoSuchElementException();
+        }
+        return new Weighted<>(index.vertex(best), values[best]);
+    }
+
+    @Override
+    public Weighted<V, Double> getMin() {
+        if (fallback != null) {
+            return super.getMin();
+        }
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[best]) {
+                best = i;
+            }
+        }
+        return new Weighted<>(index.vertex(best), values[best]);
+    }
+
+    @Override
+    public Weighted<V, Double> getMin(Collection<V> filter) {
+        if (fallback != null) {
+            return super.getMin(filter);
+        }
+        int best = -1;
+        for (V v : filter) {
+            final int i = index.indexOf(v);
+            if (i >= 0 && (best < 0 || values[i] < values[best])) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            throw new NoSuchElementException();
+        }
+        return new Weighted<>(index.vertex(best), values[best]);
+    }
+
+    @Override
+    public double getAverage() {
+        return getSum() / size();
+    }
+
+    @Override
+    public double getSum() {
+        if (fallback != null) {
+            return super.getSum();
+        }
+        double sum = 0;
+        for (double x : values) {
+            sum += x;
+        }
+        return sum;
+    }
+
+    @Override
+    public double getSum(Collection<V> filter) {
+        if (fallback != null) {
+            return super.getSum(filter);
+        }
+        double sum = 0;
+        for (V v : filter) {
+            final int i = index.indexOf(v);
+            if (i >= 0) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The {@link Map} view of the state that {@link ForwardingMap} forwards to, which follows the state to its
+     * {@link LinkedHashMap} after a structural change.
+     */
+    private final class View extends AbstractMap<V, Double> {
+        private final Set<Entry<V, Double>> entries = new AbstractSet<Entry<V, Double>>() {
+            @Override
+            public Iterator<Entry<V, Double>> iterator() {
+                if (fallback != null) {
+                    return fallback.entrySet().iterator();
+                }
+                return new Iterator<Entry<V, Double>>() {
+                    private int next = 0;
+                    private int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<V, Double> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int i = next++;
+                        last = i;
+                        final V v = index.vertex(i);
+                        return new SimpleEntry<V, Double>(v, fallback == null ? values[i] : fallback.get(v)) {
+                            @Override
+                            public Double setValue(Double value) {
+                                super.setValue(value);
+                                return DoubleGraphState.this.put(getKey(), value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        fallback().remove(index.vertex(last));
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DoubleGraphState.this.size();
+            }
+        };
+
+        @Override
+        public Set<Entry<V, Double>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public int size() {
+            return DoubleGraphState.this.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return DoubleGraphState.this.containsKey(key);
+        }
+
+        @Override
+        public Double get(Object key) {
+            return DoubleGraphState.this.get(key);
+        }
+
+        @Override
+        public Double put(V key, Double value) {
+            return DoubleGraphState.this.put(key, value);
+        }
+
+        @Override
+        public Double remove(Object key) {
+            return DoubleGraphState.this.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            DoubleGraphState.this.clear();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 
@@ -13,7 +14,7 @@ public class GraphState<V, T> extends ForwardingMap<V, T> {
     private Map<V, T> delegate = new HashMap<>();
     private ToDoubleFunction<T> converter = null;
 
-    private GraphState() {
+    GraphState() {
     }
 
     /**
@@ -73,6 +74,40 @@ public class GraphState<V, T> extends ForwardingMap<V, T> {
         return delegate;
     }
 
+    /**
+     * Returns a 64-bit fingerprint of the mappings of this state.
+     * <p>
+     * Equal states have equal fingerprints regardless of their iteration order, while unequal states are very unlikely
+     * to have equal fingerprints. This method runs in time {@code O(V)}.
+     *
+     * @return a 64-bit fingerprint of the mappings of this state
+     */
+    public long fingerprint() {
+        long fingerprint = 0;
+        for (Map.Entry<V, T> e : entrySet()) {
+            final Object value = e.getValue();
+            fingerprint += fingerprint(e.getKey(),
+                    value instanceof Double ? Double.doubleToLongBits((Double) value) : Objects.hashCode(value));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the fingerprint of a single mapping, given the bits of its value.
+     */
+    static long fingerprint(Object key, long valueBits) {
+        return mix(mix(Objects.hashCode(key)) + valueBits);
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     @Deprecated
     public double getAsDouble(V v) {
         if (converter == null) {
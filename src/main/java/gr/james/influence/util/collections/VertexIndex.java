@@ -0,0 +1,90 @@
+package gr.james.influence.util.collections;
+
+import gr.james.influence.util.Conditions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable bijection between a collection of distinct vertices and the integers in {@code [0, size())}.
+ * <p>
+ * The indices follow the iteration order of the collection that the index was created from. A {@link VertexIndex} is
+ * meant to be shared among many {@link DoubleGraphState} instances over the same vertices, so that the cost of the
+ * index is paid once.
+ *
+ * @param <V> the vertex type
+ * @see DoubleGraphState
+ */
+public final class VertexIndex<V> {
+    private final List<V> vertices;
+    private final Map<V, Integer> indices;
+
+    private VertexIndex(Collection<V> vertices) {
+        this.vertices = new ArrayList<>(vertices.size());
+        this.indices = new HashMap<>(vertices.size() * 2);
+        for (V v : vertices) {
+            Conditions.requireNonNull(v);
+            Conditions.requireArgument(indices.put(v, this.vertices.size()) == null, "duplicate vertex %s", v);
+            this.vertices.add(v);
+        }
+    }
+
+    /**
+     * Creates a new {@link VertexIndex} of the given vertices.
+     * <p>
+     * This method runs in time {@code O(V)}.
+     *
+     * @param vertices the vertices
+     * @param <V>      the vertex type
+     * @return a new {@link VertexIndex} of {@code vertices}
+     * @throws NullPointerException     if {@code vertices} or any of its elements is {@code null}
+     * @throws IllegalArgumentException if {@code vertices} contains duplicate elements
+     */
+    public static <V> VertexIndex<V> of(Collection<V> vertices) {
+        return new VertexIndex<>(vertices);
+    }
+
+    /**
+     * Returns the number of vertices in this index.
+     *
+     * @return the number of vertices in this index
+     */
+    public int size() {
+        return vertices.size();
+    }
+
+    /**
+     * Returns the vertex with the given index.
+     *
+     * @param i the index
+     * @return the vertex with index {@code i}
+     * @throws IndexOutOfBoundsException if {@code i} is not in {@code [0, size())}
+     */
+    public V vertex(int i) {
+        return vertices.get(i);
+    }
+
+    /**
+     * Returns an unmodifiable {@link List} of the vertices in index order.
+     *
+     * @return an unmodifiable {@link List} of the vertices in index order
+     */
+    public List<V> vertices() {
+        return Collections.unmodifiableList(vertices);
+    }
+
+    /**
+     * Returns the index of a vertex or {@code -1} if the vertex is not in this index.
+     *
+     * @param v the vertex
+     * @return the index of {@code v} or {@code -1} if {@code v} is not in this index
+     */
+    public int indexOf(Object v) {
+        final Integer i = indices.get(v);
+        return i == null ? -1 : i;
+    }
+}
@@ -0,0 +1,65 @@
+package gr.james.influence.algorithms;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for {@link AbstractIterativeAlgorithm}.
+ */
+public class AbstractIterativeAlgorithmTests {
+    /**
+     * Test that cycles of any length after any prefix are detected within a bounded number of iterations.
+     */
+    @Test
+    public void periodicity() {
+        for (int prefix = 0; prefix < 20; prefix++) {
+            for (int period = 1; period < 40; period++) {
+                final Sequence sequence = new Sequence(prefix, period);
+                final Set<GraphState<Integer, Integer>> seen = new HashSet<>();
+                seen.add(GraphState.create(Collections.singleton(0), 0));
+                GraphState<Integer, Integer> last = null;
+                while (sequence.hasNext()) {
+                    if (last != null) {
+                        seen.add(last);
+                    }
+                    last = sequence.next();
+                }
+                Assert.assertTrue("AbstractIterativeAlgorithmTests.periodicity", seen.contains(last));
+                Assert.assertTrue("AbstractIterativeAlgorithmTests.periodicity",
+                        sequence.iterations() <= 2 * (prefix + period) + period);
+            }
+        }
+    }
+
+    /**
+     * The sequence {@code 0, 1, ..., prefix, ..., prefix + period - 1, prefix, ...} on a single vertex.
+     */
+    private static class Sequence extends AbstractIterativeAlgorithm<Integer, Integer> {
+        private final int prefix;
+        private final int period;
+
+        Sequence(int prefix, int period) {
+            super(DirectedGraph.create(), GraphState.create(Collections.singleton(0), 0));
+            this.prefix = prefix;
+            this.period = period;
+        }
+
+        @Override
+        protected boolean converges(GraphState<Integer, Integer> previous, GraphState<Integer, Integer> next) {
+            return false;
+        }
+
+        @Override
+        protected GraphState<Integer, Integer> step(DirectedGraph<Integer, ?> g, GraphState<Integer, Integer> previous) {
+            final int x = previous.get(0);
+            final int y = x < prefix ? x + 1 : prefix + (x - prefix + 1) % period;
+            return GraphState.create(Collections.singleton(0), y);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package gr.james.influence.algorithms;
+
+import gr.james.influence.algorithms.scoring.DeGroot;
+import gr.james.influence.algorithms.scoring.HITS;
+import gr.james.influence.algorithms.scoring.PageRank;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.GraphFixtures;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Tests for the checkpoints of {@link AbstractIterativeAlgorithm}.
+ */
+public class CheckpointTests {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that a resumed run produces the same result in the same number of iterations as an uninterrupted run.
+     */
+    @Test
+    public void resume() throws IOException {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final Path file = folder.getRoot().toPath().resolve("pagerank.ckpt");
+
+        final PageRank<Integer> full = new PageRank<>(g, 0.85, 1e-10);
+        final GraphState<Integer, Double> expected = full.run();
+
+        final PageRank<Integer> interrupted = new PageRank<>(g, 0.85, 1e-10);
+        interrupted.checkpointTo(file, 10);
+        for (int i = 0; i < 10; i++) {
+            interrupted.next();
+        }
+        interrupted.awaitCheckpoint();
+
+        final PageRank<Integer> resumed = new PageRank<>(g, 0.85, 1e-10);
+        resumed.resume(file);
+        Assert.assertEquals("CheckpointTests.resume", 10, resumed.iterations());
+        Assert.assertEquals("CheckpointTests.resume", expected, resumed.run());
+        Assert.assertEquals("CheckpointTests.resume", full.iterations(), resumed.iterations());
+    }
+
+    /**
+     * Test checkpoints of non-numeric states.
+     */
+    @Test
+    public void hits() throws IOException {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final Path file = folder.getRoot().toPath().resolve("hits.ckpt");
+
+        final HITS<Integer> interrupted = new HITS<>(g, 1e-10);
+        interrupted.checkpointTo(file, 5);
+        for (int i = 0; i < 5; i++) {
+            interrupted.next();
+        }
+        interrupted.awaitCheckpoint();
+
+        final HITS<Integer> resumed = new HITS<>(g, 1e-10);
+        resumed.resume(file);
+        Assert.assertEquals("CheckpointTests.hits", 5, resumed.iterations());
+        Assert.assertEquals("CheckpointTests.hits", interrupted.next(), resumed.next());
+    }
+
+    /**
+     * Test that checkpoints of a different graph, algorithm or parameters or corrupt checkpoints are rejected.
+     */
+    @Test
+    public void rejection() throws IOException {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final Path file = folder.getRoot().toPath().resolve("rejection.ckpt");
+
+        final PageRank<Integer> pageRank = new PageRank<>(g, 0.85, 0.0);
+        pageRank.checkpointTo(file, 1);
+        pageRank.next();
+        pageRank.awaitCheckpoint();
+
+        final DirectedGraph<Integer, Object> modified = DirectedGraph.create(g);
+        final Integer v = modified.iterator().next();
+        modified.addEdge(v, v, 2.0);
+        try {
+            new PageRank<>(modified, 0.85, 0.0).resume(file);
+            Assert.fail("CheckpointTests.rejection");
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            new DeGroot<>(g, GraphState.create(g.vertexSet(), 0.0), 0.0).resume(file);
+            Assert.fail("CheckpointTests.rejection");
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            new PageRank<>(g, 0.5, 0.0).resume(file);
+            Assert.fail("CheckpointTests.rejection");
+        } catch (IllegalArgumentException ignored) {
+        }
+        new PageRank<>(g, 0.85, 0.0).resume(file);
+
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        try {
+            new PageRank<>(g, 0.85, 0.0).resume(file);
+            Assert.fail("CheckpointTests.rejection");
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Test that {@link AbstractIterativeAlgorithm#awaitCheckpoint()} stops the thread that writes the checkpoints and
+     * that the next checkpoint starts it again.
+     */
+    @Test
+    public void awaitCheckpoint() throws IOException, InterruptedException {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final Path file = folder.getRoot().toPath().resolve("await.ckpt");
+
+        final PageRank<Integer> pageRank = new PageRank<>(g, 0.85, 0.0);
+        pageRank.checkpointTo(file, 1);
+        pageRank.next();
+        pageRank.awaitCheckpoint();
+        assertStopped("checkpoint-await.ckpt");
+        pageRank.next();
+        pageRank.awaitCheckpoint();
+        assertStopped("checkpoint-await.ckpt");
+
+        final PageRank<Integer> resumed = new PageRank<>(g, 0.85, 0.0);
+        resumed.resume(file);
+        Assert.assertEquals("CheckpointTests.awaitCheckpoint", 2, resumed.iterations());
+    }
+
+    private static void assertStopped(String name) throws InterruptedException {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals(name)) {
+                t.join(10000);
+                Assert.assertFalse("CheckpointTests.awaitCheckpoint", t.isAlive());
+            }
+        }
+    }
+}
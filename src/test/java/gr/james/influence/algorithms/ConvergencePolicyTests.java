@@ -0,0 +1,84 @@
+package gr.james.influence.algorithms;
+
+import gr.james.influence.algorithms.scoring.PageRank;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.GraphFixtures;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ConvergencePolicy}.
+ */
+public class ConvergencePolicyTests {
+    /**
+     * Test that each norm stops on its own residual and that the final residual satisfies the tolerance.
+     */
+    @Test
+    public void norms() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final GraphState<Integer, Double> exact = PageRank.execute(g, 0.85, 0.0);
+        for (ConvergencePolicy.Norm norm : ConvergencePolicy.Norm.values()) {
+            final PageRank<Integer> pageRank = new PageRank<>(g, 0.85, ConvergencePolicy.of(norm, 1e-6));
+            final IterationMetricsCollector collector = new IterationMetricsCollector();
+            pageRank.addListener(collector);
+            final GraphState<Integer, Double> p = pageRank.run();
+            final List<IterationMetrics> metrics = collector.metrics();
+            Assert.assertEquals("ConvergencePolicyTests.norms", IterationMetrics.Status.CONVERGED,
+                    metrics.get(metrics.size() - 1).status());
+            for (Integer v : g) {
+                Assert.assertEquals("ConvergencePolicyTests.norms", exact.get(v), p.get(v), 1e-4);
+            }
+        }
+    }
+
+    /**
+     * Test that the legacy precision argument is equivalent to the {@link ConvergencePolicy.Norm#LINF} policy.
+     */
+    @Test
+    public void legacyPrecision() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final PageRank<Integer> a = new PageRank<>(g, 0.85, 1e-5);
+        final PageRank<Integer> b = new PageRank<>(g, 0.85, ConvergencePolicy.of(ConvergencePolicy.Norm.LINF, 1e-5));
+        Assert.assertEquals("ConvergencePolicyTests.legacyPrecision", a.run(), b.run());
+        Assert.assertEquals("ConvergencePolicyTests.legacyPrecision", a.iterations(), b.iterations());
+    }
+
+    /**
+     * Test that a relative tolerance stops earlier than exact convergence.
+     */
+    @Test
+    public void relative() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final PageRank<Integer> exact = new PageRank<>(g, 0.85, PageRank.DEFAULT_PRECISION);
+        exact.run();
+        final PageRank<Integer> relative = new PageRank<>(g, 0.85,
+                ConvergencePolicy.exact().withRelativeTolerance(1e-6));
+        relative.run();
+        Assert.assertTrue("ConvergencePolicyTests.relative", relative.iterations() < exact.iterations());
+    }
+
+    /**
+     * Test the iteration and wall clock limits.
+     */
+    @Test
+    public void limits() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(100, 0.05, new Random(1));
+        final PageRank<Integer> limited = new PageRank<>(g, 0.85, ConvergencePolicy.exact().withMaxIterations(3));
+        final IterationMetricsCollector collector = new IterationMetricsCollector();
+        limited.addListener(collector);
+        limited.run();
+        Assert.assertEquals("ConvergencePolicyTests.limits", 3, limited.iterations());
+        Assert.assertEquals("ConvergencePolicyTests.limits", IterationMetrics.Status.ITERATION_LIMIT,
+                collector.metrics().get(2).status());
+
+        final PageRank<Integer> timed = new PageRank<>(g, 0.85,
+                ConvergencePolicy.exact().withWallClockBudget(1, TimeUnit.NANOSECONDS));
+        timed.run();
+        Assert.assertEquals("ConvergencePolicyTests.limits", 1, timed.iterations());
+    }
+}
@@ -0,0 +1,126 @@
+package gr.james.influence.algorithms;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.algorithms.scoring.DeGroot;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Tests for {@link IterationListener} and {@link IterationMetricsCollector}.
+ */
+public class IterationMetricsCollectorTests {
+    /**
+     * Test the metrics of a converging {@link DeGroot} run and their CSV and JSON export.
+     */
+    @Test
+    public void converging() throws IOException {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(50, 0.2).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g);
+        final GraphState<Integer, Double> initial = GraphState.create(g.vertexSet(), 0.0);
+        for (Integer v : g) {
+            initial.put(v, RandomHelper.getRandom().nextDouble());
+        }
+
+        final DeGroot<Integer> deGroot = new DeGroot<>(g, initial, 1e-6);
+        final IterationMetricsCollector collector = new IterationMetricsCollector();
+        deGroot.addListener(collector);
+        deGroot.run();
+
+        final List<IterationMetrics> metrics = collector.metrics();
+        Assert.assertEquals("IterationMetricsCollectorTests.converging", deGroot.iterations(), metrics.size());
+        Assert.assertTrue("IterationMetricsCollectorTests.converging", deGroot.iterations() > 1);
+        for (int i = 0; i < metrics.size(); i++) {
+            final IterationMetrics m = metrics.get(i);
+            Assert.assertEquals("IterationMetricsCollectorTests.converging", i + 1, m.iteration());
+            Assert.assertTrue("IterationMetricsCollectorTests.converging", m.residual() >= 0);
+            Assert.assertTrue("IterationMetricsCollectorTests.converging", m.changedVertices() <= g.vertexCount());
+            Assert.assertEquals("IterationMetricsCollectorTests.converging", i == metrics.size() - 1 ?
+                    IterationMetrics.Status.CONVERGED : IterationMetrics.Status.RUNNING, m.status());
+        }
+        Assert.assertTrue("IterationMetricsCollectorTests.converging",
+                metrics.get(metrics.size() - 1).residual() <= 1e-6);
+        Assert.assertEquals("IterationMetricsCollectorTests.converging", deGroot.elapsedNanos(),
+                collector.totalWallTimeNanos());
+
+        final StringWriter csv = new StringWriter();
+        collector.writeCsv(csv);
+        Assert.assertEquals("IterationMetricsCollectorTests.converging", metrics.size() + 1,
+                csv.toString().split("\\R").length);
+
+        final StringWriter json = new StringWriter();
+        collector.writeJson(json);
+        final JsonArray array = new JsonParser().parse(json.toString()).getAsJsonArray();
+        Assert.assertEquals("IterationMetricsCollectorTests.converging", metrics.size(), array.size());
+        Assert.assertEquals("IterationMetricsCollectorTests.converging", "CONVERGED",
+                array.get(array.size() - 1).getAsJsonObject().get("status").getAsString());
+    }
+
+    /**
+     * Test that an oscillating {@link DeGroot} run reports a periodic termination.
+     */
+    @Test
+    public void periodic() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        g.addVertex(0);
+        g.addVertex(1);
+        g.addEdge(0, 1);
+        g.addEdge(1, 0);
+        final GraphState<Integer, Double> initial = GraphState.create(g.vertexSet(), 0.0);
+        initial.put(1, 1.0);
+
+        final DeGroot<Integer> deGroot = new DeGroot<>(g, initial, 0.0);
+        final IterationMetricsCollector collector = new IterationMetricsCollector();
+        deGroot.addListener(collector);
+        deGroot.run();
+
+        final List<IterationMetrics> metrics = collector.metrics();
+        Assert.assertEquals("IterationMetricsCollectorTests.periodic", IterationMetrics.Status.PERIODIC,
+                metrics.get(metrics.size() - 1).status());
+        for (IterationMetrics m : metrics) {
+            Assert.assertEquals("IterationMetricsCollectorTests.periodic", 1.0, m.residual(), 0);
+            Assert.assertEquals("IterationMetricsCollectorTests.periodic", 2, m.changedVertices());
+        }
+        Assert.assertEquals("IterationMetricsCollectorTests.periodic", 1.0,
+                collector.convergenceRate(metrics.size() - 1), 0);
+    }
+
+    /**
+     * Test that the residual of the metrics is measured in the norm of the {@link ConvergencePolicy}.
+     */
+    @Test
+    public void norm() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1);
+        g.addEdge(1, 0);
+        g.addEdge(2, 3);
+        g.addEdge(3, 2);
+        final GraphState<Integer, Double> initial = GraphState.create(g.vertexSet(), 0.0);
+        initial.put(1, 1.0);
+        initial.put(3, 1.0);
+
+        final DeGroot<Integer> deGroot = new DeGroot<>(g, initial, ConvergencePolicy.of(ConvergencePolicy.Norm.L1, 0));
+        final IterationMetricsCollector collector = new IterationMetricsCollector();
+        deGroot.addListener(collector);
+        deGroot.run();
+
+        for (IterationMetrics m : collector.metrics()) {
+            Assert.assertEquals("IterationMetricsCollectorTests.norm", 4.0, m.residual(), 0);
+            Assert.assertEquals("IterationMetricsCollectorTests.norm", 4, m.changedVertices());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link DiffusionSimulation}.
+ */
+public class DiffusionSimulationTests {
+    /**
+     * The path {@code 0 -> 1 -> 2} with edge weight {@code p} and the isolated vertex {@code 3}.
+     */
+    private static DirectedGraph<Integer, Object> path(double p) {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge((Integer) 0, (Integer) 1, p);
+        g.addEdge((Integer) 1, (Integer) 2, p);
+        return g;
+    }
+
+    /**
+     * Test the activation probabilities and the spread distribution against their exact values.
+     */
+    @Test
+    public void probabilities() {
+        final double p = 0.4;
+        final DirectedGraph<Integer, Object> g = path(p);
+        for (DiffusionModel model : DiffusionModel.values()) {
+            final DiffusionSimulation<Integer> simulation =
+                    new DiffusionSimulation<>(g, model, Collections.singleton(0), 40000, 1, 4);
+            final GraphState<Integer, Double> probabilities = simulation.scores();
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", 1.0, probabilities.get(0), 0);
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", p, probabilities.get(1), 0.01);
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", p * p, probabilities.get(2), 0.01);
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", 0.0, probabilities.get(3), 0);
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", 1 + p + p * p, simulation.meanSpread(),
+                    0.02);
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", 1, simulation.spreadQuantile(0.5));
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", 3, simulation.spreadQuantile(1));
+            Assert.assertEquals("DiffusionSimulationTests.probabilities", 40000, simulation.spreads().length);
+        }
+    }
+
+    /**
+     * Test that the simulation is reproducible for a given seed and parallelism.
+     */
+    @Test
+    public void reproducible() {
+        final DirectedGraph<Integer, Object> g = path(0.5);
+        final DiffusionSimulation<Integer> a = new DiffusionSimulation<>(g, DiffusionModel.INDEPENDENT_CASCADE,
+                Arrays.asList(0, 3), 1000, 2, 3);
+        final DiffusionSimulation<Integer> b = new DiffusionSimulation<>(g, DiffusionModel.INDEPENDENT_CASCADE,
+                Arrays.asList(0, 3), 1000, 2, 3);
+        Assert.assertArrayEquals("DiffusionSimulationTests.reproducible", a.spreads(), b.spreads());
+        Assert.assertEquals("DiffusionSimulationTests.reproducible", a.scores(), b.scores());
+    }
+}
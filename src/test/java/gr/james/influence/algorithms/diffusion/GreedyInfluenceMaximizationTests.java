@@ -0,0 +1,136 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.graph.DirectedEdge;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.VertexProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Tests for {@link GreedyInfluenceMaximization}.
+ */
+public class GreedyInfluenceMaximizationTests {
+    /**
+     * A star {@code 0 -> [1,5]}, a path {@code 6 -> 7 -> 8} and an isolated vertex {@code 9}.
+     */
+    private static DirectedGraph<Integer, Object> components() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 10; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 1; i <= 5; i++) {
+            g.addEdge((Integer) 0, (Integer) i);
+        }
+        g.addEdge((Integer) 6, (Integer) 7);
+        g.addEdge((Integer) 7, (Integer) 8);
+        return g;
+    }
+
+    /**
+     * A {@link RandomGenerator} graph on the vertices {@code [0, n)} with all edge weights equal to {@code weight}.
+     */
+    static DirectedGraph<Integer, Object> random(int n, double p, double weight, long seed) {
+        final DirectedGraph<Integer, Object> g = new RandomGenerator<Integer, Object>(n, p)
+                .generate(seed, VertexProvider.INTEGER_PROVIDER);
+        for (DirectedEdge<Integer, Object> e : DirectedGraph.create(g).edges()) {
+            g.setEdgeWeight(e.source(), e.target(), weight);
+        }
+        return g;
+    }
+
+    /**
+     * Test that deterministic diffusions select the optimal seeds with the exact spread.
+     */
+    @Test
+    public void deterministic() {
+        final DirectedGraph<Integer, Object> g = components();
+        for (DiffusionModel model : DiffusionModel.values()) {
+            for (GreedyInfluenceMaximization.Evaluation evaluation : GreedyInfluenceMaximization.Evaluation.values()) {
+                final GreedyInfluenceMaximization<Integer> im =
+                        new GreedyInfluenceMaximization<>(g, model, 3, 10, evaluation, 1, 3);
+                Assert.assertEquals("GreedyInfluenceMaximizationTests.deterministic", Arrays.asList(0, 6, 9),
+                        im.seeds());
+                Assert.assertEquals("GreedyInfluenceMaximizationTests.deterministic", 10, im.spread(), 0);
+            }
+        }
+    }
+
+    /**
+     * Test that both lazy strategies agree and that they evaluate far fewer gains than the plain greedy algorithm.
+     */
+    @Test
+    public void lazy() {
+        final int n = 300;
+        final int k = 10;
+        final DirectedGraph<Integer, Object> g = random(n, 0.02, 0.1, 1);
+        final GreedyInfluenceMaximization<Integer> celf = new GreedyInfluenceMaximization<>(g,
+                DiffusionModel.INDEPENDENT_CASCADE, k, 500, GreedyInfluenceMaximization.Evaluation.CELF, 2, 4);
+        final GreedyInfluenceMaximization<Integer> celfpp = new GreedyInfluenceMaximization<>(g,
+                DiffusionModel.INDEPENDENT_CASCADE, k, 500, GreedyInfluenceMaximization.Evaluation.CELF_PLUS_PLUS, 2,
+                4);
+        Assert.assertEquals("GreedyInfluenceMaximizationTests.lazy", k, new HashSet<>(celf.seeds()).size());
+        Assert.assertEquals("GreedyInfluenceMaximizationTests.lazy", celf.spread(), celfpp.spread(),
+                0.05 * celf.spread());
+        Assert.assertTrue("GreedyInfluenceMaximizationTests.lazy", celf.evaluations() < 2 * n);
+        Assert.assertTrue("GreedyInfluenceMaximizationTests.lazy", celfpp.evaluations() < 2 * n);
+    }
+
+    /**
+     * Test that both lazy strategies select the same seeds when all edge weights are 0 or 1, in which case the gains
+     * are exact.
+     */
+    @Test
+    public void lazyDeterministic() {
+        final Random random = new Random(4);
+        for (int t = 0; t < 500; t++) {
+            final DirectedGraph<Integer, Object> g = random(20, 0.1, 1.0, t);
+            for (DirectedEdge<Integer, Object> e : DirectedGraph.create(g).edges()) {
+                if (random.nextBoolean()) {
+                    g.setEdgeWeight(e.source(), e.target(), 0.0);
+                }
+            }
+            final GreedyInfluenceMaximization<Integer> celf = new GreedyInfluenceMaximization<>(g,
+                    DiffusionModel.INDEPENDENT_CASCADE, 4, 1, GreedyInfluenceMaximization.Evaluation.CELF, t, 1);
+            final GreedyInfluenceMaximization<Integer> celfpp = new GreedyInfluenceMaximization<>(g,
+                    DiffusionModel.INDEPENDENT_CASCADE, 4, 1, GreedyInfluenceMaximization.Evaluation.CELF_PLUS_PLUS, t,
+                    1);
+            Assert.assertEquals("GreedyInfluenceMaximizationTests.lazyDeterministic", celf.seeds(), celfpp.seeds());
+        }
+    }
+
+    /**
+     * Test that the selection is reproducible for a given seed regardless of parallelism.
+     */
+    @Test
+    public void reproducible() {
+        final DirectedGraph<Integer, Object> g = random(200, 0.03, 0.0, 3);
+        final DirectedGraph<Integer, Object> h = DirectedGraph.create(g);
+        for (Integer v : g) {
+            final int inDegree = g.inDegree(v);
+            for (DirectedEdge<Integer, Object> e : g.inEdges(v)) {
+                h.setEdgeWeight(e.source(), v, 1.0 / inDegree);
+            }
+        }
+        final GreedyInfluenceMaximization<Integer> a = new GreedyInfluenceMaximization<>(h,
+                DiffusionModel.LINEAR_THRESHOLD, 5, 200, GreedyInfluenceMaximization.Evaluation.CELF_PLUS_PLUS, 4, 1);
+        final GreedyInfluenceMaximization<Integer> b = new GreedyInfluenceMaximization<>(h,
+                DiffusionModel.LINEAR_THRESHOLD, 5, 200, GreedyInfluenceMaximization.Evaluation.CELF_PLUS_PLUS, 4, 8);
+        Assert.assertEquals("GreedyInfluenceMaximizationTests.reproducible", a.seeds(), b.seeds());
+        Assert.assertEquals("GreedyInfluenceMaximizationTests.reproducible", a.spread(), b.spread(), 1e-9);
+    }
+
+    /**
+     * Test that invalid edge weights are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWeights() {
+        final DirectedGraph<Integer, Object> g = components();
+        g.addEdge((Integer) 9, (Integer) 0, 2.0);
+        new GreedyInfluenceMaximization<>(g, DiffusionModel.INDEPENDENT_CASCADE, 1);
+    }
+}
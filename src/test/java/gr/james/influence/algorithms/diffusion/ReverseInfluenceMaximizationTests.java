@@ -0,0 +1,103 @@
+package gr.james.influence.algorithms.diffusion;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.graph.DirectedGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Tests for {@link ReverseInfluenceMaximization}.
+ */
+public class ReverseInfluenceMaximizationTests {
+    /**
+     * Estimates the expected spread of {@code seeds} by forward simulation.
+     */
+    private static double simulate(DirectedGraph<Integer, Object> g, DiffusionModel model, List<Integer> seeds) {
+        final CompressedGraph<Integer> graph = CompressedGraph.of(g);
+        final Cascade cascade = new Cascade(graph, model);
+        final SplittableRandom random = new SplittableRandom(0);
+        long sum = 0;
+        for (int t = 0; t < 20000; t++) {
+            cascade.reset();
+            for (Integer v : seeds) {
+                cascade.activate(graph.indexOf(v), random);
+            }
+            sum += cascade.size();
+        }
+        return sum / 20000.0;
+    }
+
+    /**
+     * Test that deterministic diffusions select the optimal seeds.
+     */
+    @Test
+    public void deterministic() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 10; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 1; i <= 5; i++) {
+            g.addEdge((Integer) 0, (Integer) i);
+        }
+        g.addEdge((Integer) 6, (Integer) 7);
+        g.addEdge((Integer) 7, (Integer) 8);
+        for (DiffusionModel model : DiffusionModel.values()) {
+            final ReverseInfluenceMaximization<Integer> im =
+                    new ReverseInfluenceMaximization<>(g, model, 2, 0.1, 1, Long.MAX_VALUE, 1, 4);
+            Assert.assertEquals("ReverseInfluenceMaximizationTests.deterministic", Arrays.asList(0, 6), im.seeds());
+            Assert.assertEquals("ReverseInfluenceMaximizationTests.deterministic", 9, im.spread(), 0.5);
+            Assert.assertFalse("ReverseInfluenceMaximizationTests.deterministic", im.truncated());
+        }
+    }
+
+    /**
+     * Test that the spread estimate agrees with forward simulation and is comparable to the greedy algorithm.
+     */
+    @Test
+    public void spread() {
+        final DirectedGraph<Integer, Object> g = GreedyInfluenceMaximizationTests.random(500, 0.01, 0.2, 1);
+        final ReverseInfluenceMaximization<Integer> im = new ReverseInfluenceMaximization<>(g,
+                DiffusionModel.INDEPENDENT_CASCADE, 10, 0.2, 1, Long.MAX_VALUE, 2, 4);
+        final double simulated = simulate(g, DiffusionModel.INDEPENDENT_CASCADE, im.seeds());
+        Assert.assertEquals("ReverseInfluenceMaximizationTests.spread", simulated, im.spread(), 0.05 * simulated);
+        Assert.assertTrue("ReverseInfluenceMaximizationTests.spread", im.memoryBytes() > 0);
+
+        final GreedyInfluenceMaximization<Integer> greedy = new GreedyInfluenceMaximization<>(g,
+                DiffusionModel.INDEPENDENT_CASCADE, 10, 500, GreedyInfluenceMaximization.Evaluation.CELF, 3, 4);
+        Assert.assertTrue("ReverseInfluenceMaximizationTests.spread", simulated >= 0.9 * greedy.spread());
+    }
+
+    /**
+     * Test that the selection is reproducible for a given seed and parallelism.
+     */
+    @Test
+    public void reproducible() {
+        final DirectedGraph<Integer, Object> g = GreedyInfluenceMaximizationTests.random(300, 0.02, 0.04, 4);
+        final ReverseInfluenceMaximization<Integer> a = new ReverseInfluenceMaximization<>(g,
+                DiffusionModel.LINEAR_THRESHOLD, 5, 0.3, 1, Long.MAX_VALUE, 5, 3);
+        final ReverseInfluenceMaximization<Integer> b = new ReverseInfluenceMaximization<>(g,
+                DiffusionModel.LINEAR_THRESHOLD, 5, 0.3, 1, Long.MAX_VALUE, 5, 3);
+        Assert.assertEquals("ReverseInfluenceMaximizationTests.reproducible", a.seeds(), b.seeds());
+        Assert.assertEquals("ReverseInfluenceMaximizationTests.reproducible", a.sets(), b.sets());
+    }
+
+    /**
+     * Test that sampling stops within the memory budget.
+     */
+    @Test
+    public void memoryBudget() {
+        final DirectedGraph<Integer, Object> g = GreedyInfluenceMaximizationTests.random(300, 0.02, 0.2, 6);
+        for (long budget : new long[]{64 * 1024, 256 * 1024, 1024 * 1024}) {
+            final ReverseInfluenceMaximization<Integer> im = new ReverseInfluenceMaximization<>(g,
+                    DiffusionModel.INDEPENDENT_CASCADE, 5, 0.1, 1, budget, 7, 2);
+            Assert.assertTrue("ReverseInfluenceMaximizationTests.memoryBudget", im.truncated());
+            Assert.assertTrue("ReverseInfluenceMaximizationTests.memoryBudget", im.memoryBytes() <= budget);
+            Assert.assertTrue("ReverseInfluenceMaximizationTests.memoryBudget", im.memoryBytes() > budget / 4);
+            Assert.assertEquals("ReverseInfluenceMaximizationTests.memoryBudget", 5, im.seeds().size());
+        }
+    }
+}
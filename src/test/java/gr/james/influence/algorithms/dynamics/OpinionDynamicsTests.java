@@ -0,0 +1,183 @@
+package gr.james.influence.algorithms.dynamics;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Tests for the {@link OpinionDynamics} simulations.
+ */
+public class OpinionDynamicsTests {
+    private static DirectedGraph<Integer, Object> complete(int n) {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    g.addEdge((Integer) i, (Integer) j);
+                }
+            }
+        }
+        return g;
+    }
+
+    private static GraphState<Integer, Double> uniform(int n, Random random) {
+        final GraphState<Integer, Double> state = GraphState.create();
+        for (int i = 0; i < n; i++) {
+            state.put(i, random.nextDouble());
+        }
+        return state;
+    }
+
+    private static double hegselmannKrause(double[] x, int v, double epsilon) {
+        double sum = 0;
+        int count = 0;
+        for (double y : x) {
+            if (Math.abs(y - x[v]) <= epsilon) {
+                sum += y;
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    /**
+     * Test the sorted index of the complete {@link HegselmannKrause} model against the definition of the model.
+     */
+    @Test
+    public void hegselmannKrause() {
+        final int n = 500;
+        final double epsilon = 0.05;
+        final GraphState<Integer, Double> initial = uniform(n, new Random(1));
+
+        final HegselmannKrause<Integer> synchronous = new HegselmannKrause<>(initial, epsilon, Schedule.SYNCHRONOUS,
+                1, 4);
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = initial.get(i);
+        }
+        for (int sweep = 0; sweep < 10; sweep++) {
+            synchronous.run(1);
+            final double[] y = new double[n];
+            for (int v = 0; v < n; v++) {
+                y[v] = hegselmannKrause(x, v, epsilon);
+            }
+            x = y;
+            for (int v = 0; v < n; v++) {
+                Assert.assertEquals("OpinionDynamicsTests.hegselmannKrause", x[v], synchronous.opinion(v), 1e-9);
+            }
+        }
+
+        final HegselmannKrause<Integer> asynchronous = new HegselmannKrause<>(initial, epsilon, Schedule.ASYNCHRONOUS,
+                2, 4);
+        asynchronous.run(3);
+        for (int i = 0; i < n; i++) {
+            x[i] = initial.get(i);
+        }
+        final SplittableRandom random = new SplittableRandom(2).split();
+        for (int k = 0; k < 3 * n; k++) {
+            final int v = random.nextInt(n);
+            x[v] = hegselmannKrause(x, v, epsilon);
+        }
+        for (int v = 0; v < n; v++) {
+            Assert.assertEquals("OpinionDynamicsTests.hegselmannKrause", x[v], asynchronous.opinion(v), 1e-9);
+        }
+
+        final HegselmannKrause<Integer> graph = new HegselmannKrause<>(complete(50), uniform(50, new Random(3)),
+                epsilon, Schedule.SYNCHRONOUS, 3, 2);
+        final HegselmannKrause<Integer> meanField = new HegselmannKrause<>(uniform(50, new Random(3)), epsilon,
+                Schedule.SYNCHRONOUS, 3, 2);
+        graph.run(5);
+        meanField.run(5);
+        for (int v = 0; v < 50; v++) {
+            Assert.assertEquals("OpinionDynamicsTests.hegselmannKrause", meanField.opinion(v), graph.opinion(v), 1e-9);
+        }
+    }
+
+    /**
+     * Test that the voter model reaches consensus on a complete graph.
+     */
+    @Test
+    public void voter() {
+        final int n = 20;
+        final GraphState<Integer, Double> initial = GraphState.create();
+        for (int i = 0; i < n; i++) {
+            initial.put(i, (double) (i % 2));
+        }
+        final VoterModel<Integer> voter = new VoterModel<>(complete(n), initial, Schedule.ASYNCHRONOUS, 4, 1);
+        voter.run(2000);
+        final double consensus = voter.opinion(0);
+        for (int v = 0; v < n; v++) {
+            Assert.assertEquals("OpinionDynamicsTests.voter", consensus, voter.opinion(v), 0);
+        }
+    }
+
+    /**
+     * Test a single synchronous sweep of the majority rule, including the tie rule.
+     */
+    @Test
+    public void majority() {
+        final GraphState<Integer, Double> initial = GraphState.create();
+        final double[] opinions = {0, 0, 0, 1, 1};
+        for (int i = 0; i < opinions.length; i++) {
+            initial.put(i, opinions[i]);
+        }
+        final MajorityRule<Integer> majority = new MajorityRule<>(complete(5), initial, Schedule.SYNCHRONOUS, 5, 2);
+        majority.run(1);
+        for (int v = 0; v < 5; v++) {
+            Assert.assertEquals("OpinionDynamicsTests.majority", 0, majority.opinion(v), 0);
+        }
+    }
+
+    /**
+     * Test that asynchronous Deffuant interactions preserve the mean opinion and reach consensus with a wide
+     * confidence bound.
+     */
+    @Test
+    public void deffuant() {
+        final int n = 50;
+        final GraphState<Integer, Double> initial = uniform(n, new Random(6));
+        final double mean = initial.getAverage();
+        final DeffuantModel<Integer> deffuant = new DeffuantModel<>(complete(n), initial, 1, 0.5,
+                Schedule.ASYNCHRONOUS, 6, 1);
+        deffuant.run(200);
+        for (int v = 0; v < n; v++) {
+            Assert.assertEquals("OpinionDynamicsTests.deffuant", mean, deffuant.opinion(v), 1e-6);
+        }
+    }
+
+    /**
+     * Test that the sink is sampled at the requested interval and that synchronous sweeps are reproducible.
+     */
+    @Test
+    public void sink() {
+        final GraphState<Integer, Double> initial = uniform(100, new Random(7));
+        final DirectedGraph<Integer, Object> g = complete(100);
+        final DeffuantModel<Integer> a = new DeffuantModel<>(g, initial, 0.2, 0.3, Schedule.SYNCHRONOUS, 7, 3);
+        final DeffuantModel<Integer> b = new DeffuantModel<>(g, initial, 0.2, 0.3, Schedule.SYNCHRONOUS, 7, 3);
+        final List<Long> sweeps = new ArrayList<>();
+        final List<GraphState<Integer, Double>> states = new ArrayList<>();
+        a.sampleTo((sweep, index, opinions) -> {
+            sweeps.add(sweep);
+            states.add(GraphState.create());
+            for (int i = 0; i < index.size(); i++) {
+                states.get(states.size() - 1).put(index.vertex(i), opinions[i]);
+            }
+        }, 4);
+        a.run(10);
+        b.run(8);
+        Assert.assertEquals("OpinionDynamicsTests.sink", 10, a.sweeps());
+        Assert.assertEquals("OpinionDynamicsTests.sink", 4L, (long) sweeps.get(0));
+        Assert.assertEquals("OpinionDynamicsTests.sink", 8L, (long) sweeps.get(1));
+        Assert.assertEquals("OpinionDynamicsTests.sink", 2, sweeps.size());
+        Assert.assertEquals("OpinionDynamicsTests.sink", b.opinions(), states.get(1));
+    }
+}
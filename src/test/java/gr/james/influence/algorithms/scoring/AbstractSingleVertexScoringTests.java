@@ -0,0 +1,66 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link AbstractSingleVertexScoring}.
+ */
+public class AbstractSingleVertexScoringTests {
+    /**
+     * Concurrent invocations of {@code score} and {@code scores} must compute each vertex exactly once.
+     */
+    @Test
+    public void deduplication() throws Exception {
+        final int n = 200;
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        final ConcurrentHashMap<Integer, AtomicInteger> invocations = new ConcurrentHashMap<>();
+        final AbstractSingleVertexScoring<Integer, Integer> scoring = new AbstractSingleVertexScoring<Integer, Integer>(g) {
+            @Override
+            Integer scoreProtected(Integer v) {
+                invocations.computeIfAbsent(v, x -> new AtomicInteger()).incrementAndGet();
+                Thread.yield();
+                return 2 * v;
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals("AbstractSingleVertexScoringTests.deduplication",
+                            2 * i, (int) scoring.score(i));
+                }
+            }));
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final GraphState<Integer, Integer> scores = scoring.scores(pool);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        pool.shutdown();
+
+        Assert.assertEquals("AbstractSingleVertexScoringTests.deduplication", n, scores.size());
+        Assert.assertSame("AbstractSingleVertexScoringTests.deduplication", scores, scoring.scores());
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals("AbstractSingleVertexScoringTests.deduplication", 2 * i, (int) scores.get(i));
+            Assert.assertEquals("AbstractSingleVertexScoringTests.deduplication", 1, invocations.get(i).get());
+        }
+    }
+}
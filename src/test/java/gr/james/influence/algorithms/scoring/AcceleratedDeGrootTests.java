@@ -0,0 +1,90 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.basic.CycleGenerator;
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.algorithms.layout.BreadthFirstSearchPeriodicity;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link AcceleratedDeGroot}.
+ */
+public class AcceleratedDeGrootTests {
+    private static GraphState<Integer, Double> randomOpinions(DirectedGraph<Integer, Object> g) {
+        final GraphState<Integer, Double> initial = GraphState.create();
+        for (Integer v : g) {
+            initial.put(v, RandomHelper.getRandom().nextDouble());
+        }
+        return initial;
+    }
+
+    private static void assertEquals(DirectedGraph<Integer, Object> g, GraphState<Integer, Double> expected,
+                                     GraphState<Integer, Double> actual) {
+        for (Integer v : g) {
+            Assert.assertEquals("AcceleratedDeGrootTests", expected.get(v), actual.get(v), 1.0e-6);
+        }
+    }
+
+    /**
+     * Both modes must agree with {@link DeGroot} in a graph with two closed classes and some transient vertices.
+     */
+    @Test
+    public void stubbornComponents() {
+        DirectedGraph<Integer, Object> g = null;
+        while (g == null || !BreadthFirstSearchPeriodicity.isAperiodic(g)) {
+            final List<DirectedGraph<Integer, Object>> parts = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                final DirectedGraph<Integer, Object> part =
+                        new RandomGenerator<Integer, Object>(20, 0.2).generate(VertexProvider.INTEGER_PROVIDER);
+                Graphs.connect(part);
+                parts.add(part);
+            }
+            g = Graphs.combineGraphs(parts);
+            final List<Integer> closed = new ArrayList<>(g.vertexSet());
+            final List<Integer> transients = g.addVertices(VertexProvider.INTEGER_PROVIDER, 10);
+            for (Integer v : transients) {
+                g.addEdge(v, closed.get(RandomHelper.getRandom().nextInt(closed.size())));
+                g.addEdge(v, transients.get(RandomHelper.getRandom().nextInt(transients.size())));
+            }
+            g = Graphs.randomizeEdgeWeights(g, true);
+        }
+        final GraphState<Integer, Double> initial = randomOpinions(g);
+        final GraphState<Integer, Double> expected = DeGroot.execute(g, initial, 1.0e-12);
+        for (AcceleratedDeGroot.Mode mode : AcceleratedDeGroot.Mode.values()) {
+            assertEquals(g, expected, AcceleratedDeGroot.execute(g, initial, 1.0e-10, mode));
+        }
+    }
+
+    /**
+     * On a slowly mixing lazy cycle both modes must agree with {@link DeGroot} in fewer sweeps.
+     */
+    @Test
+    public void lazyCycle() {
+        final DirectedGraph<Integer, Object> g =
+                new CycleGenerator<Integer, Object>(60).generate(VertexProvider.INTEGER_PROVIDER);
+        for (Integer v : g) {
+            g.addEdge(v, v);
+        }
+        final GraphState<Integer, Double> initial = randomOpinions(g);
+        final DeGroot<Integer> deGroot = new DeGroot<>(g, initial, 1.0e-12);
+        GraphState<Integer, Double> expected = null;
+        int iterations = 0;
+        while (deGroot.hasNext()) {
+            expected = deGroot.next();
+            iterations++;
+        }
+        for (AcceleratedDeGroot.Mode mode : AcceleratedDeGroot.Mode.values()) {
+            final AcceleratedDeGroot<Integer> accelerated = new AcceleratedDeGroot<>(g, initial, 1.0e-10, mode);
+            assertEquals(g, expected, accelerated.result());
+            Assert.assertTrue("AcceleratedDeGrootTests.lazyCycle", accelerated.sweeps() < iterations);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link ApproximateBetweennessCentrality}.
+ */
+public class ApproximateBetweennessCentralityTests {
+    /**
+     * The estimates must be within the error guarantee of the exact values and reproducible for a given seed.
+     */
+    @Test
+    public void guarantee() {
+        final Random random = RandomHelper.getRandom();
+        final int n = 60;
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (random.nextDouble() < 0.05) {
+                    g.addEdge(i, j);
+                    g.addEdge(j, i);
+                }
+            }
+        }
+        final double epsilon = 0.02;
+        final long seed = random.nextLong();
+        final BetweennessCentrality<Integer> exact = new BetweennessCentrality<>(g);
+        final ApproximateBetweennessCentrality<Integer> approximate =
+                new ApproximateBetweennessCentrality<>(g, epsilon, 0.001, seed, 4);
+        final ApproximateBetweennessCentrality<Integer> repeated =
+                new ApproximateBetweennessCentrality<>(g, epsilon, 0.001, seed, 4);
+        Assert.assertTrue("ApproximateBetweennessCentralityTests.guarantee", approximate.vertexDiameterBound() <= n);
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals("ApproximateBetweennessCentralityTests.guarantee",
+                    exact.score(i), approximate.score(i), epsilon * n * (n - 1));
+            Assert.assertEquals("ApproximateBetweennessCentralityTests.guarantee",
+                    approximate.score(i), repeated.score(i), 0.0);
+        }
+    }
+}
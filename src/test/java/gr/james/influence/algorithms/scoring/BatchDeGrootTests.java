@@ -0,0 +1,51 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.algorithms.layout.BreadthFirstSearchPeriodicity;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link BatchDeGroot}.
+ */
+public class BatchDeGrootTests {
+    /**
+     * Every column of the batch must be equal to the result of {@link DeGroot} on the same initial vector.
+     */
+    @Test
+    public void equivalence() {
+        DirectedGraph<Integer, Object> g = null;
+        while (g == null || !BreadthFirstSearchPeriodicity.isAperiodic(g)) {
+            g = new RandomGenerator<Integer, Object>(50, 0.1).generate(VertexProvider.INTEGER_PROVIDER);
+            Graphs.connect(g);
+            g = Graphs.randomizeEdgeWeights(g, true);
+        }
+
+        final List<GraphState<Integer, Double>> initials = new ArrayList<>();
+        for (int j = 0; j < 8; j++) {
+            final GraphState<Integer, Double> initial = GraphState.create();
+            for (Integer v : g) {
+                // Vary the scale so that the columns converge after different numbers of iterations
+                initial.put(v, RandomHelper.getRandom().nextDouble() * Math.pow(10, j - 4));
+            }
+            initials.add(initial);
+        }
+
+        final BatchDeGroot<Integer> batch = new BatchDeGroot<>(g, initials, 1.0e-8);
+        for (int j = 0; j < initials.size(); j++) {
+            final GraphState<Integer, Double> expected = DeGroot.execute(g, initials.get(j), 1.0e-8);
+            final GraphState<Integer, Double> actual = batch.result(j);
+            for (Integer v : g) {
+                Assert.assertEquals("BatchDeGrootTests.equivalence", expected.get(v), actual.get(v), 1.0e-12);
+            }
+        }
+    }
+}
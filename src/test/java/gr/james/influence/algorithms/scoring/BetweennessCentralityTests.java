@@ -0,0 +1,116 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedEdge;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Tests for {@link BetweennessCentrality}.
+ */
+public class BetweennessCentralityTests {
+    /**
+     * Naive betweenness from the all pairs distances and shortest path counts.
+     */
+    private static double[] naive(DirectedGraph<Integer, Object> g, int n) {
+        final double[][] d = new double[n][n];
+        for (double[] row : d) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int i = 0; i < n; i++) {
+            d[i][i] = 0;
+            for (DirectedEdge<Integer, Object> e : g.outEdges(i)) {
+                d[i][e.target()] = Math.min(d[i][e.target()], e.weight());
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    d[i][j] = Math.min(d[i][j], d[i][k] + d[k][j]);
+                }
+            }
+        }
+        final double[][] sigma = new double[n][n];
+        for (int s = 0; s < n; s++) {
+            final int source = s;
+            final Integer[] sorted = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, Comparator.comparingDouble(t -> d[source][t]));
+            sigma[s][s] = 1;
+            for (int t : sorted) {
+                for (DirectedEdge<Integer, Object> e : g.inEdges(t)) {
+                    if (t != s && d[s][e.source()] + e.weight() == d[s][t]) {
+                        sigma[s][t] += sigma[s][e.source()];
+                    }
+                }
+            }
+        }
+        final double[] b = new double[n];
+        for (int v = 0; v < n; v++) {
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    if (s != v && t != v && s != t && sigma[s][t] > 0 && d[s][v] + d[v][t] == d[s][t]) {
+                        b[v] += sigma[s][v] * sigma[v][t] / sigma[s][t];
+                    }
+                }
+            }
+        }
+        return b;
+    }
+
+    /**
+     * On a path of 5 vertices with symmetric edges, the betweenness of vertex {@code i} is {@code 2 i (4 - i)}.
+     */
+    @Test
+    public void path() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            g.addEdge(i, i + 1);
+            g.addEdge(i + 1, i);
+        }
+        final GraphState<Integer, Double> b = BetweennessCentrality.execute(g);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("BetweennessCentralityTests.path", 2.0 * i * (4 - i), b.get(i), 1.0e-10);
+        }
+    }
+
+    /**
+     * The betweenness must be equal to the naive computation on weighted and unweighted graphs with many ties.
+     */
+    @Test
+    public void naive() {
+        final Random random = RandomHelper.getRandom();
+        for (boolean weighted : new boolean[]{false, true}) {
+            final int n = 40;
+            final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+            for (int i = 0; i < n; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (i != j && random.nextDouble() < 0.1) {
+                        g.addEdge((Integer) i, (Integer) j, weighted ? 1.0 + random.nextInt(3) : 1.0);
+                    }
+                }
+            }
+            final double[] expected = naive(g, n);
+            final BetweennessCentrality<Integer> serial = new BetweennessCentrality<>(g, 1);
+            final BetweennessCentrality<Integer> parallel = new BetweennessCentrality<>(g, 4);
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals("BetweennessCentralityTests.naive", expected[i], serial.score(i), 1.0e-8);
+                Assert.assertEquals("BetweennessCentralityTests.naive", expected[i], parallel.score(i), 1.0e-8);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompressedHITS}.
+ */
+public class CompressedHITSTests {
+    /**
+     * The scores of {@link CompressedHITS} must be equal to the scores of {@link HITS}.
+     */
+    @Test
+    public void equivalence() {
+        final DirectedGraph<Integer, Object> g0 =
+                new RandomGenerator<Integer, Object>(50, 0.1).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g0);
+        final DirectedGraph<Integer, Object> g = Graphs.randomizeEdgeWeights(g0, true);
+        final GraphState<Integer, HITS.HITSScore> expected = HITS.execute(g, 1.0e-10);
+        final GraphState<Integer, HITS.HITSScore> actual = CompressedHITS.execute(g, 1.0e-10);
+        for (Integer v : g) {
+            Assert.assertEquals("CompressedHITSTests.equivalence",
+                    expected.get(v).getAuthority(), actual.get(v).getAuthority(), 1.0e-6);
+            Assert.assertEquals("CompressedHITSTests.equivalence",
+                    expected.get(v).getHub(), actual.get(v).getHub(), 1.0e-6);
+        }
+    }
+
+    /**
+     * With the default precision, {@link CompressedHITS} must terminate like {@link HITS} when the iterations repeat in
+     * the last bits instead of running until the maximum number of iterations.
+     */
+    @Test
+    public void defaultPrecision() {
+        for (long seed = 0; seed < 5; seed++) {
+            final DirectedGraph<Integer, Object> g0 =
+                    new RandomGenerator<Integer, Object>(300, 0.05).generate(seed, VertexProvider.INTEGER_PROVIDER);
+            Graphs.connect(g0);
+            final DirectedGraph<Integer, Object> g = Graphs.randomizeEdgeWeights(g0, true);
+            final CompressedHITS<Integer> hits = new CompressedHITS<>(g, HITS.DEFAULT_PRECISION);
+            Assert.assertTrue("CompressedHITSTests.defaultPrecision", hits.isConverged());
+            Assert.assertTrue("CompressedHITSTests.defaultPrecision", hits.iterations() < 1000);
+            final GraphState<Integer, HITS.HITSScore> expected = HITS.execute(g);
+            for (Integer v : g) {
+                Assert.assertEquals("CompressedHITSTests.defaultPrecision",
+                        expected.get(v).getAuthority(), hits.score(v).getAuthority(), 1.0e-9);
+                Assert.assertEquals("CompressedHITSTests.defaultPrecision",
+                        expected.get(v).getHub(), hits.score(v).getHub(), 1.0e-9);
+            }
+        }
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(50, 0.1).generate(0, VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g);
+        Assert.assertFalse("CompressedHITSTests.defaultPrecision",
+                new CompressedHITS<>(g, HITS.DEFAULT_PRECISION, 2).isConverged());
+    }
+}
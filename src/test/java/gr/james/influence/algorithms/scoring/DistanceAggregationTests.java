@@ -0,0 +1,52 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link DistanceAggregation}.
+ */
+public class DistanceAggregationTests {
+    /**
+     * The scores must be equal to {@link ClosenessCentrality}, {@link HarmonicCentrality} and {@link DecayCentrality}
+     * on weighted graphs and on graphs where all edges have the same weight other than 1.
+     */
+    @Test
+    public void equivalence() {
+        final Random random = RandomHelper.getRandom();
+        for (boolean weighted : new boolean[]{false, true}) {
+            final int n = 40;
+            final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+            for (int i = 0; i < n; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (i != j && random.nextDouble() < 0.08) {
+                        g.addEdge((Integer) i, (Integer) j, weighted ? 0.5 + random.nextDouble() : 2.0);
+                    }
+                }
+            }
+            final DistanceAggregator closeness = DistanceAggregator.closeness();
+            final DistanceAggregator harmonic = DistanceAggregator.harmonic();
+            final DistanceAggregator decay = DistanceAggregator.decay(0.5);
+            final DistanceAggregation<Integer> aggregation =
+                    new DistanceAggregation<>(g, 4, closeness, harmonic, decay);
+            final ClosenessCentrality<Integer> expectedCloseness = new ClosenessCentrality<>(g);
+            final HarmonicCentrality<Integer> expectedHarmonic = new HarmonicCentrality<>(g);
+            final DecayCentrality<Integer> expectedDecay = new DecayCentrality<>(g, 0.5);
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals("DistanceAggregationTests.equivalence",
+                        expectedCloseness.score(i), aggregation.score(closeness, i), 1.0e-10);
+                Assert.assertEquals("DistanceAggregationTests.equivalence",
+                        expectedHarmonic.score(i), aggregation.score(harmonic, i), 1.0e-10);
+                Assert.assertEquals("DistanceAggregationTests.equivalence",
+                        expectedDecay.score(i), aggregation.scoring(decay).score(i), 1.0e-10);
+            }
+        }
+    }
+}
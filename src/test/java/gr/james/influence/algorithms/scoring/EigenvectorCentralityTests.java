@@ -0,0 +1,115 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.graph.DirectedEdge;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link EigenvectorCentrality} and {@link KatzCentrality}.
+ */
+public class EigenvectorCentralityTests {
+    /**
+     * Both methods must produce the same vector, which must satisfy the eigenvector equation.
+     */
+    @Test
+    public void eigenvector() {
+        final DirectedGraph<Integer, Object> g0 =
+                new RandomGenerator<Integer, Object>(60, 0.1).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g0);
+        final DirectedGraph<Integer, Object> g = Graphs.randomizeEdgeWeights(g0, true);
+
+        final EigenvectorCentrality<Integer> power =
+                new EigenvectorCentrality<>(g, 1.0e-12, EigenvectorCentrality.Method.POWER, 1000000);
+        final EigenvectorCentrality<Integer> arnoldi =
+                new EigenvectorCentrality<>(g, 1.0e-12, EigenvectorCentrality.Method.ARNOLDI, 1000000);
+        Assert.assertEquals("EigenvectorCentralityTests.eigenvector", power.eigenvalue(), arnoldi.eigenvalue(), 1.0e-6);
+
+        final GraphState<Integer, Double> x = arnoldi.scores();
+        for (Integer v : g) {
+            Assert.assertEquals("EigenvectorCentralityTests.eigenvector", power.score(v), x.get(v), 1.0e-6);
+            double s = 0;
+            for (DirectedEdge<Integer, Object> e : g.inEdges(v)) {
+                s += e.weight() * x.get(e.source());
+            }
+            Assert.assertEquals("EigenvectorCentralityTests.eigenvector", arnoldi.eigenvalue() * x.get(v), s, 1.0e-6);
+        }
+    }
+
+    /**
+     * In a directed cycle the Katz centrality of every vertex is {@code 1 / (1 - alpha)} and the bound of
+     * {@code alpha} is 1.
+     */
+    @Test
+    public void katzCycle() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 10; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            g.addEdge(i, (i + 1) % 10);
+        }
+        Assert.assertEquals("EigenvectorCentralityTests.katzCycle", 1.0, KatzCentrality.maxAlpha(g), 1.0e-8);
+        final GraphState<Integer, Double> katz = KatzCentrality.execute(g, 0.5, 1.0e-12);
+        for (Integer v : g) {
+            Assert.assertEquals("EigenvectorCentralityTests.katzCycle", 2.0, katz.get(v), 1.0e-10);
+        }
+    }
+
+    /**
+     * The Katz centrality must satisfy its definition and reject {@code alpha} above its bound.
+     */
+    @Test
+    public void katz() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 30; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 30; i++) {
+            g.addEdge(i, (i + 1) % 30);
+        }
+        g.addEdge(0, 15);
+        final KatzCentrality<Integer> katz = new KatzCentrality<>(g, 1.0e-12);
+        Assert.assertTrue("EigenvectorCentralityTests.katz", katz.alpha() < KatzCentrality.maxAlpha(g));
+        for (Integer v : g) {
+            double s = 0;
+            for (DirectedEdge<Integer, Object> e : g.inEdges(v)) {
+                s += e.weight() * katz.score(e.source());
+            }
+            Assert.assertEquals("EigenvectorCentralityTests.katz", katz.alpha() * s + 1, katz.score(v), 1.0e-8);
+        }
+        try {
+            new KatzCentrality<>(g, 1.01 * KatzCentrality.maxAlpha(g), 1.0e-12);
+            Assert.fail("EigenvectorCentralityTests.katz");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    /**
+     * The Katz centrality must reject a {@code NaN} {@code alpha} instead of using the default.
+     */
+    @Test
+    public void katzNaN() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            g.addEdge(i, (i + 1) % 5);
+        }
+        try {
+            new KatzCentrality<>(g, Double.NaN, 1.0e-12);
+            Assert.fail("EigenvectorCentralityTests.katzNaN");
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            new KatzCentrality<>(g, Double.NaN, 1.0e-12, KatzCentrality.DEFAULT_MAX_ITERATIONS);
+            Assert.fail("EigenvectorCentralityTests.katzNaN");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
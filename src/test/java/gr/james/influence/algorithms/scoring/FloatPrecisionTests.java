@@ -0,0 +1,100 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.GraphFixtures;
+import gr.james.influence.util.collections.DoubleGraphState;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link FloatPageRank}, {@link FloatDeGroot} and the {@link Accumulation} strategies.
+ */
+public class FloatPrecisionTests {
+    /**
+     * Test that {@link FloatPageRank} agrees with {@link PageRank} to single precision for every accumulation.
+     */
+    @Test
+    public void pageRank() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.randomWeighted(500, 0.03, new Random(1));
+        final GraphState<Integer, Double> expected = PageRank.execute(g, 0.85, 1e-10);
+        for (Accumulation accumulation : Accumulation.values()) {
+            final FloatPageRank<Integer> pageRank =
+                    new FloatPageRank<>(g, 0.85, 1e-6, FloatPageRank.DEFAULT_MAX_ITERATIONS, accumulation);
+            final DoubleGraphState<Integer> actual = pageRank.scores();
+            Assert.assertEquals("FloatPrecisionTests.pageRank", g.vertexSet(), actual.keySet());
+            Assert.assertTrue("FloatPrecisionTests.pageRank",
+                    pageRank.iterations() < FloatPageRank.DEFAULT_MAX_ITERATIONS);
+            for (Integer v : g) {
+                Assert.assertEquals("FloatPrecisionTests.pageRank", expected.get(v), actual.get(v),
+                        1e-4 * expected.get(v));
+                Assert.assertEquals("FloatPrecisionTests.pageRank", actual.get(v), pageRank.score(v));
+            }
+        }
+    }
+
+    /**
+     * Test that {@link FloatDeGroot} agrees with {@link DeGroot} to single precision for every accumulation.
+     */
+    @Test
+    public void deGroot() {
+        final Random random = new Random(2);
+        final DirectedGraph<Integer, Object> g = GraphFixtures.randomWeighted(500, 0.03, random);
+        final GraphState<Integer, Double> initial = GraphState.create();
+        for (Integer v : g) {
+            initial.put(v, random.nextDouble());
+        }
+        final GraphState<Integer, Double> expected = DeGroot.execute(g, initial, 1e-10);
+        for (Accumulation accumulation : Accumulation.values()) {
+            final GraphState<Integer, Double> actual =
+                    new FloatDeGroot<>(g, initial, 1e-6, FloatDeGroot.DEFAULT_MAX_ITERATIONS, accumulation).scores();
+            Assert.assertEquals("FloatPrecisionTests.deGroot", g.vertexSet(), actual.keySet());
+            for (Integer v : g) {
+                Assert.assertEquals("FloatPrecisionTests.deGroot", expected.get(v), actual.get(v), 1e-4);
+            }
+        }
+    }
+
+    /**
+     * Test that an {@code epsilon} below single precision does not run the iterations to the maximum.
+     */
+    @Test
+    public void tinyEpsilon() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(2000, 0.005, new Random(0));
+        final GraphState<Integer, Double> expected = PageRank.execute(g, 0.85, 1e-10);
+        for (Accumulation accumulation : Accumulation.values()) {
+            final FloatPageRank<Integer> pageRank =
+                    new FloatPageRank<>(g, 0.85, 1e-12, FloatPageRank.DEFAULT_MAX_ITERATIONS, accumulation);
+            Assert.assertTrue("FloatPrecisionTests.tinyEpsilon", pageRank.iterations() < 200);
+            for (Integer v : g) {
+                Assert.assertEquals("FloatPrecisionTests.tinyEpsilon", expected.get(v), pageRank.score(v),
+                        1e-4 * expected.get(v));
+            }
+        }
+    }
+
+    /**
+     * Test that the compensated accumulations are more accurate than plain single precision summation.
+     */
+    @Test
+    public void accumulation() {
+        final int n = 1 << 16;
+        final int[] indices = new int[n];
+        final float[] weights = new float[n];
+        final float[] x = new float[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+            weights[i] = 1;
+            x[i] = 0.1f;
+        }
+        final double exact = n * (double) 0.1f;
+        final double plain = Math.abs(Accumulation.FLOAT.dot(0, n, indices, weights, x) - exact);
+        final double kahan = Math.abs(Accumulation.KAHAN.dot(0, n, indices, weights, x) - exact);
+        final double wide = Math.abs(Accumulation.DOUBLE.dot(0, n, indices, weights, x) - exact);
+        Assert.assertTrue("FloatPrecisionTests.accumulation", kahan < plain);
+        Assert.assertTrue("FloatPrecisionTests.accumulation", wide < plain);
+        Assert.assertTrue("FloatPrecisionTests.accumulation", kahan <= Math.ulp((float) exact));
+    }
+}
@@ -0,0 +1,71 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FriedkinJohnsen}.
+ */
+public class FriedkinJohnsenTests {
+    /**
+     * All modes must compute the same equilibrium, which must be a fixed point of the update rule.
+     */
+    @Test
+    public void equilibrium() {
+        final DirectedGraph<Integer, Object> g = Graphs.randomizeEdgeWeights(
+                new RandomGenerator<Integer, Object>(60, 0.1).generate(VertexProvider.INTEGER_PROVIDER), true);
+        final GraphState<Integer, Double> initial = GraphState.create();
+        final GraphState<Integer, Double> susceptibility = GraphState.create();
+        for (Integer v : g) {
+            initial.put(v, RandomHelper.getRandom().nextDouble());
+            susceptibility.put(v, RandomHelper.getRandom().nextDouble() * 0.95);
+        }
+
+        final GraphState<Integer, Double> expected =
+                new FriedkinJohnsen<>(g, initial, susceptibility, 1.0e-12, FriedkinJohnsen.Mode.ITERATIVE).result();
+        for (FriedkinJohnsen.Mode mode : FriedkinJohnsen.Mode.values()) {
+            final GraphState<Integer, Double> actual =
+                    new FriedkinJohnsen<>(g, initial, susceptibility, 1.0e-12, mode).result();
+            for (Integer v : g) {
+                Assert.assertEquals("FriedkinJohnsenTests.equilibrium", expected.get(v), actual.get(v), 1.0e-8);
+            }
+        }
+
+        for (Integer v : g) {
+            if (g.outDegree(v) > 0) {
+                double w = 0;
+                for (Integer u : g.adjacentOut(v)) {
+                    w += g.getWeight(v, u) * expected.get(u);
+                }
+                final double lambda = susceptibility.get(v);
+                final double fixed = lambda * w / g.outStrength(v) + (1 - lambda) * initial.get(v);
+                Assert.assertEquals("FriedkinJohnsenTests.equilibrium", fixed, expected.get(v), 1.0e-8);
+            }
+        }
+    }
+
+    /**
+     * With zero susceptibility every agent keeps its initial opinion.
+     */
+    @Test
+    public void stubborn() {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(30, 0.2).generate(VertexProvider.INTEGER_PROVIDER);
+        final GraphState<Integer, Double> initial = GraphState.create();
+        for (Integer v : g) {
+            initial.put(v, RandomHelper.getRandom().nextDouble());
+        }
+        for (FriedkinJohnsen.Mode mode : FriedkinJohnsen.Mode.values()) {
+            final GraphState<Integer, Double> result = FriedkinJohnsen.execute(g, initial, 0.0, 1.0e-12, mode);
+            for (Integer v : g) {
+                Assert.assertEquals("FriedkinJohnsenTests.stubborn", initial.get(v), result.get(v), 1.0e-12);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link HyperBall}.
+ */
+public class HyperBallTests {
+    /**
+     * The estimates must be close to the exact values on a connected unweighted graph.
+     */
+    @Test
+    public void accuracy() {
+        final Random random = RandomHelper.getRandom();
+        final int n = 400;
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            g.addEdge(i, (i + 1) % n);
+            g.addEdge((i + 1) % n, i);
+            for (int k = 0; k < 2; k++) {
+                final int j = random.nextInt(n);
+                if (j != i) {
+                    g.addEdge(i, j);
+                }
+            }
+        }
+        final HyperBall<Integer> hyperBall = new HyperBall<>(g, 12, random.nextLong());
+        final GraphState<Integer, Double> harmonic = hyperBall.harmonicCentrality();
+        final GraphState<Integer, Double> closeness = hyperBall.closenessCentrality();
+        final GraphState<Integer, Double> reachable = hyperBall.reachableCount();
+        final GraphState<Integer, Double> expectedHarmonic = new HarmonicCentrality<>(g).scores();
+        final GraphState<Integer, Double> expectedCloseness = new ClosenessCentrality<>(g).scores();
+        double harmonicError = 0;
+        double closenessError = 0;
+        for (int i = 0; i < n; i++) {
+            harmonicError += Math.abs(harmonic.get(i) / expectedHarmonic.get(i) - 1);
+            closenessError += Math.abs(closeness.get(i) / expectedCloseness.get(i) - 1);
+            Assert.assertEquals("HyperBallTests.accuracy", n, reachable.get(i), 0.1 * n);
+        }
+        Assert.assertTrue("HyperBallTests.accuracy", harmonicError / n < 0.05);
+        Assert.assertTrue("HyperBallTests.accuracy", closenessError / n < 0.05);
+
+        final double[] function = hyperBall.neighbourhoodFunction();
+        Assert.assertEquals("HyperBallTests.accuracy", (double) n * n, function[function.length - 1], 0.1 * n * n);
+        final double diameter = hyperBall.effectiveDiameter(0.9);
+        Assert.assertTrue("HyperBallTests.accuracy", diameter > 0 && diameter < function.length);
+    }
+}
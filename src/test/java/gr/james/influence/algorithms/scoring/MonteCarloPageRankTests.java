@@ -0,0 +1,44 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MonteCarloPageRank}.
+ */
+public class MonteCarloPageRankTests {
+    /**
+     * The Monte Carlo estimates must be within the confidence bounds of the exact {@link PageRank} values.
+     */
+    @Test
+    public void pageRank() {
+        final DirectedGraph<Integer, Object> g0 =
+                new RandomGenerator<Integer, Object>(30, 0.2).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g0);
+        final DirectedGraph<Integer, Object> g = Graphs.randomizeEdgeWeights(g0, true);
+        final GraphState<Integer, Double> pr = PageRank.execute(g, 0.85, 0.0);
+        final MonteCarloPageRank<Integer> mc = new MonteCarloPageRank<>(g, 0.85, 4000, 42L, 4);
+        for (Integer v : g) {
+            Assert.assertTrue("MonteCarloPageRankTests.pageRank", mc.lowerBound(v, 5) <= pr.get(v));
+            Assert.assertTrue("MonteCarloPageRankTests.pageRank", mc.upperBound(v, 5) >= pr.get(v));
+            Assert.assertEquals("MonteCarloPageRankTests.pageRank", pr.get(v), mc.score(v), 0.05 * pr.get(v));
+        }
+    }
+
+    /**
+     * The estimates must be the same for the same seed and parallelism.
+     */
+    @Test
+    public void deterministic() {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(40, 0.1).generate(VertexProvider.INTEGER_PROVIDER);
+        final GraphState<Integer, Double> p1 = new MonteCarloPageRank<>(g, 0.5, 50, 7L, 3).scores();
+        final GraphState<Integer, Double> p2 = new MonteCarloPageRank<>(g, 0.5, 50, 7L, 3).scores();
+        Assert.assertEquals("MonteCarloPageRankTests.deterministic", p1, p2);
+    }
+}
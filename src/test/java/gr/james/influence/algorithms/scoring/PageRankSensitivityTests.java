@@ -0,0 +1,157 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.ConvergencePolicy;
+import gr.james.influence.graph.DirectedEdge;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.GraphFixtures;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PageRankSensitivityTests {
+    private static final ConvergencePolicy POLICY = ConvergencePolicy.of(ConvergencePolicy.Norm.LINF, 1e-12);
+
+    private static double removed(DirectedGraph<Integer, Object> g, double d, int u, int v, int t) {
+        final DirectedGraph<Integer, Object> h = DirectedGraph.create(g);
+        h.removeEdge(u, v);
+        return PageRank.execute(h, d, POLICY).get(t);
+    }
+
+    private static double inserted(DirectedGraph<Integer, Object> g, double d, int u, int v, double w, int t) {
+        final DirectedGraph<Integer, Object> h = DirectedGraph.create(g);
+        h.addEdge((Integer) u, (Integer) v, w);
+        return PageRank.execute(h, d, POLICY).get(t);
+    }
+
+    /**
+     * Test that the exact effects of removals and insertions match PageRank on the modified graph and that the
+     * estimates are close for small perturbations.
+     */
+    @Test
+    public void effects() {
+        final Random random = new Random(1);
+        final DirectedGraph<Integer, Object> g = GraphFixtures.randomWeighted(30, 0.15, random);
+        for (double d : new double[]{0.85, 1.0}) {
+            final int t = 3;
+            final PageRankSensitivity<Integer> sensitivity = new PageRankSensitivity<>(g, d, t, 1e-13);
+            final double base = PageRank.execute(g, d, POLICY).get(t);
+            Assert.assertEquals("PageRankSensitivityTests.effects", base, sensitivity.score(), 1e-9);
+            final List<DirectedEdge<Integer, Object>> edges = new ArrayList<>();
+            g.edges().forEach(edges::add);
+            for (int k = 0; k < 20; k++) {
+                final DirectedEdge<Integer, Object> e = edges.get(random.nextInt(edges.size()));
+                final double expected = removed(g, d, e.source(), e.target(), t) - base;
+                Assert.assertEquals("PageRankSensitivityTests.effects", expected,
+                        sensitivity.removalEffect(e.source(), e.target()), 1e-8);
+                Assert.assertEquals("PageRankSensitivityTests.effects", expected,
+                        sensitivity.estimateRemoval(e.source(), e.target()), 0.5 * Math.abs(expected) + 1e-3);
+            }
+            for (int k = 0; k < 20; k++) {
+                final int u = random.nextInt(30);
+                final int v = random.nextInt(30);
+                if (g.containsEdge(u, v)) {
+                    continue;
+                }
+                final double expected = inserted(g, d, u, v, 0.01, t) - base;
+                Assert.assertEquals("PageRankSensitivityTests.effects", expected,
+                        sensitivity.insertionEffect(u, v, 0.01), 1e-8);
+                Assert.assertEquals("PageRankSensitivityTests.effects", expected,
+                        sensitivity.estimateInsertion(u, v, 0.01), 0.05 * Math.abs(expected) + 1e-6);
+            }
+        }
+    }
+
+    /**
+     * Test that the best ranked removal is the best removal found by brute force.
+     */
+    @Test
+    public void rankRemovals() {
+        final Random random = new Random(2);
+        final DirectedGraph<Integer, Object> g = GraphFixtures.randomWeighted(30, 0.15, random);
+        for (double d : new double[]{0.85, 1.0}) {
+            final int t = 7;
+            final double base = PageRank.execute(g, d, POLICY).get(t);
+            double best = Double.NEGATIVE_INFINITY;
+            for (DirectedEdge<Integer, Object> e : g.edges()) {
+                best = Math.max(best, removed(g, d, e.source(), e.target(), t) - base);
+            }
+            final List<PageRankSensitivity.Change<Integer>> ranking =
+                    new PageRankSensitivity<>(g, d, t, 1e-13).rankRemovals(5);
+            Assert.assertEquals("PageRankSensitivityTests.rankRemovals", 5, ranking.size());
+            Assert.assertEquals("PageRankSensitivityTests.rankRemovals", best, ranking.get(0).effect(), 1e-8);
+            for (int i = 1; i < ranking.size(); i++) {
+                Assert.assertFalse("PageRankSensitivityTests.rankRemovals", ranking.get(i).isInsertion());
+                Assert.assertTrue("PageRankSensitivityTests.rankRemovals",
+                        ranking.get(i - 1).effect() >= ranking.get(i).effect());
+            }
+        }
+    }
+
+    /**
+     * Test that the best ranked insertion towards the target is the best insertion found by brute force.
+     */
+    @Test
+    public void rankInsertions() {
+        final Random random = new Random(3);
+        final DirectedGraph<Integer, Object> g = GraphFixtures.randomWeighted(30, 0.15, random);
+        final int t = 11;
+        final double base = PageRank.execute(g, 0.85, POLICY).get(t);
+        double best = Double.NEGATIVE_INFINITY;
+        for (int u = 0; u < 30; u++) {
+            if (u != t && !g.containsEdge(u, t)) {
+                best = Math.max(best, inserted(g, 0.85, u, t, 1.0, t) - base);
+            }
+        }
+        final List<PageRankSensitivity.Change<Integer>> ranking =
+                new PageRankSensitivity<>(g, 0.85, t, 1e-13).rankInsertions(1.0, 3);
+        Assert.assertEquals("PageRankSensitivityTests.rankInsertions", best, ranking.get(0).effect(), 1e-8);
+        Assert.assertTrue("PageRankSensitivityTests.rankInsertions", ranking.get(0).isInsertion());
+        Assert.assertEquals("PageRankSensitivityTests.rankInsertions", (Integer) t, ranking.get(0).target());
+    }
+
+    /**
+     * Test that without damping the effects on a graph that is not strongly connected match PageRank on the modified
+     * graph, whose limit depends on the start vector.
+     */
+    @Test
+    public void undampedReducible() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            g.addEdge((Integer) i, (Integer) i);
+            g.addEdge((Integer) i, (Integer) (i ^ 1));
+        }
+        g.addEdge((Integer) 4, (Integer) 0);
+        g.addEdge((Integer) 4, (Integer) 2);
+        final PageRankSensitivity<Integer> sensitivity = new PageRankSensitivity<>(g, 1.0, 0, 1e-13, 10000, 1);
+        Assert.assertEquals("PageRankSensitivityTests.undampedReducible", 1.25, sensitivity.score(), 1e-9);
+        Assert.assertEquals("PageRankSensitivityTests.undampedReducible", removed(g, 1.0, 4, 2, 0) - 1.25,
+                sensitivity.removalEffect(4, 2), 1e-8);
+        Assert.assertEquals("PageRankSensitivityTests.undampedReducible", 0.25, sensitivity.removalEffect(4, 2), 1e-8);
+    }
+
+    /**
+     * Test that iterations that do not converge within the maximum number of iterations are reported.
+     */
+    @Test
+    public void notConverged() {
+        final DirectedGraph<Integer, Object> g = GraphFixtures.randomWeighted(30, 0.15, new Random(4));
+        final PageRankSensitivity<Integer> sensitivity = new PageRankSensitivity<>(g, 0.85, 0, 1e-13, 2, 1);
+        Assert.assertFalse("PageRankSensitivityTests.notConverged", sensitivity.isConverged());
+        final DirectedEdge<Integer, Object> e = g.edges().iterator().next();
+        Assert.assertTrue("PageRankSensitivityTests.notConverged",
+                Double.isNaN(sensitivity.removalEffect(e.source(), e.target())));
+        final List<PageRankSensitivity.Change<Integer>> ranking = sensitivity.rankRemovals(3);
+        Assert.assertEquals("PageRankSensitivityTests.notConverged", 3, ranking.size());
+        for (PageRankSensitivity.Change<Integer> c : ranking) {
+            Assert.assertTrue("PageRankSensitivityTests.notConverged", Double.isNaN(c.effect()));
+        }
+        Assert.assertTrue("PageRankSensitivityTests.notConverged",
+                new PageRankSensitivity<>(g, 0.85, 0, 1e-13).isConverged());
+    }
+}
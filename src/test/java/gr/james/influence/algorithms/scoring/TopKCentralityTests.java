@@ -0,0 +1,57 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.util.RandomHelper;
+import gr.james.influence.util.collections.GraphState;
+import gr.james.influence.util.collections.Weighted;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link TopKCentrality}.
+ */
+public class TopKCentralityTests {
+    /**
+     * The top {@code k} scores must be equal to the highest scores of {@link ClosenessCentrality} and
+     * {@link HarmonicCentrality} in descending order.
+     */
+    @Test
+    public void equivalence() {
+        final Random random = RandomHelper.getRandom();
+        for (boolean weighted : new boolean[]{false, true}) {
+            final int n = 80;
+            final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+            for (int i = 0; i < n; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 0; i < n; i++) {
+                g.addEdge((Integer) i, (Integer) ((i + 1) % n), weighted ? 0.5 + random.nextDouble() : 1.0);
+                for (int j = 0; j < n; j++) {
+                    if (i != j && random.nextDouble() < 0.03) {
+                        g.addEdge((Integer) i, (Integer) j, weighted ? 0.5 + random.nextDouble() : 1.0);
+                    }
+                }
+            }
+            for (TopKCentrality.Measure measure : TopKCentrality.Measure.values()) {
+                final GraphState<Integer, Double> expected = measure == TopKCentrality.Measure.HARMONIC ?
+                        new HarmonicCentrality<>(g).scores() : new ClosenessCentrality<>(g).scores();
+                final double[] sorted = expected.values().stream()
+                        .mapToDouble(Double::doubleValue).map(x -> -x).sorted().map(x -> -x).toArray();
+                final int k = 10;
+                final TopKCentrality<Integer> top = new TopKCentrality<>(g, k, measure);
+                final List<Weighted<Integer, Double>> ranking = top.ranking();
+                Assert.assertEquals("TopKCentralityTests.equivalence", k, ranking.size());
+                for (int i = 0; i < k; i++) {
+                    Assert.assertEquals("TopKCentralityTests.equivalence",
+                            sorted[i], ranking.get(i).weight, 1.0e-10);
+                    Assert.assertEquals("TopKCentralityTests.equivalence",
+                            expected.get(ranking.get(i).object), ranking.get(i).weight, 1.0e-10);
+                }
+                Assert.assertTrue("TopKCentralityTests.equivalence", top.settled() < (long) n * n);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Direction;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests for the top {@code k} methods of {@link VertexScoring}.
+ */
+public class VertexScoringTests {
+    private static <V, T extends Comparable<? super T>> void check(VertexScoring<V, T> scoring, int n) {
+        final GraphState<V, T> scores = scoring.scores();
+        final List<V> ranked = new ArrayList<>();
+        final Iterator<V> it = scoring.ranked();
+        while (it.hasNext()) {
+            ranked.add(it.next());
+        }
+        Assert.assertEquals("VertexScoringTests.check", n, ranked.size());
+        Assert.assertEquals("VertexScoringTests.check", n, new HashSet<>(ranked).size());
+        for (int i = 1; i < n; i++) {
+            Assert.assertTrue("VertexScoringTests.check",
+                    scores.get(ranked.get(i - 1)).compareTo(scores.get(ranked.get(i))) >= 0);
+        }
+        for (int k : new int[]{0, 1, 5, n, n + 10}) {
+            final List<V> top = scoring.topK(k);
+            Assert.assertEquals("VertexScoringTests.check", Math.min(k, n), top.size());
+            Assert.assertEquals("VertexScoringTests.check", ranked.subList(0, top.size()), top);
+        }
+    }
+
+    /**
+     * The top {@code k} must be a prefix of the ranked iteration, which must be in descending order of score, both for
+     * the default implementation and for the implementation on primitive arrays.
+     */
+    @Test
+    public void topK() {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(100, 0.05).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g);
+        check(new DegreeCentrality<>(g, Direction.OUTBOUND), 100);
+        check(new BetweennessCentrality<>(g), 100);
+        check(new KatzCentrality<>(g, 1.0e-8), 100);
+    }
+}
@@ -0,0 +1,139 @@
+package gr.james.influence.algorithms.scoring;
+
+import gr.james.influence.algorithms.ConvergencePolicy;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.GraphFixtures;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.util.collections.GraphState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for the warm start constructors of {@link PageRank}, {@link HITS} and {@link DeGroot}.
+ */
+public class WarmStartTests {
+    private static final ConvergencePolicy POLICY = ConvergencePolicy.of(ConvergencePolicy.Norm.LINF, 1e-10);
+
+    /**
+     * Removes the last vertex, adds a new vertex and a few edges and connects the graph again.
+     */
+    private static DirectedGraph<Integer, Object> perturb(DirectedGraph<Integer, Object> g, int n, Random random) {
+        final DirectedGraph<Integer, Object> h = DirectedGraph.create(g);
+        h.removeVertex(n - 1);
+        h.addVertex(n);
+        h.addEdge((Integer) 5, (Integer) n);
+        h.addEdge((Integer) n, (Integer) 6);
+        for (int k = 0; k < 3; k++) {
+            final int i = random.nextInt(n - 1);
+            final int j = random.nextInt(n - 1);
+            if (i != j) {
+                h.addEdge((Integer) i, (Integer) j);
+            }
+        }
+        Graphs.connect(h);
+        return h;
+    }
+
+    /**
+     * Test that a warm started {@link PageRank} converges to the same scores in fewer iterations.
+     */
+    @Test
+    public void pageRank() {
+        final Random random = new Random(1);
+        final int n = 300;
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(n, 0.03, random);
+        final GraphState<Integer, Double> prior = PageRank.execute(g, 0.85, POLICY);
+        final DirectedGraph<Integer, Object> h = perturb(g, n, random);
+
+        final PageRank<Integer> cold = new PageRank<>(h, 0.85, POLICY);
+        final PageRank<Integer> warm = new PageRank<>(h, 0.85, POLICY, prior);
+        final GraphState<Integer, Double> expected = cold.run();
+        final GraphState<Integer, Double> actual = warm.run();
+        Assert.assertEquals("WarmStartTests.pageRank", h.vertexSet(), actual.keySet());
+        for (Integer v : h) {
+            Assert.assertEquals("WarmStartTests.pageRank", expected.get(v), actual.get(v), 1e-8);
+        }
+        Assert.assertTrue("WarmStartTests.pageRank", warm.iterations() < cold.iterations());
+    }
+
+    /**
+     * Test that without damping the limit of a warm started {@link PageRank} depends on the prior if the graph is not
+     * strongly connected.
+     */
+    @Test
+    public void pageRankUndamped() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge((Integer) 0, (Integer) 1);
+        g.addEdge((Integer) 1, (Integer) 0);
+        g.addEdge((Integer) 2, (Integer) 3);
+        g.addEdge((Integer) 3, (Integer) 2);
+        final Map<Integer, Double> prior = new HashMap<>();
+        prior.put(0, 1.5);
+        prior.put(1, 1.5);
+        prior.put(2, 0.5);
+        prior.put(3, 0.5);
+
+        final GraphState<Integer, Double> cold = PageRank.execute(g, 1.0, POLICY);
+        final GraphState<Integer, Double> warm = PageRank.execute(g, 1.0, POLICY, prior);
+        for (Integer v : g) {
+            Assert.assertEquals("WarmStartTests.pageRankUndamped", 1.0, cold.get(v), 1e-8);
+            Assert.assertEquals("WarmStartTests.pageRankUndamped", prior.get(v), warm.get(v), 1e-8);
+        }
+        final GraphState<Integer, Double> damped = PageRank.execute(g, 0.85, POLICY, prior);
+        for (Integer v : g) {
+            Assert.assertEquals("WarmStartTests.pageRankUndamped", 1.0, damped.get(v), 1e-8);
+        }
+    }
+
+    /**
+     * Test that a warm started {@link HITS} converges to the same scores in fewer iterations.
+     */
+    @Test
+    public void hits() {
+        final Random random = new Random(2);
+        final int n = 300;
+        final DirectedGraph<Integer, Object> g = GraphFixtures.random(n, 0.03, random);
+        final GraphState<Integer, HITS.HITSScore> prior = HITS.execute(g, POLICY);
+        final DirectedGraph<Integer, Object> h = perturb(g, n, random);
+
+        final HITS<Integer> cold = new HITS<>(h, POLICY);
+        final HITS<Integer> warm = new HITS<>(h, POLICY, prior);
+        final GraphState<Integer, HITS.HITSScore> expected = cold.run();
+        final GraphState<Integer, HITS.HITSScore> actual = warm.run();
+        Assert.assertEquals("WarmStartTests.hits", h.vertexSet(), actual.keySet());
+        for (Integer v : h) {
+            Assert.assertEquals("WarmStartTests.hits", expected.get(v).getAuthority(), actual.get(v).getAuthority(),
+                    1e-6);
+            Assert.assertEquals("WarmStartTests.hits", expected.get(v).getHub(), actual.get(v).getHub(), 1e-6);
+        }
+        Assert.assertTrue("WarmStartTests.hits", warm.iterations() < cold.iterations());
+    }
+
+    /**
+     * Test that missing opinions are filled with the default and extra opinions are dropped.
+     */
+    @Test
+    public void deGroot() {
+        final DirectedGraph<Integer, Object> g = DirectedGraph.create();
+        g.addVertex(0);
+        g.addVertex(1);
+        g.addEdge((Integer) 0, (Integer) 0);
+        g.addEdge((Integer) 1, (Integer) 1);
+        final Map<Integer, Double> initial = new HashMap<>();
+        initial.put(0, 0.25);
+        initial.put(2, 1.0);
+
+        final DeGroot<Integer> deGroot = new DeGroot<>(g, initial, 0.5, POLICY);
+        final GraphState<Integer, Double> state = deGroot.run();
+        Assert.assertEquals("WarmStartTests.deGroot", g.vertexSet(), state.keySet());
+        Assert.assertEquals("WarmStartTests.deGroot", 0.25, state.get(0), 0);
+        Assert.assertEquals("WarmStartTests.deGroot", 0.5, state.get(1), 0);
+    }
+}
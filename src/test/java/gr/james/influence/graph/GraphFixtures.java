@@ -0,0 +1,59 @@
+package gr.james.influence.graph;
+
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.algorithms.layout.BreadthFirstSearchPeriodicity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Graph fixtures shared by the tests.
+ */
+public final class GraphFixtures {
+    private GraphFixtures() {
+    }
+
+    /**
+     * A strongly connected and aperiodic {@link RandomGenerator} graph on the vertices {@code [0, n)}.
+     * <p>
+     * The graph is connected with {@link Graphs#connect(DirectedGraph)} and, if it is still periodic, a self loop is
+     * added on vertex {@code 0}. The graph only depends on {@code random}, which is advanced by the generation.
+     *
+     * @param n      the number of vertices
+     * @param p      the probability of each edge
+     * @param random the {@link Random} to use
+     * @return the new graph
+     */
+    public static DirectedGraph<Integer, Object> random(int n, double p, Random random) {
+        final AtomicInteger next = new AtomicInteger();
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(n, p).generate(random, next::getAndIncrement);
+        Graphs.connect(g);
+        if (!BreadthFirstSearchPeriodicity.isAperiodic(g)) {
+            g.addEdge(0, 0);
+        }
+        return g;
+    }
+
+    /**
+     * The graph of {@link #random(int, double, Random)} with edge weights drawn uniformly from {@code [1, 2)}.
+     *
+     * @param n      the number of vertices
+     * @param p      the probability of each edge
+     * @param random the {@link Random} to use
+     * @return the new graph
+     */
+    public static DirectedGraph<Integer, Object> randomWeighted(int n, double p, Random random) {
+        final DirectedGraph<Integer, Object> g = random(n, p, random);
+        final List<DirectedEdge<Integer, Object>> edges = new ArrayList<>();
+        for (DirectedEdge<Integer, Object> e : g.edges()) {
+            edges.add(e);
+        }
+        for (DirectedEdge<Integer, Object> e : edges) {
+            g.setEdgeWeight(e.source(), e.target(), 1 + random.nextDouble());
+        }
+        return g;
+    }
+}
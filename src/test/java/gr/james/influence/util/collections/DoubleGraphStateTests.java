@@ -0,0 +1,186 @@
+package gr.james.influence.util.collections;
+
+import gr.james.influence.algorithms.CompressedGraph;
+import gr.james.influence.algorithms.generators.random.RandomGenerator;
+import gr.james.influence.algorithms.scoring.ClosenessCentrality;
+import gr.james.influence.algorithms.scoring.DecayCentrality;
+import gr.james.influence.algorithms.scoring.HarmonicCentrality;
+import gr.james.influence.algorithms.scoring.PageRank;
+import gr.james.influence.algorithms.scoring.VertexScoring;
+import gr.james.influence.graph.DirectedGraph;
+import gr.james.influence.graph.Graphs;
+import gr.james.influence.graph.VertexProvider;
+import gr.james.influence.util.RandomHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link DoubleGraphState}.
+ */
+public class DoubleGraphStateTests {
+    /**
+     * Test that {@link DoubleGraphState} behaves like a {@link GraphState} with the same mappings.
+     */
+    @Test
+    public void equivalence() {
+        final Random random = RandomHelper.getRandom();
+        final List<Integer> vertices = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            vertices.add(i);
+        }
+        final VertexIndex<Integer> index = VertexIndex.of(vertices);
+        final GraphState<Integer, Double> a = GraphState.create();
+        final GraphState<Integer, Double> b = GraphState.create();
+        final DoubleGraphState<Integer> x = DoubleGraphState.create(index);
+        final DoubleGraphState<Integer> y = DoubleGraphState.create(index);
+        for (int v : vertices) {
+            final double p = random.nextDouble() - 0.5;
+            final double q = random.nextDouble() - 0.5;
+            a.put(v, p);
+            b.put(v, q);
+            x.put(v, p);
+            y.set(v, q);
+        }
+
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a, x);
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", x, a);
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.hashCode(), x.hashCode());
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a, DoubleGraphState.copyOf(a));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.subtract(b), x.subtract(y));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.subtract(b), x.subtract(b));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.abs(), x.abs());
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.abs().power(0.5), x.abs().power(0.5));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getMax(), x.getMax());
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getMin(), x.getMin());
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getSum(), x.getSum(), 1e-12);
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getAverage(), x.getAverage(), 1e-12);
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.lessThan(0.25), x.lessThan(0.25));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.lessThan(0.5), x.lessThan(0.5));
+        final List<Integer> filter = vertices.subList(10, 20);
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getMax(filter), x.getMax(filter));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getMin(filter), x.getMin(filter));
+        Assert.assertEquals("DoubleGraphStateTests.equivalence", a.getSum(filter), x.getSum(filter), 1e-12);
+    }
+
+    /**
+     * Test the {@link java.util.Map} semantics of {@link DoubleGraphState}.
+     */
+    @Test
+    public void mapSemantics() {
+        final DoubleGraphState<String> s = DoubleGraphState.create(VertexIndex.of(Arrays.asList("a", "b", "c")), 1.0);
+        Assert.assertEquals("DoubleGraphStateTests.mapSemantics", 3, s.size());
+        Assert.assertEquals("DoubleGraphStateTests.mapSemantics", Arrays.asList("a", "b", "c"),
+                new ArrayList<>(s.keySet()));
+        Assert.assertEquals("DoubleGraphStateTests.mapSemantics", 1.0, s.put("b", 2.0), 0);
+        Assert.assertEquals("DoubleGraphStateTests.mapSemantics", 2.0, s.getDouble("b"), 0);
+        Assert.assertEquals("DoubleGraphStateTests.mapSemantics", 2.0, s.valueAt(1), 0);
+        Assert.assertNull("DoubleGraphStateTests.mapSemantics", s.get("d"));
+        Assert.assertFalse("DoubleGraphStateTests.mapSemantics", s.containsKey("d"));
+        for (Map.Entry<String, Double> e : s.entrySet()) {
+            e.setValue(e.getValue() * 10);
+        }
+        Assert.assertArrayEquals("DoubleGraphStateTests.mapSemantics", new double[]{10, 20, 10}, s.toArray(), 0);
+    }
+
+    /**
+     * Test that {@link DoubleGraphState} remains a {@link GraphState} after its keys change.
+     */
+    @Test
+    public void structuralChanges() {
+        final DoubleGraphState<String> s = DoubleGraphState.create(VertexIndex.of(Arrays.asList("a", "b", "c")), 1.0);
+        final GraphState<String, Double> a = GraphState.create(Arrays.asList("a", "b", "c"), 1.0);
+        Assert.assertNull("DoubleGraphStateTests.structuralChanges", s.put("d", 4.0));
+        a.put("d", 4.0);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", 1.0, s.remove("a"), 0);
+        a.remove("a");
+        Assert.assertNull("DoubleGraphStateTests.structuralChanges", s.remove("e"));
+        s.set("b", 2.0);
+        a.put("b", 2.0);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a, s);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.hashCode(), s.hashCode());
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.fingerprint(), s.fingerprint());
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", Arrays.asList("b", "c", "d"),
+                new ArrayList<>(s.keySet()));
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", 4.0, s.getDouble("d"), 0);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.getMax(), s.getMax());
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.getSum(), s.getSum(), 0);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.getAverage(), s.getAverage(), 0);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.abs(), s.abs());
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", a.subtract(s), s.subtract(a));
+        try {
+            s.toArray();
+            Assert.fail("DoubleGraphStateTests.structuralChanges");
+        } catch (IllegalStateException ignored) {
+        }
+        final DoubleGraphState<String> t = DoubleGraphState.create(VertexIndex.of(Arrays.asList("a", "b", "c")), 1.0);
+        t.keySet().removeIf("b"::equals);
+        Assert.assertEquals("DoubleGraphStateTests.structuralChanges", Arrays.asList("a", "c"),
+                new ArrayList<>(t.keySet()));
+        t.put("a", null);
+        Assert.assertTrue("DoubleGraphStateTests.structuralChanges", t.containsKey("a"));
+        Assert.assertNull("DoubleGraphStateTests.structuralChanges", t.get("a"));
+        t.clear();
+        Assert.assertTrue("DoubleGraphStateTests.structuralChanges", t.isEmpty());
+    }
+
+    /**
+     * Test that {@link CompressedGraph#toArray(Map)} accepts a state of its index whose keys have changed.
+     */
+    @Test
+    public void toArrayAfterStructuralChanges() {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(10, 0.3).generate(VertexProvider.INTEGER_PROVIDER);
+        final CompressedGraph<Integer> graph = CompressedGraph.of(g);
+        final double[] x = new double[graph.vertexCount()];
+        Arrays.setAll(x, i -> i);
+        final DoubleGraphState<Integer> s = graph.toGraphState(x);
+        Assert.assertTrue("DoubleGraphStateTests.toArrayAfterStructuralChanges", s.isIndexedBy(graph.index()));
+        final Integer v = graph.vertex(2);
+        s.remove(v);
+        s.put(v, 5.0);
+        Assert.assertFalse("DoubleGraphStateTests.toArrayAfterStructuralChanges", s.isIndexedBy(graph.index()));
+        x[2] = 5.0;
+        Assert.assertArrayEquals("DoubleGraphStateTests.toArrayAfterStructuralChanges", x, graph.toArray(s), 0);
+        Assert.assertArrayEquals("DoubleGraphStateTests.toArrayAfterStructuralChanges", x,
+                DoubleGraphState.copyOf(graph.index(), s, Double.NaN).toArray(), 0);
+    }
+
+    /**
+     * Test that {@link PageRank} returns a {@link DoubleGraphState} that sums to {@code V}.
+     */
+    @Test
+    public void pageRank() {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(50, 0.1).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g);
+        final GraphState<Integer, Double> p = PageRank.execute(g, 0.85, 0.0);
+        Assert.assertTrue("DoubleGraphStateTests.pageRank", p instanceof DoubleGraphState);
+        Assert.assertEquals("DoubleGraphStateTests.pageRank", g.vertexCount(), p.getSum(), 1e-8);
+    }
+
+    /**
+     * Test that the distance based centralities return a {@link DoubleGraphState} with the scores of the vertices.
+     */
+    @Test
+    public void centralities() {
+        final DirectedGraph<Integer, Object> g =
+                new RandomGenerator<Integer, Object>(50, 0.1).generate(VertexProvider.INTEGER_PROVIDER);
+        Graphs.connect(g);
+        final List<VertexScoring<Integer, Double>> scorings = Arrays.asList(new ClosenessCentrality<>(g),
+                new HarmonicCentrality<>(g), new DecayCentrality<>(g, 0.5));
+        for (VertexScoring<Integer, Double> scoring : scorings) {
+            final GraphState<Integer, Double> scores = scoring.scores();
+            Assert.assertTrue("DoubleGraphStateTests.centralities", scores instanceof DoubleGraphState);
+            Assert.assertEquals("DoubleGraphStateTests.centralities", g.vertexSet(), scores.keySet());
+            for (Integer v : g) {
+                Assert.assertEquals("DoubleGraphStateTests.centralities", scoring.score(v), scores.get(v));
+            }
+        }
+    }
+}